@@ -2,6 +2,7 @@ package com.realestate.rems;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main entry point for the Real Estate Management System application.
@@ -9,6 +10,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * This class bootstraps the Spring Boot application.
  */
 @SpringBootApplication
+@EnableScheduling
 public class RealEstateApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,53 @@
+package com.realestate.rems.config;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serializable;
+import java.security.Principal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal of a JWT-authenticated request, built from the token's claims without a user lookup.
+ * Controllers receive it with {@code @AuthenticationPrincipal}; {@link #getName()} is the email,
+ * so {@code Authentication.getName()} keeps working.
+ */
+public class AuthenticatedUser implements Principal, Serializable {
+
+    private final Long id;
+    private final String email;
+    private final String role;
+
+    public AuthenticatedUser(Long id, String email, String role) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
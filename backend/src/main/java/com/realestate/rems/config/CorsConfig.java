@@ -33,7 +33,7 @@ public class CorsConfig {
         // Allow all headers including Authorization (JWT)
         config.setAllowedHeaders(Arrays.asList("*"));
         config.setExposedHeaders(Arrays.asList(
-                "Authorization", "Content-Type", "X-Total-Count"
+                "Authorization", "Content-Type", "X-Total-Count", "X-Stale", "Age"
         ));
 
         // Allow preflight requests to be cached for 1 hour
@@ -1,13 +1,13 @@
 package com.realestate.rems.config;
 
-import com.realestate.rems.service.UserDetailsServiceImpl;
+import com.realestate.rems.service.DisabledUserRegistry;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,15 +22,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     
     private final JwtUtil jwtUtil;
-    private final UserDetailsServiceImpl userDetailsService;
+    private final DisabledUserRegistry disabledUsers;
 
     // ✅ CONSTRUCTOR INJECTION (breaks circular dependency)
     public JwtAuthenticationFilter(
             JwtUtil jwtUtil,
-            UserDetailsServiceImpl userDetailsService
+            DisabledUserRegistry disabledUsers
     ) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+        this.disabledUsers = disabledUsers;
     }
 
     @Override
@@ -47,29 +47,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             try {
                 String token = authHeader.substring(7);
 
-                if (jwtUtil.validateToken(token)) {
-                    String email = jwtUtil.extractEmail(token);
+                // Verified once per request (or served from JwtUtil's verified-token cache);
+                // id and role come from the claims, so no user query is needed
+                AuthenticatedUser user = jwtUtil.extractUser(token);
 
-                    if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                if (disabledUsers.isDisabled(user.getId())) {
+                    logger.debug("Rejected JWT token of disabled user {}", user.getId());
+                } else if (SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                        UserDetails userDetails =
-                                userDetailsService.loadUserByUsername(email);
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(
+                                    user,
+                                    null,
+                                    user.getAuthorities()
+                            );
 
-                        UsernamePasswordAuthenticationToken authentication =
-                                new UsernamePasswordAuthenticationToken(
-                                        userDetails,
-                                        null,
-                                        userDetails.getAuthorities()
-                                );
+                    authentication.setDetails(
+                            new WebAuthenticationDetailsSource().buildDetails(request)
+                    );
 
-                        authentication.setDetails(
-                                new WebAuthenticationDetailsSource().buildDetails(request)
-                        );
-
-                        SecurityContextHolder.getContext()
-                                .setAuthentication(authentication);
-                    }
+                    SecurityContextHolder.getContext()
+                            .setAuthentication(authentication);
                 }
+            } catch (JwtException | IllegalArgumentException e) {
+                // Invalid or expired token: request continues unauthenticated
+                logger.debug("Rejected JWT token: {}", e.getMessage());
             } catch (Exception e) {
                 // Log error but continue filter chain
                 // Invalid tokens will be handled by Spring Security
@@ -1,5 +1,6 @@
 package com.realestate.rems.config;
 
+import com.realestate.rems.model.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,7 +8,13 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtil {
@@ -15,45 +22,140 @@ public class JwtUtil {
     private final SecretKey key;
     private final long expirationTime;
 
+    // Parsers are immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser;
+
+    // Tokens whose signature has already been verified, keyed by SHA-256 of the token
+    private final Map<String, Claims> verifiedTokens = new ConcurrentHashMap<>();
+    private final int maxCachedTokens;
+
     // ✅ Fixed secret key from configuration (persists across restarts)
     public JwtUtil(@Value("${jwt.secret}") String secret,
-                   @Value("${jwt.expiration:3600000}") long expirationTime) {
+                   @Value("${jwt.expiration:3600000}") long expirationTime,
+                   @Value("${jwt.cache.max-entries:10000}") int maxCachedTokens) {
         // Convert string secret to SecretKey
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expirationTime = expirationTime;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        this.maxCachedTokens = maxCachedTokens;
     }
 
-    // ✅ Generate token
-    public String generateToken(String email) {
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+
+    // ✅ Generate token (user id and role travel as claims, so requests need no user lookup)
+    public String generateToken(User user) {
         return Jwts.builder()
-                .setSubject(email)
+                .setSubject(user.getEmail())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLE_CLAIM, user.getRole())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
                 .signWith(key)
                 .compact();
     }
 
+    /**
+     * Verifies the token and returns its claims. Tokens seen before are served from the
+     * verified-token cache until they expire, skipping signature verification.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT token is empty");
+        }
+
+        String digest = digest(token);
+        Claims cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            if (!isExpired(cached, System.currentTimeMillis())) {
+                return cached;
+            }
+            verifiedTokens.remove(digest, cached);
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            cache(digest, claims);
+        }
+        return claims;
+    }
+
     // ✅ Extract email from token
     public String extractEmail(String token) {
-        return getClaims(token).getSubject();
+        return parseToken(token).getSubject();
+    }
+
+    /**
+     * Verifies the token and builds the request principal from its claims.
+     *
+     * @throws JwtException if the token is invalid or was issued without user claims
+     */
+    public AuthenticatedUser extractUser(String token) {
+        Claims claims = parseToken(token);
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (userId == null || role == null) {
+            throw new MalformedJwtException("Token does not carry user claims");
+        }
+        return new AuthenticatedUser(userId, claims.getSubject(), role);
     }
 
     // ✅ Validate token
     public boolean validateToken(String token) {
         try {
-            getClaims(token);
+            parseToken(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
 
-    // 🔧 Internal helper
-    private Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    int cachedTokenCount() {
+        return verifiedTokens.size();
+    }
+
+    // 🔧 Internal helpers
+
+    private void cache(String digest, Claims claims) {
+        if (verifiedTokens.size() >= maxCachedTokens) {
+            evict();
+        }
+        verifiedTokens.put(digest, claims);
+    }
+
+    /**
+     * Drops expired tokens; if the cache is still full, drops an arbitrary tenth of it.
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        verifiedTokens.values().removeIf(claims -> isExpired(claims, now));
+        if (verifiedTokens.size() < maxCachedTokens) {
+            return;
+        }
+
+        int excess = Math.max(1, maxCachedTokens / 10);
+        Iterator<String> it = verifiedTokens.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static boolean isExpired(Claims claims, long now) {
+        return claims.getExpiration().getTime() <= now;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
@@ -0,0 +1,54 @@
+package com.realestate.rems.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections of read-only transactions to the replicas, in turn, and everything else
+ * (write transactions, work outside a transaction) to the primary. Reads of a user who wrote
+ * recently stay on the primary, see {@link ReadYourWrites}.
+ *
+ * The routing key is taken when the connection is first used, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction
+ * manager asks for a connection before the read-only flag of the transaction is published.
+ */
+class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final List<String> replicas;
+    private final ReadYourWrites readYourWrites;
+    private final AtomicInteger next = new AtomicInteger();
+
+    ReadWriteRoutingDataSource(List<String> replicas, ReadYourWrites readYourWrites) {
+        this.replicas = replicas;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (readYourWrites.isPinnedToPrimary()) {
+                return PRIMARY;
+            }
+            return replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+        }
+        Long userId = ReadYourWrites.currentUserId();
+        if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readYourWrites.recordWrite(userId);
+                }
+            });
+        }
+        return PRIMARY;
+    }
+}
@@ -0,0 +1,100 @@
+package com.realestate.rems.config;
+
+import com.realestate.rems.service.PropertiesCreatedEvent;
+import com.realestate.rems.service.PropertyChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-your-writes bookkeeping for replica routing. Replicas lag the primary a little, so for
+ * {@code database.replicas.read-your-writes-ms} after a user's own write their reads go to the
+ * primary, and caches of listing data are not filled from reads that may predate the latest
+ * catalog change. Without replicas everything reads from the primary and this is inert.
+ */
+@Component
+public class ReadYourWrites {
+
+    // Pinned users are few; expired ones are dropped when the map grows past this
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final long windowMs;
+    private final Map<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private volatile boolean replicasInUse;
+    private volatile long catalogChangedAt;
+
+    public ReadYourWrites(@Value("${database.replicas.read-your-writes-ms:5000}") long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Whether the current user wrote recently, so their reads must see the primary.
+     */
+    public boolean isPinnedToPrimary() {
+        if (!replicasInUse) {
+            return false;
+        }
+        Long userId = currentUserId();
+        if (userId == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        pinnedUntil.remove(userId, until);
+        return false;
+    }
+
+    /**
+     * Whether a replica read may still miss the latest listing change, so its result should not
+     * be cached. Reads pinned to the primary are always current.
+     */
+    public boolean mayReadBehindWrites() {
+        return replicasInUse && !isPinnedToPrimary()
+                && System.currentTimeMillis() - catalogChangedAt < windowMs;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        catalogChangedAt = System.currentTimeMillis();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertiesCreated(PropertiesCreatedEvent event) {
+        catalogChangedAt = System.currentTimeMillis();
+    }
+
+    // 🔧 Internal helpers
+
+    void setReplicasInUse(boolean replicasInUse) {
+        this.replicasInUse = replicasInUse;
+    }
+
+    /**
+     * Pins {@code userId} to the primary; called when a write transaction of theirs commits.
+     */
+    void recordWrite(Long userId) {
+        long now = System.currentTimeMillis();
+        if (pinnedUntil.size() > PURGE_THRESHOLD) {
+            pinnedUntil.values().removeIf(until -> until <= now);
+        }
+        pinnedUntil.put(userId, now + windowMs);
+    }
+
+    static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.realestate.rems.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas, enabled by listing their JDBC URLs in {@code database.replicas.urls}. The
+ * application then gets a routing DataSource: read-only transactions (Spring Data reads, listing
+ * and favorites pages, exports) go to the replicas and writes to {@code spring.datasource}.
+ * Flyway and anything outside a transaction use the primary.
+ */
+@Configuration
+@ConditionalOnExpression("!'${database.replicas.urls:}'.isBlank()")
+public class ReplicaRoutingConfig {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties,
+                                 ReadYourWrites readYourWrites,
+                                 @Value("${database.replicas.urls}") List<String> replicaUrls,
+                                 @Value("${database.replicas.username:${spring.datasource.username:}}") String username,
+                                 @Value("${database.replicas.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("rems-primary");
+        pools.add(primary);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadWriteRoutingDataSource.PRIMARY, primary);
+        List<String> replicaKeys = new ArrayList<>();
+        for (String url : replicaUrls) {
+            String key = "replica-" + (replicaKeys.size() + 1);
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            replica.setPoolName("rems-" + key);
+            replica.setReadOnly(true);
+            pools.add(replica);
+            targets.put(key, replica);
+            replicaKeys.add(key);
+        }
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replicaKeys, readYourWrites);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        readYourWrites.setReplicasInUse(true);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @PreDestroy
+    void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -58,6 +58,7 @@ public class SecurityConfig {
                         "/swagger-ui/**",
                         "/swagger-ui.html",
                         "/uploads/**",
+                        "/api/images/**",
                         "/",
                         "/auth/**",
                         "/css/**",
@@ -1,27 +1,53 @@
 package com.realestate.rems.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.Callable;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
-        @Override
-        public void addResourceHandlers(@NonNull ResourceHandlerRegistry registry) {
-                // Serve uploaded images from uploads/images folder
-                // When running from backend folder, this resolves correctly
-                Path uploadPath = Paths.get("uploads/images").toAbsolutePath();
-                String uploadLocation = "file:///" + uploadPath.toString().replace('\\', '/') + "/";
+        private static final String EXPORT_PATH = "/api/properties/export";
 
-                System.out.println("Image upload path configured: " + uploadLocation);
+        @Value("${export.timeout-ms:1800000}")
+        private long exportTimeoutMs;
 
-                registry.addResourceHandler("/uploads/images/**")
-                                .addResourceLocations(uploadLocation);
+        /**
+         * Streamed exports of a large catalog may run for minutes, so the export endpoint gets
+         * its own async timeout; every other async request keeps the default.
+         */
+        @Override
+        public void configureAsyncSupport(@NonNull AsyncSupportConfigurer configurer) {
+                configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+                        @Override
+                        public <T> void beforeConcurrentHandling(@NonNull NativeWebRequest request,
+                                        @NonNull Callable<T> task) {
+                                // Still before startAsync, so the timeout applies to this request
+                                if (request instanceof AsyncWebRequest asyncRequest
+                                                && EXPORT_PATH.equals(request.getAttribute(
+                                                                HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                                                                RequestAttributes.SCOPE_REQUEST))) {
+                                        asyncRequest.setTimeout(exportTimeoutMs);
+                                }
+                        }
+                });
+        }
+
+        @Override
+        public void addResourceHandlers(@NonNull ResourceHandlerRegistry registry) {
+                // Uploaded images (/uploads/images/**) are served by ImageController
 
                 // Frontend static resources
                 // When running from backend folder, frontend is at ../frontend
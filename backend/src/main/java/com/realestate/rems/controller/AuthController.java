@@ -50,7 +50,7 @@ public class AuthController {
                 request.getEmail(),
                 request.getPassword());
 
-        String token = jwtUtil.generateToken(user.getEmail());
+        String token = jwtUtil.generateToken(user);
 
         LoginResponseDTO response = new LoginResponseDTO(
                 token,
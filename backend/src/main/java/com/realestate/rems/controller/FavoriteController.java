@@ -1,16 +1,23 @@
 package com.realestate.rems.controller;
 
+import com.realestate.rems.config.AuthenticatedUser;
+import com.realestate.rems.dto.CursorPageDTO;
+import com.realestate.rems.dto.FavoriteBatchOutcome;
+import com.realestate.rems.dto.FavoriteBatchRequestDTO;
+import com.realestate.rems.dto.FavoriteSummary;
 import com.realestate.rems.model.ApiResponse;
 import com.realestate.rems.model.Favorite;
 import com.realestate.rems.service.FavoriteService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/favorites")
@@ -25,33 +32,64 @@ public class FavoriteController {
     @PreAuthorize("hasRole('ROLE_client')")
     public ResponseEntity<Favorite> addFavorite(
             @PathVariable Long propertyId,
-            Authentication authentication) {
-        Long clientId = getUserIdFromAuthentication(authentication);
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        Long clientId = user.getId();
         Favorite favorite = favoriteService.addFavorite(propertyId, clientId);
         return ResponseEntity.ok(favorite);
     }
 
     @GetMapping
     @PreAuthorize("hasRole('ROLE_client')")
-    public ResponseEntity<List<Favorite>> getFavorites(Authentication authentication) {
-        Long clientId = getUserIdFromAuthentication(authentication);
-        return ResponseEntity.ok(favoriteService.getClientFavorites(clientId));
+    public ResponseEntity<CursorPageDTO<FavoriteSummary>> getFavorites(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        Long clientId = user.getId();
+        return ResponseEntity.ok(favoriteService.getClientFavorites(clientId, cursor, size));
+    }
+
+    /**
+     * Add many favorites at once; already saved or unknown properties are reported per id
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ROLE_client')")
+    public ResponseEntity<Map<Long, FavoriteBatchOutcome>> addFavorites(
+            @Valid @RequestBody FavoriteBatchRequestDTO request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(favoriteService.addFavorites(user.getId(), request.getPropertyIds()));
+    }
+
+    /**
+     * Remove many favorites at once; properties that were not saved are reported per id
+     */
+    @DeleteMapping("/batch")
+    @PreAuthorize("hasRole('ROLE_client')")
+    public ResponseEntity<Map<Long, FavoriteBatchOutcome>> removeFavorites(
+            @Valid @RequestBody FavoriteBatchRequestDTO request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(favoriteService.removeFavorites(user.getId(), request.getPropertyIds()));
+    }
+
+    /**
+     * Favorited flags for a batch of properties, e.g. {@code ?propertyIds=1,2,3}
+     */
+    @GetMapping("/status")
+    @PreAuthorize("hasRole('ROLE_client')")
+    public ResponseEntity<Map<Long, Boolean>> getFavoritedStatus(
+            @RequestParam List<Long> propertyIds,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(favoriteService.getFavoritedStatus(user.getId(), propertyIds));
     }
 
     @DeleteMapping("/{propertyId}")
     @PreAuthorize("hasRole('ROLE_client')")
     public ResponseEntity<ApiResponse> removeFavorite(
             @PathVariable Long propertyId,
-            Authentication authentication) {
-        Long clientId = getUserIdFromAuthentication(authentication);
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        Long clientId = user.getId();
         favoriteService.removeFavorite(propertyId, clientId);
         ApiResponse response = new ApiResponse(true, "Favorite removed successfully");
         return ResponseEntity.ok(response);
     }
-
-    private Long getUserIdFromAuthentication(Authentication authentication) {
-        String email = authentication.getName();
-        return favoriteService.getUserIdByEmail(email);
-    }
 }
 
@@ -0,0 +1,78 @@
+package com.realestate.rems.controller;
+
+import com.realestate.rems.dto.ImageInfoDTO;
+import com.realestate.rems.service.ImageService;
+import com.realestate.rems.service.ImageVariant;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Uploaded images: originals, derivatives and their metadata.
+ */
+@RestController
+@CrossOrigin
+public class ImageController {
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private ImageResponseWriter imageResponseWriter;
+
+    /**
+     * Get the dimensions and derivative URLs of an uploaded image
+     */
+    @GetMapping("/api/images/{filename}")
+    public ResponseEntity<ImageInfoDTO> getImageInfo(@PathVariable String filename) {
+        return ResponseEntity.ok(imageService.getInfo(filename));
+    }
+
+    /**
+     * Get an uploaded original
+     */
+    @GetMapping("/uploads/images/{filename}")
+    public void getOriginal(@PathVariable String filename, HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        if (imageResponseWriter.writeCached(request, response, filename, mediaType(filename))) {
+            return;
+        }
+        String original = imageService.originalKey(filename);
+        imageResponseWriter.write(request, response, original, filename, mediaType(filename), false);
+    }
+
+    /**
+     * Get a derivative (thumb, detail or full), producing it if it does not exist yet
+     */
+    @GetMapping("/uploads/images/{variant}/{filename}")
+    public void getVariant(@PathVariable String variant, @PathVariable String filename,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageVariant imageVariant = ImageVariant.fromName(variant);
+        String tag = variant + "-" + filename;
+        // Revalidations and hot thumbnails are answered without looking the variant up in storage
+        if (imageResponseWriter.writeCached(request, response, tag, MediaType.IMAGE_JPEG)) {
+            return;
+        }
+        Optional<String> key = imageService.variantKey(filename, imageVariant);
+        if (key.isPresent()) {
+            // Thumbnails fill every listing page, so they are the ones worth keeping in memory
+            imageResponseWriter.write(request, response, key.get(), tag,
+                    MediaType.IMAGE_JPEG, imageVariant == ImageVariant.THUMB);
+        } else {
+            // Pipeline busy: the original is correct, just larger; don't let it be cached as the variant
+            String original = imageService.originalKey(filename);
+            imageResponseWriter.writeUncached(request, response, original, mediaType(filename));
+        }
+    }
+
+    private static MediaType mediaType(String filename) {
+        return MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+}
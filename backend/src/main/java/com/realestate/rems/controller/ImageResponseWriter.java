@@ -0,0 +1,356 @@
+package com.realestate.rems.controller;
+
+import com.realestate.rems.repository.ImageStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Writes uploaded images to the response. Image files never change once written (their names
+ * are random or derived from the original), so responses carry a far-future immutable
+ * {@code Cache-Control} and a strong ETag built from the name. Conditional requests get a 304,
+ * and a single byte range gets a 206.
+ *
+ * Revalidations and hot-cache hits are answered before the storage is asked anything, and
+ * object sizes are remembered, so with remote storage they cost no round trip.
+ *
+ * Bodies come from one of three places: a small LRU of hot thumbnails, Tomcat's sendfile (the
+ * kernel copies the file to the socket) for large files on local storage, or a stream copy
+ * from the {@link ImageStorage}.
+ */
+@Component
+public class ImageResponseWriter {
+
+    // Set by Tomcat's NIO connector when it can send a file itself
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Stored objects never change, so a size is looked up once; a remote stat costs a round trip
+    private static final int MAX_KNOWN_SIZES = 10_000;
+
+    private final ImageStorage imageStorage;
+    private final String cacheControl;
+    private final long sendfileThreshold;
+    private final HotImageCache hotCache;
+    private final Map<String, Long> sizes = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_KNOWN_SIZES;
+        }
+    });
+    private final Counter hotHits;
+    private final Counter hotMisses;
+
+    public ImageResponseWriter(ImageStorage imageStorage, MeterRegistry meterRegistry,
+                               @Value("${images.serving.max-age-days:365}") long maxAgeDays,
+                               @Value("${images.serving.sendfile-threshold-bytes:65536}") long sendfileThreshold,
+                               @Value("${images.serving.hot-cache.max-bytes:16777216}") long hotCacheBytes,
+                               @Value("${images.serving.hot-cache.max-entry-bytes:131072}") int hotEntryBytes) {
+        this.imageStorage = imageStorage;
+        this.cacheControl = "public, max-age=" + maxAgeDays * 86_400 + ", immutable";
+        this.sendfileThreshold = sendfileThreshold;
+        this.hotCache = new HotImageCache(hotCacheBytes, hotEntryBytes);
+        this.hotHits = Counter.builder("rems.images.hot-cache.requests").tag("result", "hit")
+                .description("Image responses served from the in-memory hot cache")
+                .register(meterRegistry);
+        this.hotMisses = Counter.builder("rems.images.hot-cache.requests").tag("result", "miss")
+                .description("Cacheable image responses read from disk")
+                .register(meterRegistry);
+        Gauge.builder("rems.images.hot-cache.memory", hotCache, HotImageCache::bytes)
+                .description("Bytes of image data held in the hot cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Answers a request for the immutable resource {@code tag} without touching the storage:
+     * with a 304 when the client already holds it, or from the hot cache. Returns false when
+     * neither applies and the response has not been started.
+     */
+    public boolean writeCached(HttpServletRequest request, HttpServletResponse response, String tag,
+                               MediaType contentType) throws IOException {
+        String etag = "\"" + tag + "\"";
+        // A wildcard only matches once the object is known to exist, so it waits for write()
+        boolean notModified = matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag, false);
+        byte[] bytes = notModified ? null : hotCache.get(tag);
+        if (!notModified && bytes == null) {
+            return false;
+        }
+
+        setCacheHeaders(response, etag);
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        hotHits.increment();
+        long[] bounds = range(request, response, etag, bytes.length);
+        if (bounds != null && setBodyHeaders(request, response, contentType, bounds)) {
+            response.getOutputStream().write(bytes, (int) bounds[0], (int) (bounds[1] - bounds[0] + 1));
+        }
+        return true;
+    }
+
+    /**
+     * Writes the stored object {@code key} as an immutable resource.
+     *
+     * @param tag  unique, stable name of the content; becomes the ETag
+     * @param hot  whether the content may be kept in the in-memory hot cache
+     * @throws NoSuchFileException if nothing is stored under {@code key}
+     */
+    public void write(HttpServletRequest request, HttpServletResponse response, String key, String tag,
+                      MediaType contentType, boolean hot) throws IOException {
+        if (writeCached(request, response, tag, contentType)) {
+            return;
+        }
+        long length = size(key);
+        String etag = "\"" + tag + "\"";
+        setCacheHeaders(response, etag);
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag, true)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long[] bounds = range(request, response, etag, length);
+        if (bounds == null || !setBodyHeaders(request, response, contentType, bounds)) {
+            return;
+        }
+        long start = bounds[0];
+        long end = bounds[1];
+        long count = end - start + 1;
+
+        try {
+            if (hot && length <= hotCache.maxEntryBytes()) {
+                hotMisses.increment();
+                byte[] bytes;
+                try (InputStream in = imageStorage.get(key)) {
+                    bytes = in.readAllBytes();
+                }
+                hotCache.put(tag, bytes);
+                response.getOutputStream().write(bytes, (int) start, (int) count);
+                return;
+            }
+
+            Optional<Path> file = imageStorage.localPath(key);
+            if (count >= sendfileThreshold && file.isPresent()
+                    && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // Tomcat sends the file after the servlet returns, without copying it through the JVM
+                request.setAttribute(SENDFILE_FILENAME, file.get().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+
+            OutputStream out = response.getOutputStream();
+            imageStorage.stream(key, start, end, out);
+            out.flush();
+        } catch (NoSuchFileException e) {
+            // Deleted since its size was remembered
+            sizes.remove(key);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes {@code file} with {@code Cache-Control: no-store}, for content served under a URL
+     * that will later hold something else.
+     */
+    public void writeUncached(HttpServletRequest request, HttpServletResponse response, String key,
+                              MediaType contentType) throws IOException {
+        long length = size(key);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setContentType(contentType.toString());
+        response.setContentLengthLong(length);
+        if (!"HEAD".equals(request.getMethod()) && length > 0) {
+            OutputStream out = response.getOutputStream();
+            try {
+                imageStorage.stream(key, 0, length - 1, out);
+            } catch (NoSuchFileException e) {
+                sizes.remove(key);
+                throw e;
+            }
+            out.flush();
+        }
+    }
+
+    // 🔧 Internal helpers
+
+    private long size(String key) throws IOException {
+        Long known = sizes.get(key);
+        if (known != null) {
+            return known;
+        }
+        long size = imageStorage.stat(key)
+                .orElseThrow(() -> new NoSuchFileException(key))
+                .getSize();
+        sizes.put(key, size);
+        return size;
+    }
+
+    private void setCacheHeaders(HttpServletResponse response, String etag) {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+    }
+
+    /**
+     * Bounds to send out of {@code length} bytes: the requested range with a 206, or the whole
+     * content. Null once a 416 has been written.
+     */
+    private static long[] range(HttpServletRequest request, HttpServletResponse response, String etag,
+                                long length) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return null;
+            }
+            if (bounds.length == 2) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + bounds[0] + "-" + bounds[1] + "/" + length);
+                return bounds;
+            }
+        }
+        return new long[] { 0, length - 1 };
+    }
+
+    /**
+     * Sets type and length of the body; returns false when there is no body to write.
+     */
+    private static boolean setBodyHeaders(HttpServletRequest request, HttpServletResponse response,
+                                          MediaType contentType, long[] bounds) {
+        long count = bounds[1] - bounds[0] + 1;
+        response.setContentType(contentType.toString());
+        response.setContentLengthLong(count);
+        return !"HEAD".equals(request.getMethod()) && count > 0;
+    }
+
+    int hotCacheEntries() {
+        return hotCache.size();
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag, boolean wildcard) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ((wildcard && value.equals("*")) || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bounds of a single {@code bytes=} range, clamped to the file. Returns an empty array when
+     * the header should be ignored (other units, several ranges, malformed) and null when the
+     * range cannot be satisfied.
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix == 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                if (start >= length) {
+                    return null;
+                }
+                end = dash == spec.length() - 1 ? length - 1 : Long.parseLong(spec.substring(dash + 1));
+                if (end < start) {
+                    return new long[0];
+                }
+                end = Math.min(end, length - 1);
+            }
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    /**
+     * Least-recently-used map of small image files, bounded by total bytes.
+     */
+    static final class HotImageCache {
+
+        private final long maxBytes;
+        private final int maxEntryBytes;
+        private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private long bytes;
+
+        HotImageCache(long maxBytes, int maxEntryBytes) {
+            this.maxBytes = maxBytes;
+            this.maxEntryBytes = maxEntryBytes;
+        }
+
+        int maxEntryBytes() {
+            return maxEntryBytes;
+        }
+
+        synchronized byte[] get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(String key, byte[] value) {
+            if (value.length > maxEntryBytes || value.length > maxBytes) {
+                return;
+            }
+            byte[] previous = entries.put(key, value);
+            bytes += value.length - (previous != null ? previous.length : 0);
+            Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, byte[]> entry = eldest.next();
+                bytes -= entry.getValue().length;
+                eldest.remove();
+            }
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -1,19 +1,20 @@
 package com.realestate.rems.controller;
 
+import com.realestate.rems.dto.ImageBatchUploadDTO;
+import com.realestate.rems.dto.ImageUploadResponse;
 import com.realestate.rems.model.ApiResponse;
+import com.realestate.rems.service.ImageBatchUploadService;
+import com.realestate.rems.service.ImageService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
-import org.springframework.beans.factory.annotation.Value;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/upload")
@@ -21,54 +22,36 @@ import java.util.UUID;
 @SecurityRequirement(name = "bearerAuth")
 public class ImageUploadController {
 
-    // Upload directory - use 'uploads/images' relative to working directory (which
-    // is 'backend' folder)
-    private static final String UPLOAD_DIR = "uploads/images";
+    @Autowired
+    private ImageService imageService;
 
+    @Autowired
+    private ImageBatchUploadService imageBatchUploadService;
+
+    /**
+     * Upload an image; the response message is its URL, and {@code image} lists its dimensions
+     * and the URLs of its thumb/detail/full derivatives
+     */
     @PostMapping
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<ApiResponse> uploadImage(@RequestParam("file") MultipartFile file) {
         try {
-            // Validate file
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body(new ApiResponse(false, "File is empty"));
-            }
-
-            // Validate file type
-            String contentType = file.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                return ResponseEntity.badRequest()
-                        .body(new ApiResponse(false, "File must be an image"));
-            }
-
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename != null && originalFilename.contains(".")
-                    ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                    : ".jpg";
-            String filename = UUID.randomUUID().toString() + extension;
-
-            // Get absolute path for uploads directory
-            Path uploadPath = Paths.get(UPLOAD_DIR).toAbsolutePath();
-
-            // Create upload directory if it doesn't exist
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
-            // Save file
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            // Return URL (this is the URL path, not file system path)
-            String imageUrl = "/uploads/images/" + filename;
-
-            return ResponseEntity.ok(new ApiResponse(true, imageUrl));
-
+            return ResponseEntity.ok(new ImageUploadResponse(imageService.store(file)));
         } catch (IOException e) {
             return ResponseEntity.internalServerError()
                     .body(new ApiResponse(false, "Failed to upload image: " + e.getMessage()));
         }
     }
+
+    /**
+     * Upload several images in one multipart request (any number of {@code files} parts); each
+     * part is stored while the next one arrives, and the URLs come back in part order
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ImageBatchUploadDTO> uploadImages(HttpServletRequest request) throws IOException {
+        // Read from the raw body: multipart resolution is lazy, so nothing has parsed it yet
+        return ResponseEntity.ok(imageBatchUploadService.upload(
+                request.getContentType(), request.getCharacterEncoding(), request.getInputStream()));
+    }
 }
@@ -1,18 +1,32 @@
 package com.realestate.rems.controller;
 
+import com.realestate.rems.config.AuthenticatedUser;
+import com.realestate.rems.dto.CursorPageDTO;
+import com.realestate.rems.dto.PropertyDataFormat;
+import com.realestate.rems.dto.PropertyImportReportDTO;
+import com.realestate.rems.dto.PropertySearchCriteria;
+import com.realestate.rems.dto.PropertySort;
+import com.realestate.rems.dto.PropertySummary;
 import com.realestate.rems.model.ApiResponse;
 import com.realestate.rems.model.Property;
+import com.realestate.rems.service.PropertyExportService;
+import com.realestate.rems.service.PropertyImportService;
 import com.realestate.rems.service.PropertyService;
+import com.realestate.rems.service.StaleWhileRevalidate;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/properties")
@@ -20,9 +34,20 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth")
 public class PropertyController {
 
+    static final String STALE_HEADER = "X-Stale";
+
     @Autowired
     private PropertyService propertyService;
 
+    @Autowired
+    private PropertyImportService propertyImportService;
+
+    @Autowired
+    private PropertyExportService propertyExportService;
+
+    @Autowired
+    private StaleWhileRevalidate staleWhileRevalidate;
+
     /**
      * Create property (agent only)
      */
@@ -30,42 +55,91 @@ public class PropertyController {
     @PreAuthorize("hasRole('ROLE_agent')")
     public ResponseEntity<Property> addProperty(
             @Valid @RequestBody Property property,
-            Authentication authentication) {
-        Long agentId = getUserIdFromAuthentication(authentication);
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        Long agentId = user.getId();
         Property savedProperty = propertyService.addProperty(property, agentId);
         return ResponseEntity.ok(savedProperty);
     }
 
     /**
-     * Get all properties with optional search/filter
+     * Bulk import (agent only): a CSV (header row, images separated by |) or NDJSON body,
+     * streamed and written in batches; returns counts and a row-level error report
+     */
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    @PreAuthorize("hasRole('ROLE_agent')")
+    public ResponseEntity<PropertyImportReportDTO> importProperties(
+            HttpServletRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) throws IOException {
+        PropertyDataFormat format = PropertyDataFormat.fromContentType(request.getContentType());
+        return ResponseEntity.ok(propertyImportService.importProperties(
+                request.getInputStream(), format, user.getId()));
+    }
+
+    /**
+     * Get property summaries with optional search/filter, one keyset page at a time
      */
     @GetMapping
-    public ResponseEntity<List<Property>> getAllProperties(
+    public ResponseEntity<CursorPageDTO<PropertySummary>> getAllProperties(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
-            @RequestParam(required = false) String type) {
-        
-        if (search != null || minPrice != null || maxPrice != null || type != null) {
-            return ResponseEntity.ok(propertyService.searchProperties(search, minPrice, maxPrice, type));
-        }
-        return ResponseEntity.ok(propertyService.getAllProperties());
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        PropertySearchCriteria criteria = new PropertySearchCriteria(search, minPrice, maxPrice, type);
+        PropertySort requested = PropertySort.fromParam(sort);
+        // Normalized, so equivalent requests share one last good result
+        return respond(staleWhileRevalidate.get(propertyService.searchKey(criteria, requested, cursor, size),
+                () -> propertyService.searchProperties(criteria, requested, cursor, size)), MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Export every listing matching the filters as NDJSON (default) or CSV, streamed row by row
+     */
+    @GetMapping("/export")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> exportProperties(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Long agentId) {
+        PropertyDataFormat dataFormat = PropertyDataFormat.fromParam(format);
+        PropertySearchCriteria criteria = new PropertySearchCriteria(search, minPrice, maxPrice, type);
+        criteria.setAgentId(agentId);
+        String filename = "properties." + (dataFormat == PropertyDataFormat.CSV ? "csv" : "ndjson");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(dataFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(out -> propertyExportService.export(criteria, dataFormat, out));
     }
 
     /**
      * Get property by ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Property> getPropertyById(@PathVariable Long id) {
-        return ResponseEntity.ok(propertyService.getPropertyById(id));
+    public ResponseEntity<byte[]> getPropertyById(@PathVariable Long id) {
+        // Pre-serialized, usually from the detail cache
+        return respond(staleWhileRevalidate.get(StaleWhileRevalidate.detailKey(id),
+                () -> propertyService.getPropertyJson(id)), MediaType.APPLICATION_JSON);
     }
 
     /**
      * Get properties by agent ID
      */
     @GetMapping("/agent/{agentId}")
-    public ResponseEntity<List<Property>> getPropertiesByAgentId(@PathVariable Long agentId) {
-        return ResponseEntity.ok(propertyService.getPropertiesByAgentId(agentId));
+    public ResponseEntity<CursorPageDTO<PropertySummary>> getPropertiesByAgentId(
+            @PathVariable Long agentId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        PropertySort requested = PropertySort.fromParam(sort);
+        PropertySearchCriteria criteria = PropertySearchCriteria.forAgent(agentId);
+        return respond(staleWhileRevalidate.get(propertyService.searchKey(criteria, requested, cursor, size),
+                () -> propertyService.getPropertiesByAgentId(agentId, requested, cursor, size)),
+                MediaType.APPLICATION_JSON);
     }
 
     /**
@@ -76,8 +150,8 @@ public class PropertyController {
     public ResponseEntity<Property> updateProperty(
             @PathVariable Long id,
             @Valid @RequestBody Property property,
-            Authentication authentication) {
-        Long agentId = getUserIdFromAuthentication(authentication);
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        Long agentId = user.getId();
         Property updatedProperty = propertyService.updateProperty(id, property, agentId);
         return ResponseEntity.ok(updatedProperty);
     }
@@ -89,15 +163,25 @@ public class PropertyController {
     @PreAuthorize("hasRole('ROLE_agent')")
     public ResponseEntity<ApiResponse> deleteProperty(
             @PathVariable Long id,
-            Authentication authentication) {
-        Long agentId = getUserIdFromAuthentication(authentication);
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        Long agentId = user.getId();
         propertyService.deleteProperty(id, agentId);
         ApiResponse response = new ApiResponse(true, "Property deleted successfully");
         return ResponseEntity.ok(response);
     }
 
-    private Long getUserIdFromAuthentication(Authentication authentication) {
-        String email = authentication.getName();
-        return propertyService.getUserIdByEmail(email);
+    // 🔧 Internal helpers
+
+    /**
+     * A read result; the last good result served during a database slowdown is marked with
+     * {@code X-Stale: true} and its {@code Age}.
+     */
+    private static <T> ResponseEntity<T> respond(StaleWhileRevalidate.Result<T> result, MediaType contentType) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(contentType);
+        if (result.isStale()) {
+            response.header(STALE_HEADER, "true")
+                    .header(HttpHeaders.AGE, Long.toString(result.getAgeSeconds()));
+        }
+        return response.body(result.getValue());
     }
 }
@@ -0,0 +1,84 @@
+package com.realestate.rems.controller;
+
+import com.realestate.rems.config.AuthenticatedUser;
+import com.realestate.rems.dto.ImageUploadResponse;
+import com.realestate.rems.dto.UploadSessionDTO;
+import com.realestate.rems.model.ApiResponse;
+import com.realestate.rems.service.ResumableUploadService;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * Resumable uploads: {@code POST /api/upload/sessions?size=…} opens a session,
+ * {@code PUT /api/upload/sessions/{id}?offset=…} sends a chunk as a raw request body,
+ * {@code GET} reports the offset to resume from and {@code POST …/complete?sha256=…} turns the
+ * upload into an image, answering like {@code POST /api/upload}.
+ */
+@RestController
+@RequestMapping("/api/upload/sessions")
+@CrossOrigin
+@SecurityRequirement(name = "bearerAuth")
+public class ResumableUploadController {
+
+    @Autowired
+    private ResumableUploadService resumableUploadService;
+
+    @PostMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<UploadSessionDTO> createSession(@RequestParam long size,
+                                                          @AuthenticationPrincipal AuthenticatedUser user)
+            throws IOException {
+        return ResponseEntity.status(HttpStatus.CREATED).body(resumableUploadService.create(user.getId(), size));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<UploadSessionDTO> getSession(@PathVariable String id,
+                                                       @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(resumableUploadService.status(id, user.getId()));
+    }
+
+    /**
+     * Write the request body at {@code offset}; the body is streamed to disk as it arrives
+     */
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<UploadSessionDTO> uploadChunk(@PathVariable String id,
+                                                        @RequestParam long offset,
+                                                        HttpServletRequest request,
+                                                        @AuthenticationPrincipal AuthenticatedUser user)
+            throws IOException {
+        return ResponseEntity.ok(
+                resumableUploadService.writeChunk(id, user.getId(), offset, request.getInputStream()));
+    }
+
+    @PostMapping("/{id}/complete")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse> completeSession(@PathVariable String id,
+                                                       @RequestParam String sha256,
+                                                       @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            return ResponseEntity.ok(new ImageUploadResponse(resumableUploadService.complete(id, user.getId(), sha256)));
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError()
+                    .body(new ApiResponse(false, "Failed to store image: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Void> abortSession(@PathVariable String id,
+                                             @AuthenticationPrincipal AuthenticatedUser user) throws IOException {
+        resumableUploadService.abort(id, user.getId());
+        return ResponseEntity.noContent().build();
+    }
+}
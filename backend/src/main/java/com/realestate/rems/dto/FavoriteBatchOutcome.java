@@ -0,0 +1,12 @@
+package com.realestate.rems.dto;
+
+/**
+ * Per-property result of a bulk favorites request.
+ */
+public enum FavoriteBatchOutcome {
+    ADDED,
+    ALREADY_FAVORITED,
+    REMOVED,
+    NOT_FAVORITED,
+    PROPERTY_NOT_FOUND
+}
@@ -0,0 +1,22 @@
+package com.realestate.rems.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class FavoriteBatchRequestDTO {
+
+    @NotEmpty(message = "At least one property id is required")
+    @Size(max = 500, message = "At most 500 property ids per request")
+    private List<@NotNull(message = "Property ids must not be null") Long> propertyIds;
+
+    public List<Long> getPropertyIds() {
+        return propertyIds;
+    }
+
+    public void setPropertyIds(List<Long> propertyIds) {
+        this.propertyIds = propertyIds;
+    }
+}
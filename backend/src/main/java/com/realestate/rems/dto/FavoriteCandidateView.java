@@ -0,0 +1,11 @@
+package com.realestate.rems.dto;
+
+/**
+ * An existing property and, if the client has already saved it, the id of the favorite.
+ */
+public interface FavoriteCandidateView {
+
+    Long getPropertyId();
+
+    Long getFavoriteId();
+}
@@ -0,0 +1,25 @@
+package com.realestate.rems.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a favorite joined with the summary columns of its property.
+ * The client is never part of the row.
+ */
+public interface FavoritePropertyView {
+
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+
+    Long getPropertyId();
+
+    String getTitle();
+
+    BigDecimal getPrice();
+
+    String getLocation();
+
+    String getType();
+}
@@ -0,0 +1,46 @@
+package com.realestate.rems.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entry of a client's favorites list: when it was saved and a summary of the property.
+ */
+public class FavoriteSummary {
+
+    private Long id;
+    private LocalDateTime createdAt;
+    private PropertySummary property;
+
+    public FavoriteSummary() {
+    }
+
+    public FavoriteSummary(Long id, LocalDateTime createdAt, PropertySummary property) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.property = property;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public PropertySummary getProperty() {
+        return property;
+    }
+
+    public void setProperty(PropertySummary property) {
+        this.property = property;
+    }
+}
@@ -0,0 +1,89 @@
+package com.realestate.rems.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a multi-file upload. {@code files} has one entry per file part, in request order;
+ * {@code urls} lists the URLs of the files that were stored, in the same order.
+ */
+public class ImageBatchUploadDTO {
+
+    private List<String> urls = new ArrayList<>();
+    private List<Item> files = new ArrayList<>();
+    private int failed;
+
+    public List<String> getUrls() {
+        return urls;
+    }
+
+    public void setUrls(List<String> urls) {
+        this.urls = urls;
+    }
+
+    public List<Item> getFiles() {
+        return files;
+    }
+
+    public void setFiles(List<Item> files) {
+        this.files = files;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    /**
+     * One file part: its stored image, or why it was rejected.
+     */
+    public static class Item {
+
+        private String filename;
+        private String url;
+        private ImageInfoDTO image;
+        private String error;
+
+        public Item() {
+        }
+
+        public Item(String filename) {
+            this.filename = filename;
+        }
+
+        public String getFilename() {
+            return filename;
+        }
+
+        public void setFilename(String filename) {
+            this.filename = filename;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public ImageInfoDTO getImage() {
+            return image;
+        }
+
+        public void setImage(ImageInfoDTO image) {
+            this.image = image;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.realestate.rems.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An uploaded image with its dimensions and the URL and size of each derivative, so clients can
+ * request the smallest variant that fills the space they render it in.
+ */
+public class ImageInfoDTO {
+
+    private String url;
+    private int width;
+    private int height;
+    private Map<String, Variant> variants = new LinkedHashMap<>();
+
+    public ImageInfoDTO() {
+    }
+
+    public ImageInfoDTO(String url, int width, int height) {
+        this.url = url;
+        this.width = width;
+        this.height = height;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
+    public Map<String, Variant> getVariants() {
+        return variants;
+    }
+
+    public void setVariants(Map<String, Variant> variants) {
+        this.variants = variants;
+    }
+
+    public static class Variant {
+
+        private String url;
+        private int width;
+        private int height;
+
+        public Variant() {
+        }
+
+        public Variant(String url, int width, int height) {
+            this.url = url;
+            this.width = width;
+            this.height = height;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public void setWidth(int width) {
+            this.width = width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public void setHeight(int height) {
+            this.height = height;
+        }
+    }
+}
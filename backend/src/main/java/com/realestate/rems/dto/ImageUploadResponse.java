@@ -0,0 +1,28 @@
+package com.realestate.rems.dto;
+
+import com.realestate.rems.model.ApiResponse;
+
+/**
+ * Upload result: {@code message} stays the image URL for existing clients, {@code image}
+ * adds its dimensions and derivatives.
+ */
+public class ImageUploadResponse extends ApiResponse {
+
+    private ImageInfoDTO image;
+
+    public ImageUploadResponse() {
+    }
+
+    public ImageUploadResponse(ImageInfoDTO image) {
+        super(true, image.getUrl());
+        this.image = image;
+    }
+
+    public ImageInfoDTO getImage() {
+        return image;
+    }
+
+    public void setImage(ImageInfoDTO image) {
+        this.image = image;
+    }
+}
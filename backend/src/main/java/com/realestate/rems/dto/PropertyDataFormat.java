@@ -0,0 +1,47 @@
+package com.realestate.rems.dto;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Line-oriented formats of the bulk property import and export.
+ */
+public enum PropertyDataFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    PropertyDataFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Format named by an export {@code format} parameter ({@code ndjson} when absent).
+     */
+    public static PropertyDataFormat fromParam(String param) {
+        if (param == null || param.isBlank()) {
+            return NDJSON;
+        }
+        try {
+            return valueOf(param.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid format: " + param + " (expected csv or ndjson)");
+        }
+    }
+
+    public static PropertyDataFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType type = MediaType.parseMediaType(contentType);
+            for (PropertyDataFormat format : values()) {
+                if (type.isCompatibleWith(MediaType.parseMediaType(format.mediaType))) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Import body must be text/csv or application/x-ndjson");
+    }
+}
@@ -0,0 +1,113 @@
+package com.realestate.rems.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One listing of a catalog export. The CSV columns are a superset of the import columns,
+ * so an exported file can be imported again.
+ */
+@JsonPropertyOrder({ "id", "title", "description", "price", "location", "type", "images", "agentId", "createdAt" })
+public class PropertyExportRow {
+
+    private Long id;
+    private String title;
+    private String description;
+    private BigDecimal price;
+    private String location;
+    private String type;
+    private List<String> images = new ArrayList<>();
+    private Long agentId;
+    private LocalDateTime createdAt;
+
+    public PropertyExportRow() {
+    }
+
+    public PropertyExportRow(Long id, String title, String description, BigDecimal price, String location,
+                             String type, Long agentId, LocalDateTime createdAt) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.price = price;
+        this.location = location;
+        this.type = type;
+        this.agentId = agentId;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public List<String> getImages() {
+        return images;
+    }
+
+    public void setImages(List<String> images) {
+        this.images = images;
+    }
+
+    public Long getAgentId() {
+        return agentId;
+    }
+
+    public void setAgentId(Long agentId) {
+        this.agentId = agentId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
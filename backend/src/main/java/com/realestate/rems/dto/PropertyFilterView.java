@@ -0,0 +1,21 @@
+package com.realestate.rems.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the filterable/sortable columns of a property, used to (re)build the
+ * in-memory filter index without loading text, images or the agent.
+ */
+public interface PropertyFilterView {
+
+    Long getId();
+
+    BigDecimal getPrice();
+
+    String getType();
+
+    Long getAgentId();
+
+    LocalDateTime getCreatedAt();
+}
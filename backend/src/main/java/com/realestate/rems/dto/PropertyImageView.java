@@ -0,0 +1,11 @@
+package com.realestate.rems.dto;
+
+/**
+ * One row of {@code property_images}, used to load the first images of a page of listings in one query.
+ */
+public interface PropertyImageView {
+
+    Long getPropertyId();
+
+    String getImageUrl();
+}
@@ -0,0 +1,66 @@
+package com.realestate.rems.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One listing of a bulk import: a CSV record (with a header row; images separated by {@code |})
+ * or one NDJSON line.
+ */
+public class PropertyImportRow {
+
+    private String title;
+    private String description;
+    private BigDecimal price;
+    private String location;
+    private String type;
+    private List<String> images;
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public List<String> getImages() {
+        return images;
+    }
+
+    public void setImages(List<String> images) {
+        this.images = images;
+    }
+}
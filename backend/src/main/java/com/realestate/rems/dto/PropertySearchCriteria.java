@@ -0,0 +1,71 @@
+package com.realestate.rems.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Optional filters for property listings. A null field means "no filter".
+ */
+public class PropertySearchCriteria {
+
+    private String search;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private String type;
+    private Long agentId;
+
+    public PropertySearchCriteria() {
+    }
+
+    public PropertySearchCriteria(String search, BigDecimal minPrice, BigDecimal maxPrice, String type) {
+        this.search = search != null && !search.isBlank() ? search.trim() : null;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.type = type != null && !type.isBlank() ? type.trim() : null;
+    }
+
+    public static PropertySearchCriteria forAgent(Long agentId) {
+        PropertySearchCriteria criteria = new PropertySearchCriteria();
+        criteria.setAgentId(agentId);
+        return criteria;
+    }
+
+    public String getSearch() {
+        return search;
+    }
+
+    public void setSearch(String search) {
+        this.search = search;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getAgentId() {
+        return agentId;
+    }
+
+    public void setAgentId(Long agentId) {
+        this.agentId = agentId;
+    }
+}
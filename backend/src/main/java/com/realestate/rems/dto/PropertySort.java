@@ -0,0 +1,39 @@
+package com.realestate.rems.dto;
+
+/**
+ * Sort orders supported by the paginated property listings.
+ * Every order ends with the property id so that the keyset is unique.
+ * RELEVANCE ranks free-text search results and only applies when a search term is given.
+ */
+public enum PropertySort {
+
+    NEWEST("newest"),
+    PRICE_ASC("price_asc"),
+    PRICE_DESC("price_desc"),
+    RELEVANCE("relevance");
+
+    private final String param;
+
+    PropertySort(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    /**
+     * Resolve the value of the {@code sort} request parameter; null when it was not supplied.
+     */
+    public static PropertySort fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        for (PropertySort sort : values()) {
+            if (sort.param.equalsIgnoreCase(value.trim())) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + value);
+    }
+}
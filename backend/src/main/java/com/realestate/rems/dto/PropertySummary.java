@@ -0,0 +1,80 @@
+package com.realestate.rems.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Lightweight view of a property for list endpoints: the card fields and the first image only.
+ * The full entity is served by {@code GET /api/properties/{id}}.
+ */
+public class PropertySummary {
+
+    private Long id;
+    private String title;
+    private BigDecimal price;
+    private String location;
+    private String type;
+    private String imageUrl;
+
+    public PropertySummary() {
+    }
+
+    public PropertySummary(Long id, String title, BigDecimal price, String location, String type, String imageUrl) {
+        this.id = id;
+        this.title = title;
+        this.price = price;
+        this.location = location;
+        this.type = type;
+        this.imageUrl = imageUrl;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    /**
+     * First image of the listing, or null when it has none.
+     */
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+}
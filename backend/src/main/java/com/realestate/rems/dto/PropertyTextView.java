@@ -0,0 +1,16 @@
+package com.realestate.rems.dto;
+
+/**
+ * Projection of the free-text columns of a property, used to (re)build the search index
+ * without loading images or the agent.
+ */
+public interface PropertyTextView {
+
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getLocation();
+}
@@ -0,0 +1,66 @@
+package com.realestate.rems.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of a resumable upload. {@code offset} is the first byte the server does not have yet,
+ * where an interrupted client resumes; {@code received} counts every byte held, including
+ * chunks sent ahead of {@code offset}.
+ */
+public class UploadSessionDTO {
+
+    private String id;
+    private long size;
+    private long received;
+    private long offset;
+    private boolean complete;
+    private LocalDateTime expiresAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public void setReceived(long received) {
+        this.received = received;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,16 @@
+package com.realestate.rems.exception;
+
+/**
+ * Thrown when a request cannot be answered right now (a shared load timed out, the database is
+ * unavailable) and may succeed if retried later.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -3,9 +3,11 @@ package com.realestate.rems.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -21,6 +23,7 @@ public class Property {
     private Long id;
 
     @NotBlank(message = "Title is required")
+    @Size(max = 255, message = "Title must be at most 255 characters")
     @Column(nullable = false)
     private String title;
 
@@ -29,21 +32,24 @@ public class Property {
 
     @NotNull(message = "Price is required")
     @Positive(message = "Price must be positive")
+    @Digits(integer = 8, fraction = 2, message = "Price must have at most 8 digits and 2 decimals")
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal price;
 
     @NotBlank(message = "Location is required")
+    @Size(max = 255, message = "Location must be at most 255 characters")
     @Column(nullable = false)
     private String location;
 
     @NotBlank(message = "Type is required")
+    @Size(max = 255, message = "Type must be at most 255 characters")
     @Column(nullable = false)
     private String type; // 'rent' or 'buy'
 
     @ElementCollection
     @CollectionTable(name = "property_images", joinColumns = @JoinColumn(name = "property_id"))
     @Column(name = "image_url")
-    private List<String> images = new ArrayList<>();
+    private List<@Size(max = 255, message = "Image URLs must be at most 255 characters") String> images = new ArrayList<>();
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "agent_id", nullable = false)
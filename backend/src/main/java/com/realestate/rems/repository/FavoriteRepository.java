@@ -1,17 +1,52 @@
 package com.realestate.rems.repository;
 
+import com.realestate.rems.dto.FavoriteCandidateView;
+import com.realestate.rems.dto.FavoritePropertyView;
 import com.realestate.rems.model.Favorite;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
+public interface FavoriteRepository extends JpaRepository<Favorite, Long>, FavoriteRepositoryCustom {
     List<Favorite> findByClientId(Long clientId);
     Optional<Favorite> findByPropertyIdAndClientId(Long propertyId, Long clientId);
     boolean existsByPropertyIdAndClientId(Long propertyId, Long clientId);
     void deleteByPropertyIdAndClientId(Long propertyId, Long clientId);
-}
 
+    // Which of the given properties exist and which the client has already saved, in one query
+    @Query("SELECT p.id AS propertyId, f.id AS favoriteId FROM Property p " +
+           "LEFT JOIN Favorite f ON f.property.id = p.id AND f.client.id = :clientId " +
+           "WHERE p.id IN :propertyIds")
+    List<FavoriteCandidateView> findCandidates(@Param("clientId") Long clientId,
+                                               @Param("propertyIds") Collection<Long> propertyIds);
+
+    @Modifying
+    @Query("DELETE FROM Favorite f WHERE f.client.id = :clientId AND f.property.id IN :propertyIds")
+    int deleteByClientIdAndPropertyIds(@Param("clientId") Long clientId,
+                                       @Param("propertyIds") Collection<Long> propertyIds);
+
+    // All property ids a client has favorited, to load the in-memory membership set
+    @Query("SELECT f.property.id FROM Favorite f WHERE f.client.id = :clientId")
+    List<Long> findPropertyIdsByClientId(@Param("clientId") Long clientId);
+
+    // Keyset pages of a client's favorites with their property summary columns, newest first
+    // (ids are identity-generated, so id order is insertion order)
+    String FAVORITE_PAGE_SELECT = "SELECT f.id AS id, f.createdAt AS createdAt, p.id AS propertyId, " +
+            "p.title AS title, p.price AS price, p.location AS location, p.type AS type " +
+            "FROM Favorite f JOIN f.property p WHERE f.client.id = :clientId ";
+
+    @Query(FAVORITE_PAGE_SELECT + "ORDER BY f.id DESC")
+    List<FavoritePropertyView> findPage(@Param("clientId") Long clientId, Pageable pageable);
+
+    @Query(FAVORITE_PAGE_SELECT + "AND f.id < :afterId ORDER BY f.id DESC")
+    List<FavoritePropertyView> findPageAfter(@Param("clientId") Long clientId, @Param("afterId") Long afterId,
+                                             Pageable pageable);
+}
@@ -0,0 +1,17 @@
+package com.realestate.rems.repository;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Bulk writes for {@link FavoriteRepository} that bypass entity-by-entity persistence.
+ */
+public interface FavoriteRepositoryCustom {
+
+    /**
+     * Insert a favorite of the client for each property in one JDBC batch and return the
+     * property ids whose row this call inserted. Rows that already exist (e.g. inserted
+     * concurrently) are left untouched and not returned.
+     */
+    Set<Long> insertIgnoringDuplicates(Long clientId, Collection<Long> propertyIds);
+}
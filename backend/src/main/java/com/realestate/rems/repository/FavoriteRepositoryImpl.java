@@ -0,0 +1,72 @@
+package com.realestate.rems.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JDBC implementation of {@link FavoriteRepositoryCustom}. Runs on the connection of the
+ * surrounding JPA transaction. With MySQL's {@code rewriteBatchedStatements} the batch is sent
+ * as a single multi-row insert.
+ */
+public class FavoriteRepositoryImpl implements FavoriteRepositoryCustom {
+
+    // The no-op update makes a duplicate (property_id, client_id) row a no-op instead of an error
+    private static final String INSERT_SQL = "INSERT INTO favorites (client_id, property_id, created_at) "
+            + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE id = id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Set<Long> insertIgnoringDuplicates(Long clientId, Collection<Long> propertyIds) {
+        if (propertyIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        // Matches the DATETIME(6) column exactly, so the rows can be found by it again
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        List<Long> ids = new ArrayList<>(propertyIds);
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (Long propertyId : ids) {
+            rows.add(new Object[] { clientId, propertyId, now });
+        }
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        // 1 = inserted; 0 (or 2 for a changing update) = the row already existed
+        Set<Long> inserted = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                return findInsertedAt(clientId, ids, now);
+            }
+            if (counts[i] == 1) {
+                inserted.add(ids.get(i));
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * A rewritten multi-row insert reports no per-row counts. Rows that existed keep their own
+     * creation time, so the ones carrying this insert's timestamp are the ones it added.
+     */
+    private Set<Long> findInsertedAt(Long clientId, List<Long> propertyIds, Timestamp createdAt) {
+        String placeholders = String.join(",", Collections.nCopies(propertyIds.size(), "?"));
+        List<Object> args = new ArrayList<>(propertyIds.size() + 2);
+        args.add(clientId);
+        args.add(createdAt);
+        args.addAll(propertyIds);
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT property_id FROM favorites WHERE client_id = ? AND created_at = ? AND property_id IN ("
+                        + placeholders + ")", Long.class, args.toArray()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.realestate.rems.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+/**
+ * Read-only queries over the image URLs that listings point to ({@code property_images}).
+ */
+@Repository
+public class ImageReferenceRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${images.sweeper.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Passes every listing image URL to {@code action}, reading the rows in fetch-size chunks
+     * instead of loading the table.
+     */
+    public void forEachImageUrl(Consumer<String> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("SELECT image_url FROM property_images",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(rs.getString(1)));
+    }
+
+    /**
+     * The listing image URLs that contain any of {@code fragments}, in whatever form they were
+     * saved. The leading wildcard rules out the image_url index, so each call scans the table;
+     * keep the fragments to one batch.
+     */
+    public Set<String> findContaining(Collection<String> fragments) {
+        if (fragments.isEmpty()) {
+            return Set.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringJoiner where = new StringJoiner(" OR ");
+        int i = 0;
+        for (String fragment : fragments) {
+            String escaped = fragment.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            params.addValue("f" + i, "%" + escaped + "%");
+            where.add("image_url LIKE :f" + i);
+            i++;
+        }
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT DISTINCT image_url FROM property_images WHERE " + where, params, String.class));
+    }
+}
@@ -0,0 +1,117 @@
+package com.realestate.rems.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Blob store for uploaded images. Keys are relative names such as {@code abcd….jpg} or
+ * {@code thumb/abcd….jpg}; how they are laid out is up to the implementation. Content is
+ * streamed in both directions and never held in memory as a whole.
+ *
+ * Select the implementation with {@code images.storage.type}: {@code local} (default) keeps files
+ * on this node's disk, {@code s3} uses an S3-compatible bucket shared by every node.
+ */
+public interface ImageStorage {
+
+    /**
+     * Stores {@code length} bytes read from {@code content} under {@code key}, replacing any
+     * previous content. Readers never see a partially written object.
+     */
+    void put(String key, InputStream content, long length) throws IOException;
+
+    /**
+     * Opens the content of {@code key} for reading; the caller closes the stream.
+     *
+     * @throws NoSuchFileException if nothing is stored under {@code key}
+     */
+    InputStream get(String key) throws IOException;
+
+    /**
+     * Size and modification time of {@code key}, or empty if nothing is stored under it.
+     */
+    Optional<StoredObject> stat(String key) throws IOException;
+
+    /**
+     * Copies bytes {@code start} to {@code end} (inclusive) of {@code key} to {@code out}.
+     *
+     * @throws NoSuchFileException if nothing is stored under {@code key}
+     */
+    void stream(String key, long start, long end, OutputStream out) throws IOException;
+
+    /**
+     * Removes {@code key}; returns false if nothing was stored under it.
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Every stored object, in no particular order. Objects are read lazily (a directory or a
+     * result page at a time), so listing a large store does not hold it in memory; I/O errors
+     * while iterating surface as {@link java.io.UncheckedIOException}. The caller closes the
+     * stream.
+     */
+    Stream<ListedObject> list() throws IOException;
+
+    /**
+     * The file holding {@code key} when it lives on this node's disk, so it can be sent with
+     * sendfile; empty for remote stores.
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    /**
+     * Metadata of a stored object.
+     */
+    final class StoredObject {
+
+        private final long size;
+        private final Instant lastModified;
+
+        public StoredObject(long size, Instant lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public Instant getLastModified() {
+            return lastModified;
+        }
+    }
+
+    /**
+     * A stored object as returned by {@link #list()}.
+     */
+    final class ListedObject {
+
+        private final String key;
+        private final long size;
+        private final Instant lastModified;
+
+        public ListedObject(String key, long size, Instant lastModified) {
+            this.key = key;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public Instant getLastModified() {
+            return lastModified;
+        }
+    }
+}
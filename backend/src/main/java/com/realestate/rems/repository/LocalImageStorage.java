@@ -0,0 +1,169 @@
+package com.realestate.rems.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * {@link ImageStorage} on the local filesystem under {@code images.upload-dir}.
+ *
+ * Content-addressed names are spread over two levels of 256 directories by their leading hash
+ * bytes, keeping any one directory small: {@code thumb/abcd….jpg} is stored at
+ * {@code thumb/ab/cd/abcd….jpg}. Other names (uploads from before content addressing) are stored
+ * as given.
+ */
+@Component
+@ConditionalOnProperty(name = "images.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalImageStorage implements ImageStorage {
+
+    private static final Pattern KEY = Pattern.compile("([a-z]+/)?[A-Za-z0-9_-][A-Za-z0-9._-]*");
+    private static final Pattern KEY_PREFIX = Pattern.compile("[a-z]+");
+
+    // SHA-256 plus extension
+    private static final Pattern CONTENT_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z]+");
+
+    private final Path root;
+
+    public LocalImageStorage(@Value("${images.upload-dir:uploads/images}") String uploadDir) throws IOException {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+    }
+
+    @Override
+    public void put(String key, InputStream content, long length) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        // Written to a temporary file first so a reader never sees a half-written file
+        Path temp = Files.createTempFile(target.getParent(), "put-", ".tmp");
+        try {
+            Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(resolve(key), BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return Optional.empty();
+            }
+            return Optional.of(new StoredObject(attributes.size(), attributes.lastModifiedTime().toInstant()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void stream(String key, long start, long end, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            long position = start;
+            while (position <= end) {
+                long sent = channel.transferTo(position, end + 1 - position, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Stream<ListedObject> list() throws IOException {
+        return Files.walk(root)
+                .map(file -> {
+                    String key = keyOf(root.relativize(file));
+                    if (key == null) {
+                        return null;
+                    }
+                    try {
+                        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                        return attributes.isRegularFile()
+                                ? new ListedObject(key, attributes.size(), attributes.lastModifiedTime().toInstant())
+                                : null;
+                    } catch (NoSuchFileException e) {
+                        // Deleted since the directory was read
+                        return null;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(resolve(key));
+    }
+
+    /**
+     * Key stored at {@code path} (relative to the root), or null for paths {@link #resolve} never
+     * produces, such as directories and shard levels.
+     */
+    static String keyOf(Path path) {
+        int count = path.getNameCount();
+        String name = path.getFileName().toString();
+        String prefix = null;
+        if (CONTENT_NAME.matcher(name).matches()) {
+            if (count < 3 || count > 4
+                    || !path.getName(count - 3).toString().equals(name.substring(0, 2))
+                    || !path.getName(count - 2).toString().equals(name.substring(2, 4))) {
+                return null;
+            }
+            prefix = count == 4 ? path.getName(0).toString() : null;
+        } else if (count == 2) {
+            prefix = path.getName(0).toString();
+        } else if (count != 1) {
+            return null;
+        }
+        if (prefix != null && !KEY_PREFIX.matcher(prefix).matches()) {
+            return null;
+        }
+        String key = prefix != null ? prefix + "/" + name : name;
+        return KEY.matcher(key).matches() ? key : null;
+    }
+
+    Path resolve(String key) {
+        if (key == null || !KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        int slash = key.lastIndexOf('/');
+        String name = key.substring(slash + 1);
+        if (CONTENT_NAME.matcher(name).matches()) {
+            key = key.substring(0, slash + 1) + name.substring(0, 2) + "/" + name.substring(2, 4) + "/" + name;
+        }
+        return root.resolve(key);
+    }
+}
@@ -1,29 +1,62 @@
 package com.realestate.rems.repository;
 
+import com.realestate.rems.dto.PropertyFilterView;
+import com.realestate.rems.dto.PropertyImageView;
+import com.realestate.rems.dto.PropertyTextView;
 import com.realestate.rems.model.Property;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Repository
-public interface PropertyRepository extends JpaRepository<Property, Long> {
+public interface PropertyRepository extends JpaRepository<Property, Long>,
+        JpaSpecificationExecutor<Property>, PropertyRepositoryCustom {
     List<Property> findByAgentId(Long agentId);
-    
-    @Query("SELECT p FROM Property p WHERE " +
-           "(:search IS NULL OR LOWER(p.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(p.location) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
-           "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
-           "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
-           "(:type IS NULL OR p.type = :type)")
-    List<Property> searchProperties(
-            @Param("search") String search,
-            @Param("minPrice") BigDecimal minPrice,
-            @Param("maxPrice") BigDecimal maxPrice,
-            @Param("type") String type
-    );
-} 
\ No newline at end of file
+
+    // A listing with its images in one query, so it can be serialized outside a transaction
+    @EntityGraph(attributePaths = "images")
+    @Query("SELECT p FROM Property p WHERE p.id = :id")
+    Optional<Property> findWithImagesById(@Param("id") Long id);
+
+    // Batches of the searchable text columns, walked by id for index rebuilds
+    @Query("SELECT p.id AS id, p.title AS title, p.description AS description, p.location AS location " +
+           "FROM Property p WHERE p.id > :afterId ORDER BY p.id")
+    List<PropertyTextView> findTextBatch(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Batches of the filter/sort columns, walked by id for filter index rebuilds
+    @Query("SELECT p.id AS id, p.price AS price, p.type AS type, p.agent.id AS agentId, p.createdAt AS createdAt " +
+           "FROM Property p WHERE p.id > :afterId ORDER BY p.id")
+    List<PropertyFilterView> findFilterBatch(@Param("afterId") Long afterId, Pageable pageable);
+
+    // First image of each listing of a page in one query: the image row with the lowest id
+    @Query(value = "SELECT i.property_id AS propertyId, i.image_url AS imageUrl FROM property_images i " +
+                   "WHERE i.id IN (SELECT MIN(f.id) FROM property_images f " +
+                   "WHERE f.property_id IN (:ids) AND f.image_url IS NOT NULL GROUP BY f.property_id)",
+           nativeQuery = true)
+    List<PropertyImageView> findFirstImageRows(@Param("ids") Collection<Long> ids);
+
+    /**
+     * First image (in the order it was saved) of each of the given properties, loaded in one
+     * query. Properties without images are absent from the map.
+     */
+    default Map<Long, String> findFirstImages(Collection<Long> ids) {
+        Map<Long, String> firstImages = new HashMap<>();
+        if (ids.isEmpty()) {
+            return firstImages;
+        }
+        for (PropertyImageView image : findFirstImageRows(ids)) {
+            firstImages.put(image.getPropertyId(), image.getImageUrl());
+        }
+        return firstImages;
+    }
+}
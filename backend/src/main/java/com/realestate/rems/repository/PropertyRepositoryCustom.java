@@ -0,0 +1,40 @@
+package com.realestate.rems.repository;
+
+import com.realestate.rems.dto.PropertyExportRow;
+import com.realestate.rems.model.Property;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Property queries that Spring Data does not derive on its own.
+ */
+public interface PropertyRepositoryCustom {
+
+    /**
+     * Return at most {@code limit} properties matching {@code spec} in {@code sort} order.
+     * Unlike {@code findAll(spec, Pageable)} this issues no count query and no OFFSET;
+     * callers page with a keyset specification (see {@link PropertySpecifications#after}).
+     * Read-only, so it is served by a replica when replicas are configured.
+     */
+    @Transactional(readOnly = true)
+    List<Property> findPage(Specification<Property> spec, Sort sort, int limit);
+
+    /**
+     * Insert new properties (with their images) in JDBC batches, bypassing the persistence
+     * context, and set the generated id on each of them. Each property must have its agent
+     * and creation time set.
+     */
+    void insertAll(List<Property> properties);
+
+    /**
+     * Walk every property matching {@code spec} in id order over a forward-only cursor that
+     * fetches {@code fetchSize} rows at a time, handing each one (with its images) to
+     * {@code sink} as soon as it is complete. Only one property is held at a time; an exception
+     * thrown by the sink closes the cursor. Must run inside a transaction.
+     */
+    void scrollForExport(Specification<Property> spec, int fetchSize, Consumer<PropertyExportRow> sink);
+}
@@ -0,0 +1,158 @@
+package com.realestate.rems.repository;
+
+import com.realestate.rems.dto.PropertyExportRow;
+import com.realestate.rems.model.Property;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Criteria-based implementation of {@link PropertyRepositoryCustom}.
+ */
+public class PropertyRepositoryImpl implements PropertyRepositoryCustom {
+
+    private static final String INSERT_PROPERTY_SQL = "INSERT INTO properties "
+            + "(title, description, price, location, type, agent_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_IMAGE_SQL = "INSERT INTO property_images (property_id, image_url) VALUES (?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Property> findPage(Specification<Property> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Property> query = cb.createQuery(Property.class);
+        Root<Property> root = query.from(Property.class);
+
+        query.select(root);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public void insertAll(List<Property> properties) {
+        if (properties.isEmpty()) {
+            return;
+        }
+        // Runs on the connection of the surrounding transaction; generated keys come back in batch order
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_PROPERTY_SQL,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (Property property : properties) {
+                    insert.setString(1, property.getTitle());
+                    insert.setString(2, property.getDescription());
+                    insert.setBigDecimal(3, property.getPrice());
+                    insert.setString(4, property.getLocation());
+                    insert.setString(5, property.getType());
+                    insert.setLong(6, property.getAgent().getId());
+                    insert.setTimestamp(7, Timestamp.valueOf(property.getCreatedAt()));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+
+                int assigned = 0;
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    while (keys.next() && assigned < properties.size()) {
+                        properties.get(assigned++).setId(keys.getLong(1));
+                    }
+                }
+                if (assigned != properties.size()) {
+                    throw new IncorrectResultSizeDataAccessException(
+                            "Generated keys missing for imported properties", properties.size(), assigned);
+                }
+            }
+            return null;
+        });
+
+        List<Object[]> images = new ArrayList<>();
+        for (Property property : properties) {
+            for (String imageUrl : property.getImages()) {
+                images.add(new Object[] { property.getId(), imageUrl });
+            }
+        }
+        if (!images.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_IMAGE_SQL, images);
+        }
+    }
+
+    @Override
+    public void scrollForExport(Specification<Property> spec, int fetchSize, Consumer<PropertyExportRow> sink) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Property> root = query.from(Property.class);
+        Join<Property, String> image = root.join("images", JoinType.LEFT);
+
+        // Scalar columns only, so nothing accumulates in the persistence context
+        query.multiselect(root.get("id"), root.get("title"), root.get("description"), root.get("price"),
+                root.get("location"), root.get("type"), root.get("agent").get("id"), root.get("createdAt"), image);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // Image rows of one property arrive together
+        query.orderBy(cb.asc(root.get("id")));
+
+        org.hibernate.query.Query<Tuple> scroll = entityManager.createQuery(query)
+                .unwrap(org.hibernate.query.Query.class);
+        scroll.setFetchSize(fetchSize);
+        scroll.setReadOnly(true);
+
+        try (ScrollableResults<Tuple> rows = scroll.scroll(ScrollMode.FORWARD_ONLY)) {
+            PropertyExportRow current = null;
+            while (rows.next()) {
+                Tuple row = rows.get();
+                Long id = row.get(0, Long.class);
+                if (current == null || !current.getId().equals(id)) {
+                    if (current != null) {
+                        sink.accept(current);
+                    }
+                    current = new PropertyExportRow(id, row.get(1, String.class), row.get(2, String.class),
+                            row.get(3, BigDecimal.class), row.get(4, String.class), row.get(5, String.class),
+                            row.get(6, Long.class), row.get(7, LocalDateTime.class));
+                }
+                String imageUrl = row.get(8, String.class);
+                if (imageUrl != null) {
+                    current.getImages().add(imageUrl);
+                }
+            }
+            if (current != null) {
+                sink.accept(current);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.realestate.rems.repository;
+
+import com.realestate.rems.dto.PropertySearchCriteria;
+import com.realestate.rems.dto.PropertySort;
+import com.realestate.rems.model.Property;
+import com.realestate.rems.service.PageCursor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Composable query pieces for property listings.
+ *
+ * Each filter is its own specification and {@link #matching} only combines the ones that were
+ * supplied, so MySQL sees a statement with plain range/equality predicates it can match against
+ * the composite indexes on {@code properties} instead of a catch-all "(:x IS NULL OR ...)" query.
+ */
+public final class PropertySpecifications {
+
+    private PropertySpecifications() {
+    }
+
+    /**
+     * All filters present in {@code criteria}, AND-ed together.
+     */
+    public static Specification<Property> matching(PropertySearchCriteria criteria) {
+        Specification<Property> spec = Specification.where(null);
+        if (criteria == null) {
+            return spec;
+        }
+        if (criteria.getSearch() != null) {
+            spec = spec.and(textContains(criteria.getSearch()));
+        }
+        if (criteria.getMinPrice() != null) {
+            spec = spec.and(priceAtLeast(criteria.getMinPrice()));
+        }
+        if (criteria.getMaxPrice() != null) {
+            spec = spec.and(priceAtMost(criteria.getMaxPrice()));
+        }
+        if (criteria.getType() != null) {
+            spec = spec.and(hasType(criteria.getType()));
+        }
+        if (criteria.getAgentId() != null) {
+            spec = spec.and(listedBy(criteria.getAgentId()));
+        }
+        return spec;
+    }
+
+    /**
+     * Case-insensitive substring match on title, description or location.
+     */
+    public static Specification<Property> textContains(String text) {
+        String pattern = "%" + escapeLike(text.toLowerCase()) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("title")), pattern, '\\'),
+                cb.like(cb.lower(root.get("description")), pattern, '\\'),
+                cb.like(cb.lower(root.get("location")), pattern, '\\'));
+    }
+
+    public static Specification<Property> priceAtLeast(BigDecimal minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Property> priceAtMost(BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<Property> hasType(String type) {
+        return (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+
+    public static Specification<Property> listedBy(Long agentId) {
+        // Compares the agent_id column directly, no join to users
+        return (root, query, cb) -> cb.equal(root.get("agent").get("id"), agentId);
+    }
+
+    /**
+     * Keyset predicate selecting the rows that come strictly after {@code cursor} in {@code sort}
+     * order; matches everything when the cursor is null.
+     *
+     * @throws IllegalArgumentException if the cursor's sort key cannot be parsed
+     */
+    public static Specification<Property> after(PropertySort sort, PageCursor cursor) {
+        if (cursor == null) {
+            return Specification.where(null);
+        }
+        Long id = cursor.getId();
+        try {
+            switch (sort) {
+                case PRICE_ASC -> {
+                    BigDecimal price = new BigDecimal(cursor.getKey());
+                    return (root, query, cb) -> cb.or(
+                            cb.greaterThan(root.get("price"), price),
+                            cb.and(cb.equal(root.get("price"), price), cb.greaterThan(root.get("id"), id)));
+                }
+                case PRICE_DESC -> {
+                    BigDecimal price = new BigDecimal(cursor.getKey());
+                    return (root, query, cb) -> cb.or(
+                            cb.lessThan(root.get("price"), price),
+                            cb.and(cb.equal(root.get("price"), price), cb.lessThan(root.get("id"), id)));
+                }
+                case NEWEST -> {
+                    LocalDateTime createdAt = LocalDateTime.parse(cursor.getKey());
+                    return (root, query, cb) -> cb.or(
+                            cb.lessThan(root.get("createdAt"), createdAt),
+                            cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), id)));
+                }
+                default -> throw new IllegalArgumentException("Unsupported sort for database paging: " + sort);
+            }
+        } catch (NumberFormatException | DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * ORDER BY for {@code sort}, always ending with the id so the keyset is unique.
+     */
+    public static Sort orderBy(PropertySort sort) {
+        return switch (sort) {
+            case PRICE_ASC -> Sort.by(Sort.Order.asc("price"), Sort.Order.asc("id"));
+            case PRICE_DESC -> Sort.by(Sort.Order.desc("price"), Sort.Order.desc("id"));
+            case NEWEST -> Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+            default -> throw new IllegalArgumentException("Unsupported sort for database paging: " + sort);
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,309 @@
+package com.realestate.rems.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link ImageStorage} in a bucket of any S3-compatible service (AWS S3, MinIO, Ceph, R2),
+ * addressed path-style as {@code endpoint/bucket/prefix+key} so it also works with stores that
+ * have no virtual-host DNS. Bodies are streamed in both directions over the JDK HTTP client;
+ * requests are signed with SigV4.
+ */
+@Component
+@ConditionalOnProperty(name = "images.storage.type", havingValue = "s3")
+public class S3ImageStorage implements ImageStorage {
+
+    private static final int LIST_PAGE_SIZE = 1000;
+
+    private final HttpClient httpClient;
+    private final S3RequestSigner signer;
+    private final String bucketUrl;
+    private final String prefix;
+    private final Duration timeout;
+
+    public S3ImageStorage(@Value("${images.storage.s3.endpoint}") String endpoint,
+                          @Value("${images.storage.s3.region:us-east-1}") String region,
+                          @Value("${images.storage.s3.bucket}") String bucket,
+                          @Value("${images.storage.s3.access-key}") String accessKey,
+                          @Value("${images.storage.s3.secret-key}") String secretKey,
+                          @Value("${images.storage.s3.prefix:}") String prefix,
+                          @Value("${images.storage.s3.timeout-ms:30000}") long timeoutMs) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        this.signer = new S3RequestSigner(accessKey, secretKey, region);
+        this.bucketUrl = endpoint.replaceAll("/+$", "") + "/" + encode(bucket, true);
+        this.prefix = prefix;
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    @Override
+    public void put(String key, InputStream content, long length) throws IOException {
+        // A fixed length makes the client send Content-Length instead of chunks, which S3 requires
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofInputStream(() -> content), length);
+        HttpResponse<String> response = send(request("PUT", key, Map.of(), body),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw failure("PUT", key, response.statusCode(), response.body());
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return open("GET", key, Map.of());
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) throws IOException {
+        HttpResponse<Void> response = send(request("HEAD", key, Map.of(), HttpRequest.BodyPublishers.noBody()),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw failure("HEAD", key, response.statusCode(), "");
+        }
+        long size = response.headers().firstValueAsLong("Content-Length").orElse(0);
+        Instant lastModified = response.headers().firstValue("Last-Modified")
+                .map(S3ImageStorage::parseHttpDate)
+                .orElse(Instant.EPOCH);
+        return Optional.of(new StoredObject(size, lastModified));
+    }
+
+    @Override
+    public void stream(String key, long start, long end, OutputStream out) throws IOException {
+        try (InputStream in = open("GET", key, Map.of("Range", "bytes=" + start + "-" + end))) {
+            in.transferTo(out);
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        // S3 answers 204 whether or not the key existed
+        boolean existed = stat(key).isPresent();
+        HttpResponse<String> response = send(request("DELETE", key, Map.of(), HttpRequest.BodyPublishers.noBody()),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2 && response.statusCode() != 404) {
+            throw failure("DELETE", key, response.statusCode(), response.body());
+        }
+        return existed;
+    }
+
+    /**
+     * Pages through the bucket with ListObjectsV2, fetching the next page of up to 1000 keys when
+     * the previous one has been consumed.
+     */
+    @Override
+    public Stream<ListedObject> list() {
+        Iterator<ListedObject> objects = new Iterator<>() {
+            private Iterator<ListedObject> page = Collections.emptyIterator();
+            private String continuationToken;
+            private boolean lastPage;
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && !lastPage) {
+                    try {
+                        ListPage next = listPage(continuationToken);
+                        page = next.objects.iterator();
+                        continuationToken = next.continuationToken;
+                        lastPage = continuationToken == null;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public ListedObject next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(objects, Spliterator.NONNULL), false);
+    }
+
+    // 🔧 Internal helpers
+
+    private ListPage listPage(String continuationToken) throws IOException {
+        StringBuilder query = new StringBuilder("?list-type=2&max-keys=" + LIST_PAGE_SIZE);
+        if (!prefix.isEmpty()) {
+            query.append("&prefix=").append(encode(prefix, false));
+        }
+        if (continuationToken != null) {
+            query.append("&continuation-token=").append(encode(continuationToken, false));
+        }
+        HttpResponse<InputStream> response = send(
+                request("GET", URI.create(bucketUrl + query), Map.of(), HttpRequest.BodyPublishers.noBody()),
+                HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() / 100 != 2) {
+                throw failure("LIST", prefix, response.statusCode(),
+                        new String(body.readNBytes(1024), StandardCharsets.UTF_8));
+            }
+            return parseListing(body);
+        }
+    }
+
+    private ListPage parseListing(InputStream body) throws IOException {
+        ListPage page = new ListPage();
+        try {
+            XMLInputFactory factory = XMLInputFactory.newFactory();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            XMLStreamReader xml = factory.createXMLStreamReader(body);
+            String key = null;
+            long size = 0;
+            Instant lastModified = Instant.EPOCH;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (xml.getLocalName()) {
+                        case "Key" -> key = xml.getElementText();
+                        case "Size" -> size = Long.parseLong(xml.getElementText().trim());
+                        case "LastModified" -> lastModified = Instant.parse(xml.getElementText().trim());
+                        case "NextContinuationToken" -> page.continuationToken = xml.getElementText();
+                        default -> {
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && xml.getLocalName().equals("Contents")) {
+                    if (key != null && key.startsWith(prefix)) {
+                        page.objects.add(new ListedObject(key.substring(prefix.length()), size, lastModified));
+                    }
+                    key = null;
+                }
+            }
+        } catch (XMLStreamException | RuntimeException e) {
+            throw new IOException("Unreadable S3 listing: " + e.getMessage(), e);
+        }
+        return page;
+    }
+
+    private InputStream open(String method, String key, Map<String, String> headers) throws IOException {
+        HttpResponse<InputStream> response = send(request(method, key, headers, HttpRequest.BodyPublishers.noBody()),
+                HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() / 100 == 2) {
+            return response.body();
+        }
+        String body;
+        try (InputStream error = response.body()) {
+            body = new String(error.readNBytes(1024), StandardCharsets.UTF_8);
+        }
+        if (response.statusCode() == 404) {
+            throw new NoSuchFileException(key);
+        }
+        throw failure(method, key, response.statusCode(), body);
+    }
+
+    private HttpRequest request(String method, String key, Map<String, String> headers,
+                                HttpRequest.BodyPublisher body) {
+        return request(method, URI.create(bucketUrl + "/" + encode(prefix + key, true)), headers, body);
+    }
+
+    private HttpRequest request(String method, URI uri, Map<String, String> headers,
+                                HttpRequest.BodyPublisher body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .method(method, body);
+        headers.forEach(builder::header);
+        signer.sign(method, uri, headers, S3RequestSigner.UNSIGNED_PAYLOAD, Instant.now())
+                .forEach(builder::header);
+        return builder.build();
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return sendOnce(request, handler);
+        } catch (HttpTimeoutException e) {
+            throw e;
+        } catch (IOException e) {
+            // The service closes idle keep-alive connections on its own schedule; a request without
+            // a body that met one is sent again. Uploads are not: their stream has been consumed
+            if (request.bodyPublisher().map(body -> body.contentLength() > 0).orElse(false)) {
+                throw e;
+            }
+            return sendOnce(request, handler);
+        }
+    }
+
+    private <T> HttpResponse<T> sendOnce(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return httpClient.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during " + request.method() + " " + request.uri());
+        }
+    }
+
+    private static IOException failure(String method, String key, int status, String body) {
+        return new IOException("S3 " + method + " " + key + " failed with status " + status
+                + (body.isBlank() ? "" : ": " + body));
+    }
+
+    // RFC 3986 unreserved characters stay as they are; in keys, so does the '/' between segments
+    private static String encode(String value, boolean keepSlash) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (keepSlash && c == '/')) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static Instant parseHttpDate(String value) {
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return Instant.EPOCH;
+        }
+    }
+
+    private static final class ListPage {
+        final List<ListedObject> objects = new ArrayList<>();
+        String continuationToken;
+    }
+}
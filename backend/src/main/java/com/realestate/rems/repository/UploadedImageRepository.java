@@ -0,0 +1,59 @@
+package com.realestate.rems.repository;
+
+import com.realestate.rems.model.UploadedImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadedImageRepository extends JpaRepository<UploadedImage, Long> {
+
+    Optional<UploadedImage> findByFilename(String filename);
+
+    @Query("SELECT i.filename FROM UploadedImage i WHERE i.lastUploadedAt >= :since")
+    List<String> findFilenamesUploadedSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT i.filename FROM UploadedImage i WHERE i.lastUploadedAt >= :since AND i.filename IN :filenames")
+    List<String> findFilenamesUploadedSince(@Param("since") LocalDateTime since,
+                                            @Param("filenames") Collection<String> filenames);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadedImage i SET i.lastUploadedAt = :at WHERE i.filename = :filename")
+    int markUploaded(@Param("filename") String filename, @Param("at") LocalDateTime at);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UploadedImage i WHERE i.filename = :filename")
+    int deleteByFilename(@Param("filename") String filename);
+
+    /**
+     * Deletes the record of {@code filename} unless it was uploaded at or after {@code before};
+     * 1 when a record was deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UploadedImage i WHERE i.filename = :filename AND i.lastUploadedAt < :before")
+    int deleteUploadedBefore(@Param("filename") String filename, @Param("before") LocalDateTime before);
+
+    /**
+     * Records an original stored before uploads were recorded, with an upload time of
+     * {@code uploadedAt}; fails with a constraint violation if it is recorded already.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO uploaded_images "
+            + "(created_at, filename, content_type, width, height, size_bytes, last_uploaded_at) "
+            + "VALUES (:uploadedAt, :filename, 'application/octet-stream', 0, 0, :size, :uploadedAt)",
+            nativeQuery = true)
+    void insertUnrecorded(@Param("filename") String filename, @Param("size") long size,
+                          @Param("uploadedAt") LocalDateTime uploadedAt);
+}
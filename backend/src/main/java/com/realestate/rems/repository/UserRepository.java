@@ -2,8 +2,10 @@ package com.realestate.rems.repository;
 
 import com.realestate.rems.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -17,4 +19,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Find user by email.
      */
     Optional<User> findByEmail(String email);
+
+    /**
+     * Ids of all disabled accounts.
+     */
+    @Query("SELECT u.id FROM User u WHERE u.enabled = false")
+    List<Long> findDisabledUserIds();
 }
@@ -0,0 +1,128 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker around the database reads of the listing endpoints. After
+ * {@code failure-threshold} consecutive database failures it opens and rejects calls
+ * immediately with a {@link ServiceUnavailableException}, instead of letting every request wait
+ * for the connection pool to time out. After {@code open-ms} one trial call is let through; its
+ * success closes the breaker, its failure opens it again.
+ *
+ * Only database errors count as failures; a missing listing or a bad cursor does not.
+ */
+@Component
+public class DatabaseCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMs;
+    private final Counter rejected;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialRunning;
+
+    public DatabaseCircuitBreaker(MeterRegistry meterRegistry,
+                                  @Value("${database.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                                  @Value("${database.circuit-breaker.open-ms:10000}") long openMs) {
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        this.rejected = Counter.builder("rems.database.circuit-breaker.rejected")
+                .description("Reads rejected without querying because the database circuit is open")
+                .register(meterRegistry);
+        Gauge.builder("rems.database.circuit-breaker.state", this, breaker -> breaker.getState().ordinal())
+                .description("Database circuit state: 0 closed, 1 open, 2 half open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code call} unless the circuit is open.
+     *
+     * @throws ServiceUnavailableException if the circuit is open
+     */
+    public <T> T call(Supplier<T> call) {
+        boolean trial = acquire();
+        try {
+            T result = call.get();
+            onSuccess(trial);
+            return result;
+        } catch (RuntimeException e) {
+            if (isDatabaseFailure(e)) {
+                onFailure(trial, e);
+            } else {
+                onSuccess(trial);
+            }
+            throw e;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    // 🔧 Internal helpers
+
+    private synchronized boolean acquire() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMs) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.CLOSED) {
+            return false;
+        }
+        if (state == State.HALF_OPEN && !trialRunning) {
+            trialRunning = true;
+            return true;
+        }
+        rejected.increment();
+        throw new ServiceUnavailableException("Database is unavailable, please retry shortly");
+    }
+
+    private synchronized void onSuccess(boolean trial) {
+        if (trial) {
+            trialRunning = false;
+            logger.info("Database reads recovered, closing the circuit");
+        }
+        if (trial || state == State.CLOSED) {
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+        }
+    }
+
+    private synchronized void onFailure(boolean trial, RuntimeException e) {
+        if (trial) {
+            trialRunning = false;
+        } else if (state != State.CLOSED || ++consecutiveFailures < failureThreshold) {
+            return;
+        }
+        if (state == State.CLOSED) {
+            logger.warn("{} consecutive database failures, opening the circuit for {} ms: {}",
+                    consecutiveFailures, openMs, e.toString());
+        }
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+    }
+
+    static boolean isDatabaseFailure(Throwable e) {
+        return e instanceof DataAccessException || e instanceof TransactionException
+                || e instanceof PersistenceException;
+    }
+}
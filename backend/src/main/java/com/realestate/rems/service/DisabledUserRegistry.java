@@ -0,0 +1,35 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+/**
+ * In-memory set of disabled user ids, so the JWT filter can reject tokens of disabled
+ * accounts without querying the users table on every request. The set is reloaded every
+ * {@code auth.disabled-users.refresh-ms}, so disabling an account in the database takes
+ * effect within that interval. The refresh is the only writer.
+ */
+@Service
+public class DisabledUserRegistry {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private volatile Set<Long> disabledIds = Set.of();
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${auth.disabled-users.refresh-ms:60000}",
+            initialDelayString = "${auth.disabled-users.refresh-ms:60000}")
+    public void refresh() {
+        disabledIds = Set.copyOf(userRepository.findDisabledUserIds());
+    }
+
+    public boolean isDisabled(Long userId) {
+        return disabledIds.contains(userId);
+    }
+}
@@ -0,0 +1,38 @@
+package com.realestate.rems.service;
+
+/**
+ * Published by {@link FavoriteService} when a client saves or removes a favorite.
+ * In-memory membership sets listen for it after the transaction commits.
+ */
+public class FavoriteChangedEvent {
+
+    private final Long clientId;
+    private final Long propertyId;
+    private final boolean added;
+
+    private FavoriteChangedEvent(Long clientId, Long propertyId, boolean added) {
+        this.clientId = clientId;
+        this.propertyId = propertyId;
+        this.added = added;
+    }
+
+    public static FavoriteChangedEvent added(Long clientId, Long propertyId) {
+        return new FavoriteChangedEvent(clientId, propertyId, true);
+    }
+
+    public static FavoriteChangedEvent removed(Long clientId, Long propertyId) {
+        return new FavoriteChangedEvent(clientId, propertyId, false);
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public Long getPropertyId() {
+        return propertyId;
+    }
+
+    public boolean isAdded() {
+        return added;
+    }
+}
@@ -0,0 +1,145 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.repository.FavoriteRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-client set of favorited property ids, held as a compressed (Roaring) bitmap so that
+ * "is this listing favorited?" is an in-memory lookup.
+ *
+ * A client's set is loaded from the database on first use and kept current from
+ * {@link FavoriteChangedEvent}s after commit. Loading and updating a client go through the same
+ * map entry, so an update that commits while the set is being loaded is applied once the load
+ * finishes. Clients idle for longer than the configured time are dropped, and the number of
+ * loaded clients is capped, so memory stays bounded.
+ */
+@Component
+public class FavoriteMembershipIndex {
+
+    private final FavoriteRepository favoriteRepository;
+    private final long idleMillis;
+    private final int maxClients;
+    private final Map<Long, Membership> byClient = new ConcurrentHashMap<>();
+
+    public FavoriteMembershipIndex(FavoriteRepository favoriteRepository, MeterRegistry meterRegistry,
+                                   @Value("${favorites.membership.idle-minutes:30}") long idleMinutes,
+                                   @Value("${favorites.membership.max-clients:50000}") int maxClients) {
+        this.favoriteRepository = favoriteRepository;
+        this.idleMillis = idleMinutes * 60_000;
+        this.maxClients = maxClients;
+        Gauge.builder("rems.favorites.membership.clients", byClient, Map::size)
+                .description("Clients whose favorite sets are held in memory")
+                .register(meterRegistry);
+        Gauge.builder("rems.favorites.membership.memory", this, FavoriteMembershipIndex::memoryFootprintBytes)
+                .description("Approximate heap used by the in-memory favorite sets")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Favorited flag for each of the given property ids, in request order.
+     */
+    public Map<Long, Boolean> favorited(Long clientId, Collection<Long> propertyIds) {
+        Membership membership = membership(clientId);
+        Map<Long, Boolean> flags = new LinkedHashMap<>();
+        synchronized (membership) {
+            for (Long propertyId : propertyIds) {
+                // Property ids are positive ints (as in the filter index); anything else is not favorited
+                boolean valid = propertyId != null && propertyId > 0 && propertyId <= Integer.MAX_VALUE;
+                flags.put(propertyId, valid && membership.propertyIds.contains(propertyId.intValue()));
+            }
+        }
+        return flags;
+    }
+
+    public boolean isFavorited(Long clientId, Long propertyId) {
+        return favorited(clientId, List.of(propertyId)).get(propertyId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFavoriteChanged(FavoriteChangedEvent event) {
+        // Clients that are not loaded will read the committed state on first use
+        byClient.computeIfPresent(event.getClientId(), (clientId, membership) -> {
+            synchronized (membership) {
+                int propertyId = Math.toIntExact(event.getPropertyId());
+                if (event.isAdded()) {
+                    membership.propertyIds.add(propertyId);
+                } else {
+                    membership.propertyIds.remove(propertyId);
+                }
+            }
+            return membership;
+        });
+    }
+
+    /**
+     * Drop clients idle for longer than the idle time, then the least recently used ones
+     * while more than the maximum number of clients are loaded.
+     */
+    @Scheduled(fixedDelayString = "${favorites.membership.sweep-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        byClient.values().removeIf(membership -> membership.lastAccess < cutoff);
+
+        int excess = byClient.size() - maxClients;
+        if (excess > 0) {
+            byClient.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(byClient::remove);
+        }
+    }
+
+    public int loadedClients() {
+        return byClient.size();
+    }
+
+    public long memoryFootprintBytes() {
+        long bytes = 0;
+        for (Membership membership : byClient.values()) {
+            synchronized (membership) {
+                bytes += membership.propertyIds.getLongSizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    private Membership membership(Long clientId) {
+        Membership membership = byClient.computeIfAbsent(clientId, this::load);
+        membership.lastAccess = System.currentTimeMillis();
+        return membership;
+    }
+
+    private Membership load(Long clientId) {
+        RoaringBitmap propertyIds = new RoaringBitmap();
+        for (Long propertyId : favoriteRepository.findPropertyIdsByClientId(clientId)) {
+            propertyIds.add(Math.toIntExact(propertyId));
+        }
+        propertyIds.runOptimize();
+        return new Membership(propertyIds);
+    }
+
+    private static final class Membership {
+        final RoaringBitmap propertyIds;
+        volatile long lastAccess = System.currentTimeMillis();
+
+        Membership(RoaringBitmap propertyIds) {
+            this.propertyIds = propertyIds;
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package com.realestate.rems.service;
 
+import com.realestate.rems.dto.CursorPageDTO;
+import com.realestate.rems.dto.FavoriteBatchOutcome;
+import com.realestate.rems.dto.FavoriteCandidateView;
+import com.realestate.rems.dto.FavoritePropertyView;
+import com.realestate.rems.dto.FavoriteSummary;
+import com.realestate.rems.dto.PropertySummary;
 import com.realestate.rems.exception.ResourceNotFoundException;
 import com.realestate.rems.model.Favorite;
 import com.realestate.rems.model.Property;
@@ -9,13 +15,25 @@ import com.realestate.rems.repository.PropertyRepository;
 import com.realestate.rems.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class FavoriteService {
 
+    private static final String FAVORITES_CURSOR = "favorites";
+    static final int MAX_STATUS_BATCH = 100;
+
     @Autowired
     private FavoriteRepository favoriteRepository;
 
@@ -25,6 +43,12 @@ public class FavoriteService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private FavoriteMembershipIndex membershipIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public Favorite addFavorite(Long propertyId, Long clientId) {
         // Check if already favorited
@@ -35,34 +59,144 @@ public class FavoriteService {
         Property property = propertyRepository.findById(propertyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Property not found with id: " + propertyId));
 
-        User client = userRepository.findById(clientId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + clientId));
-
-        if (!"client".equals(client.getRole())) {
-            throw new IllegalArgumentException("Only clients can add favorites");
-        }
+        // The client role was checked against the token; only the foreign key is needed here
+        User client = userRepository.getReferenceById(clientId);
 
         Favorite favorite = Favorite.builder()
                 .property(property)
                 .client(client)
                 .build();
 
-        return favoriteRepository.save(favorite);
+        Favorite saved = favoriteRepository.save(favorite);
+        eventPublisher.publishEvent(FavoriteChangedEvent.added(clientId, propertyId));
+        return saved;
     }
 
-    public List<Favorite> getClientFavorites(Long clientId) {
-        return favoriteRepository.findByClientId(clientId);
+    /**
+     * Add many favorites at once. Ids are checked in one query and new rows are inserted in one
+     * JDBC batch; properties already saved or not found are reported, not treated as errors.
+     * Outcomes are keyed by property id in request order (duplicates collapsed).
+     */
+    @Transactional
+    public Map<Long, FavoriteBatchOutcome> addFavorites(Long clientId, List<Long> propertyIds) {
+        Set<Long> ids = new LinkedHashSet<>(propertyIds);
+        Map<Long, Long> candidates = findCandidates(clientId, ids);
+
+        Map<Long, FavoriteBatchOutcome> outcomes = new LinkedHashMap<>();
+        List<Long> toInsert = new ArrayList<>();
+        for (Long propertyId : ids) {
+            if (!candidates.containsKey(propertyId)) {
+                outcomes.put(propertyId, FavoriteBatchOutcome.PROPERTY_NOT_FOUND);
+            } else if (candidates.get(propertyId) != null) {
+                outcomes.put(propertyId, FavoriteBatchOutcome.ALREADY_FAVORITED);
+            } else {
+                outcomes.put(propertyId, FavoriteBatchOutcome.ADDED);
+                toInsert.add(propertyId);
+            }
+        }
+
+        // A concurrent request may have saved some of them since the check
+        Set<Long> inserted = favoriteRepository.insertIgnoringDuplicates(clientId, toInsert);
+        for (Long propertyId : toInsert) {
+            if (inserted.contains(propertyId)) {
+                eventPublisher.publishEvent(FavoriteChangedEvent.added(clientId, propertyId));
+            } else {
+                outcomes.put(propertyId, FavoriteBatchOutcome.ALREADY_FAVORITED);
+            }
+        }
+        return outcomes;
     }
 
+    /**
+     * Remove many favorites at once with a single delete; ids that were not saved are reported
+     * as such. Outcomes are keyed by property id in request order (duplicates collapsed).
+     */
     @Transactional
-    public void removeFavorite(Long propertyId, Long clientId) {
-        favoriteRepository.deleteByPropertyIdAndClientId(propertyId, clientId);
+    public Map<Long, FavoriteBatchOutcome> removeFavorites(Long clientId, List<Long> propertyIds) {
+        Set<Long> ids = new LinkedHashSet<>(propertyIds);
+        Map<Long, Long> candidates = findCandidates(clientId, ids);
+
+        Map<Long, FavoriteBatchOutcome> outcomes = new LinkedHashMap<>();
+        List<Long> toDelete = new ArrayList<>();
+        for (Long propertyId : ids) {
+            if (candidates.get(propertyId) != null) {
+                outcomes.put(propertyId, FavoriteBatchOutcome.REMOVED);
+                toDelete.add(propertyId);
+            } else {
+                outcomes.put(propertyId, FavoriteBatchOutcome.NOT_FAVORITED);
+            }
+        }
+
+        if (!toDelete.isEmpty()) {
+            favoriteRepository.deleteByClientIdAndPropertyIds(clientId, toDelete);
+            toDelete.forEach(propertyId -> eventPublisher.publishEvent(FavoriteChangedEvent.removed(clientId, propertyId)));
+        }
+        return outcomes;
     }
 
-    public Long getUserIdByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .map(User::getId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    /**
+     * Existing properties among {@code propertyIds}, mapped to the client's favorite id (null if not saved).
+     */
+    private Map<Long, Long> findCandidates(Long clientId, Collection<Long> propertyIds) {
+        Map<Long, Long> candidates = new HashMap<>();
+        for (FavoriteCandidateView candidate : favoriteRepository.findCandidates(clientId, propertyIds)) {
+            candidates.put(candidate.getPropertyId(), candidate.getFavoriteId());
+        }
+        return candidates;
+    }
+
+    /**
+     * Whether each of the given properties is in the client's favorites, answered from the
+     * in-memory membership set. At most {@value #MAX_STATUS_BATCH} ids per call.
+     */
+    public Map<Long, Boolean> getFavoritedStatus(Long clientId, List<Long> propertyIds) {
+        if (propertyIds == null || propertyIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one property id is required");
+        }
+        if (propertyIds.size() > MAX_STATUS_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_STATUS_BATCH + " property ids per request");
+        }
+        return membershipIndex.favorited(clientId, propertyIds);
+    }
+
+    /**
+     * One keyset page of a client's favorites, most recently added first.
+     * Reads a projection of favorite and property columns plus one batched images query;
+     * neither the client nor the full property entities are loaded.
+     */
+    public CursorPageDTO<FavoriteSummary> getClientFavorites(Long clientId, String cursor, Integer size) {
+        int pageSize = PageCursor.clampSize(size);
+        PageCursor after = PageCursor.decode(cursor, FAVORITES_CURSOR);
+
+        // PageRequest on page 0 only adds a LIMIT; the cursor replaces OFFSET
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<FavoritePropertyView> rows = after == null
+                ? favoriteRepository.findPage(clientId, limit)
+                : favoriteRepository.findPageAfter(clientId, after.getId(), limit);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<FavoritePropertyView> page = hasMore ? rows.subList(0, pageSize) : rows;
+        Map<Long, String> firstImages = propertyRepository.findFirstImages(
+                page.stream().map(FavoritePropertyView::getPropertyId).toList());
+
+        List<FavoriteSummary> items = new ArrayList<>(page.size());
+        for (FavoritePropertyView row : page) {
+            PropertySummary property = new PropertySummary(row.getPropertyId(), row.getTitle(), row.getPrice(),
+                    row.getLocation(), row.getType(), firstImages.get(row.getPropertyId()));
+            items.add(new FavoriteSummary(row.getId(), row.getCreatedAt(), property));
+        }
+
+        if (!hasMore) {
+            return new CursorPageDTO<>(items, null);
+        }
+        Long lastId = page.get(pageSize - 1).getId();
+        return new CursorPageDTO<>(items, new PageCursor(FAVORITES_CURSOR, null, lastId).encode());
+    }
+
+    @Transactional
+    public void removeFavorite(Long propertyId, Long clientId) {
+        favoriteRepository.deleteByPropertyIdAndClientId(propertyId, clientId);
+        eventPublisher.publishEvent(FavoriteChangedEvent.removed(clientId, propertyId));
     }
 }
 
@@ -0,0 +1,222 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.dto.ImageBatchUploadDTO;
+import com.realestate.rems.dto.ImageInfoDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.tomcat.util.http.fileupload.FileItemIterator;
+import org.apache.tomcat.util.http.fileupload.FileItemStream;
+import org.apache.tomcat.util.http.fileupload.FileUpload;
+import org.apache.tomcat.util.http.fileupload.FileUploadException;
+import org.apache.tomcat.util.http.fileupload.UploadContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stores many images sent in one {@code multipart/form-data} request.
+ *
+ * The request body is read part by part as it arrives rather than parsed up front. Each file
+ * part is checked against the image signatures in its first bytes, then streamed to a temporary
+ * file and hashed on the way. It is handed to a bounded pool for the rest of the work (probe,
+ * store, record, queue derivatives) while the next part is still being received. When the pool
+ * is saturated, the request thread stores the file itself, which slows reading to the pace of
+ * storage instead of piling up temporary files.
+ */
+@Service
+public class ImageBatchUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageBatchUploadService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private ImageService imageService;
+
+    @Value("${images.batch.threads:4}")
+    private int threads;
+
+    @Value("${images.batch.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${images.batch.max-files:30}")
+    private int maxFiles;
+
+    @Value("${images.batch.max-file-bytes:10485760}")
+    private long maxFileBytes;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread thread = new Thread(task, "image-batch-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Stores every file part of a multipart body. Form fields are ignored. A file that is not a
+     * supported image, or too large, is reported in its entry without failing the others.
+     *
+     * @throws IllegalArgumentException if the body is not multipart or has too many files
+     */
+    public ImageBatchUploadDTO upload(String contentType, String characterEncoding, InputStream body)
+            throws IOException {
+        if (contentType == null || !contentType.toLowerCase().startsWith("multipart/")) {
+            throw new IllegalArgumentException("Expected a multipart/form-data request");
+        }
+        UploadContext context = new UploadContext() {
+            @Override
+            public String getCharacterEncoding() {
+                return characterEncoding;
+            }
+
+            @Override
+            public String getContentType() {
+                return contentType;
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                return body;
+            }
+
+            @Override
+            public long contentLength() {
+                // Unknown; the per-file and file count limits bound the request
+                return -1;
+            }
+        };
+
+        ImageBatchUploadDTO result = new ImageBatchUploadDTO();
+        List<Future<ImageInfoDTO>> pending = new ArrayList<>();
+        try {
+            FileItemIterator parts = new FileUpload().getItemIterator(context);
+            while (parts.hasNext()) {
+                FileItemStream part = parts.next();
+                if (part.isFormField()) {
+                    continue;
+                }
+                if (result.getFiles().size() == maxFiles) {
+                    throw new IllegalArgumentException("At most " + maxFiles + " files can be uploaded at once");
+                }
+                result.getFiles().add(new ImageBatchUploadDTO.Item(part.getName()));
+                pending.add(receive(part));
+            }
+        } catch (FileUploadException e) {
+            throw new IllegalArgumentException("Malformed multipart request: " + e.getMessage());
+        }
+
+        // Wait in request order so entries and URLs line up with the parts
+        for (int i = 0; i < pending.size(); i++) {
+            ImageBatchUploadDTO.Item item = result.getFiles().get(i);
+            try {
+                ImageInfoDTO image = pending.get(i).get();
+                item.setUrl(image.getUrl());
+                item.setImage(image);
+                result.getUrls().add(image.getUrl());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (!(cause instanceof IllegalArgumentException)) {
+                    logger.warn("Could not store {}: {}", item.getFilename(), cause.toString());
+                }
+                item.setError(cause.getMessage());
+                result.setFailed(result.getFailed() + 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while storing images", e);
+            }
+        }
+        return result;
+    }
+
+    // 🔧 Internal helpers
+
+    /**
+     * Reads one file part to a temporary file and schedules storing it; a part that is rejected
+     * while reading yields an already failed future.
+     */
+    private Future<ImageInfoDTO> receive(FileItemStream part) throws IOException {
+        Path temp = Files.createTempFile("upload-", ".tmp");
+        try {
+            MessageDigest sha256 = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(part.openStream(), sha256);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                byte[] head = in.readNBytes(ImageSniffer.HEAD_LENGTH);
+                if (ImageSniffer.mediaType(head) == null) {
+                    throw new IllegalArgumentException("Not a JPEG, PNG, GIF or BMP image");
+                }
+                out.write(head);
+                size = head.length + copy(in, out, head.length);
+            }
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            return executor.submit(() -> {
+                try {
+                    return imageService.storeFile(temp, hash, size);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            // The iterator skips what is left of the part
+            Files.deleteIfExists(temp);
+            return CompletableFuture.failedFuture(e);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private long copy(InputStream in, OutputStream out, long alreadyRead) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long copied = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            copied += read;
+            if (alreadyRead + copied > maxFileBytes) {
+                throw new IllegalArgumentException("File exceeds the limit of " + maxFileBytes + " bytes");
+            }
+            out.write(buffer, 0, read);
+        }
+        return copied;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.realestate.rems.service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Scaling and JPEG encoding for {@link ImageVariant}s. Images are redrawn into a fresh RGB
+ * raster and written without metadata, so EXIF data (camera, GPS position) never reaches a
+ * derivative.
+ */
+final class ImageDerivatives {
+
+    private ImageDerivatives() {
+    }
+
+    /**
+     * Scales {@code source} down to {@code target} (width, height). Large reductions are done in
+     * halving steps: a single bilinear pass that shrinks more than 2x skips source pixels and aliases.
+     */
+    static BufferedImage scale(BufferedImage source, int[] target) {
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(target[0], width / 2);
+            height = Math.max(target[1], height / 2);
+            current = redraw(current, width, height);
+        } while (width > target[0] || height > target[1]);
+        return current;
+    }
+
+    static void writeJpeg(BufferedImage image, float quality, OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // Transparent areas are flattened onto white, since JPEG has no alpha channel
+    private static BufferedImage redraw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,410 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.dto.ImageInfoDTO;
+import com.realestate.rems.exception.ResourceNotFoundException;
+import com.realestate.rems.model.UploadedImage;
+import com.realestate.rems.repository.ImageStorage;
+import com.realestate.rems.repository.UploadedImageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.HexFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Stores uploaded images and produces their {@link ImageVariant} derivatives.
+ *
+ * Originals are content-addressed: named by the SHA-256 of their bytes, so the same photo
+ * uploaded for several listings is stored once and its URL can be cached forever. Files live in
+ * an {@link ImageStorage} under their name ({@code abcd….jpg}) and their variants under
+ * {@code thumb/abcd….jpg} etc.
+ *
+ * An upload is only probed in the request thread (format and dimensions from the header); the
+ * original is then decoded once on a small bounded executor that writes every variant, each
+ * scaled from the previous one. Variants that are missing when requested (queue was full,
+ * images uploaded before the pipeline existed) are produced on the same executor and kept in
+ * storage; concurrent requests for the same variant share one job.
+ */
+@Service
+public class ImageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageService.class);
+
+    public static final String URL_PREFIX = "/uploads/images/";
+
+    private static final Pattern FILENAME = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+
+    // Written largest first so each variant is scaled from the one before
+    private static final ImageVariant[] CASCADE = { ImageVariant.FULL, ImageVariant.DETAIL, ImageVariant.THUMB };
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "jpeg", "jpg", "png", "png", "gif", "gif", "bmp", "bmp");
+
+    @Autowired
+    private UploadedImageRepository uploadedImageRepository;
+
+    @Autowired
+    private ImageStorage imageStorage;
+
+    // Decoding needs about 4 bytes per pixel, so this also bounds the memory of one job
+    @Value("${images.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${images.pipeline.threads:2}")
+    private int threads;
+
+    @Value("${images.pipeline.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${images.pipeline.on-demand-timeout-ms:20000}")
+    private long onDemandTimeoutMs;
+
+    private ThreadPoolExecutor executor;
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread thread = new Thread(task, "image-pipeline-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Saves an uploaded original under the SHA-256 of its content, records its dimensions and
+     * queues its derivatives. Uploading content that is already stored returns the existing
+     * image, writing the bytes again only if its record had been removed by the orphan sweeper.
+     *
+     * @throws IllegalArgumentException if the file is empty, not a supported image or too large
+     */
+    public ImageInfoDTO store(MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+
+        // Probing needs random access, so the upload goes to a local temporary file first
+        Path temp = Files.createTempFile("upload-", ".tmp");
+        try {
+            // Hashed while it streams to disk, so the content is read only once
+            MessageDigest sha256 = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), sha256)) {
+                size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return storeFile(temp, HexFormat.of().formatHex(sha256.digest()), size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Stores a complete upload that is already in a local file, as {@link #store(MultipartFile)}
+     * does. The file is left in place for the caller to delete.
+     *
+     * @param sha256 lowercase hex SHA-256 of the file's content
+     * @throws IllegalArgumentException if the file is not a supported image or too large
+     */
+    public ImageInfoDTO storeFile(Path file, String sha256, long size) throws IOException {
+        Probe probe = probe(file);
+        String filename = sha256 + "." + probe.extension;
+
+        // The record is refreshed or created before the store is looked at: the orphan sweeper
+        // deletes an original only after deleting its record, and holds the record until the
+        // object is gone, so these wait for a deletion in progress
+        if (uploadedImageRepository.markUploaded(filename, LocalDateTime.now()) > 0) {
+            // Recorded and no longer a sweep candidate; an upload of the same content stored
+            // identical bytes unless it is still on its way
+            if (imageStorage.stat(key(filename)).isEmpty()) {
+                put(file, filename, size);
+            }
+            return getInfo(filename);
+        }
+        UploadedImage image;
+        boolean created = true;
+        try {
+            image = uploadedImageRepository.save(new UploadedImage(
+                    filename, "image/" + probe.format, probe.width, probe.height, size));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent upload of the same content recorded it
+            image = uploadedImageRepository.findByFilename(filename).orElseThrow(() -> e);
+            created = false;
+        }
+        // Without a record the stored bytes may be gone or on their way out: store them again
+        put(file, filename, size);
+        if (created) {
+            scheduleDerivatives(filename);
+        }
+        return toInfo(image);
+    }
+
+    public ImageInfoDTO getInfo(String filename) {
+        return uploadedImageRepository.findByFilename(filename)
+                .map(this::toInfo)
+                .orElseThrow(() -> new ResourceNotFoundException("Image not found: " + filename));
+    }
+
+    /**
+     * Storage key of the original.
+     *
+     * @throws ResourceNotFoundException if there is no such image
+     */
+    public String originalKey(String filename) throws IOException {
+        String key = key(filename);
+        if (imageStorage.stat(key).isEmpty()) {
+            throw new ResourceNotFoundException("Image not found: " + filename);
+        }
+        return key;
+    }
+
+    /**
+     * Storage key of the derivative of {@code filename}, produced now if it does not exist yet.
+     * Empty when the pipeline is too busy to produce it in time, or the original is too large to
+     * decode; callers can fall back to the original.
+     *
+     * @throws ResourceNotFoundException if there is no such image
+     */
+    public Optional<String> variantKey(String filename, ImageVariant variant) throws IOException {
+        String target = derivativeKey(key(filename), variant);
+        if (imageStorage.stat(target).isPresent()) {
+            return Optional.of(target);
+        }
+        String original = originalKey(filename);
+
+        CompletableFuture<String> job = inFlight.get(target);
+        if (job == null) {
+            CompletableFuture<String> created = new CompletableFuture<>();
+            job = inFlight.putIfAbsent(target, created);
+            if (job == null) {
+                job = created;
+                try {
+                    executor.execute(() -> {
+                        try {
+                            BufferedImage image = decode(original);
+                            int[] size = variant.fit(image.getWidth(), image.getHeight());
+                            write(target, ImageDerivatives.scale(image, size), variant);
+                            created.complete(target);
+                        } catch (Throwable e) {
+                            created.completeExceptionally(e);
+                        } finally {
+                            inFlight.remove(target, created);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.remove(target, created);
+                    logger.debug("Image pipeline full, {} not produced", target);
+                    return Optional.empty();
+                }
+            }
+        }
+
+        try {
+            return Optional.of(job.get(onDemandTimeoutMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            logger.debug("Timed out waiting for {}", target);
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof IllegalArgumentException) {
+                // A legacy original over images.max-pixels: served as it is rather than decoded
+                logger.debug("Not scaling {}: {}", original, e.getCause().getMessage());
+                return Optional.empty();
+            }
+            throw new IllegalStateException("Failed to produce " + target, e.getCause());
+        }
+    }
+
+    // 🔧 Internal helpers
+
+    private void put(Path file, String filename, long size) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            imageStorage.put(filename, in, size);
+        }
+    }
+
+    private void scheduleDerivatives(String filename) {
+        try {
+            executor.execute(() -> {
+                try {
+                    BufferedImage current = decode(filename);
+                    int width = current.getWidth();
+                    int height = current.getHeight();
+                    for (ImageVariant variant : CASCADE) {
+                        // Sized from the original so rounding does not drift down the cascade
+                        current = ImageDerivatives.scale(current, variant.fit(width, height));
+                        String target = derivativeKey(filename, variant);
+                        if (imageStorage.stat(target).isEmpty()) {
+                            write(target, current, variant);
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Could not produce derivatives of {}: {}", filename, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Each variant is then produced on its first request
+            logger.info("Image pipeline full, derivatives of {} deferred", filename);
+        }
+    }
+
+    private Probe probe(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("File must be an image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                String format = reader.getFormatName().toLowerCase();
+                String extension = EXTENSIONS.get(format);
+                if (extension == null) {
+                    throw new IllegalArgumentException("Unsupported image format: " + format);
+                }
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                checkPixels(width, height);
+                return new Probe(format, extension, width, height);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("File is not a readable image");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Decodes a stored original after checking the dimensions in its header against
+     * {@code images.max-pixels}; originals stored before uploads were probed can be of any size.
+     *
+     * @throws IllegalArgumentException if the image is too large to decode
+     */
+    private BufferedImage decode(String key) throws IOException {
+        try (InputStream content = imageStorage.get(key);
+             ImageInputStream in = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unreadable image: " + key);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                checkPixels(reader.getWidth(0), reader.getHeight(0));
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void checkPixels(int width, int height) {
+        if ((long) width * height > maxPixels) {
+            throw new IllegalArgumentException("Image is too large (" + width + "x" + height + ")");
+        }
+    }
+
+    private void write(String key, BufferedImage image, ImageVariant variant) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageDerivatives.writeJpeg(image, variant.getQuality(), out);
+        imageStorage.put(key, new ByteArrayInputStream(out.toByteArray()), out.size());
+    }
+
+    private static String key(String filename) {
+        if (filename == null || !FILENAME.matcher(filename).matches()) {
+            throw new ResourceNotFoundException("Image not found: " + filename);
+        }
+        return filename;
+    }
+
+    private static String derivativeKey(String filename, ImageVariant variant) {
+        return variant.getName() + "/" + stem(filename) + ".jpg";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private ImageInfoDTO toInfo(UploadedImage image) {
+        String filename = image.getFilename();
+        ImageInfoDTO info = new ImageInfoDTO(URL_PREFIX + filename, image.getWidth(), image.getHeight());
+        for (ImageVariant variant : ImageVariant.values()) {
+            int[] size = variant.fit(image.getWidth(), image.getHeight());
+            info.getVariants().put(variant.getName(), new ImageInfoDTO.Variant(
+                    variantUrl(filename, variant), size[0], size[1]));
+        }
+        return info;
+    }
+
+    public static String variantUrl(String filename, ImageVariant variant) {
+        return URL_PREFIX + variant.getName() + "/" + filename;
+    }
+
+    private static String stem(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot > 0 ? filename.substring(0, dot) : filename;
+    }
+
+    private static final class Probe {
+        final String format;
+        final String extension;
+        final int width;
+        final int height;
+
+        Probe(String format, String extension, int width, int height) {
+            this.format = format;
+            this.extension = extension;
+            this.width = width;
+            this.height = height;
+        }
+    }
+}
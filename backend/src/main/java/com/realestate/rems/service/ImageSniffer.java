@@ -0,0 +1,47 @@
+package com.realestate.rems.service;
+
+/**
+ * Recognizes the image formats we accept from the first bytes of a file, whatever content type
+ * the client declared.
+ */
+final class ImageSniffer {
+
+    // Enough for the longest signature (PNG)
+    static final int HEAD_LENGTH = 8;
+
+    private ImageSniffer() {
+    }
+
+    /**
+     * Media type of the content starting with {@code head}, or null if it is not a JPEG, PNG,
+     * GIF or BMP image.
+     */
+    static String mediaType(byte[] head) {
+        if (startsWith(head, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(head, 'G', 'I', 'F', '8', '7', 'a')
+                || startsWith(head, 'G', 'I', 'F', '8', '9', 'a')) {
+            return "image/gif";
+        }
+        if (startsWith(head, 'B', 'M')) {
+            return "image/bmp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] head, int... signature) {
+        if (head.length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((head[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.exception.ResourceNotFoundException;
+
+/**
+ * Fixed-size JPEG derivatives of an uploaded image. Each variant fits the original inside its
+ * bounding box, keeping the aspect ratio and never enlarging it. The boxes are nested, so a
+ * smaller variant can be produced from a larger one.
+ */
+public enum ImageVariant {
+    THUMB("thumb", 480, 360, 0.75f),
+    DETAIL("detail", 1280, 960, 0.82f),
+    FULL("full", 2560, 2560, 0.85f);
+
+    private final String name;
+    private final int maxWidth;
+    private final int maxHeight;
+    private final float quality;
+
+    ImageVariant(String name, int maxWidth, int maxHeight, float quality) {
+        this.name = name;
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+        this.quality = quality;
+    }
+
+    /**
+     * Path segment of the variant in image URLs, e.g. {@code /uploads/images/thumb/...}.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public float getQuality() {
+        return quality;
+    }
+
+    /**
+     * Width and height of this variant for an original of the given size.
+     */
+    public int[] fit(int width, int height) {
+        double scale = Math.min(1.0, Math.min((double) maxWidth / width, (double) maxHeight / height));
+        return new int[] {
+                Math.max(1, (int) Math.round(width * scale)),
+                Math.max(1, (int) Math.round(height * scale))
+        };
+    }
+
+    public static ImageVariant fromName(String name) {
+        for (ImageVariant variant : values()) {
+            if (variant.name.equals(name)) {
+                return variant;
+            }
+        }
+        throw new ResourceNotFoundException("Unknown image variant: " + name);
+    }
+}
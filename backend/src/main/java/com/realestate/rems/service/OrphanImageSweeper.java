@@ -0,0 +1,409 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.repository.ImageReferenceRepository;
+import com.realestate.rems.repository.ImageStorage;
+import com.realestate.rems.repository.UploadedImageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Deletes stored images that no listing uses any more: uploads that were never saved on a
+ * property, and images of listings that were edited or deleted.
+ *
+ * A sweep marks, then sweeps. The mark phase streams every {@code property_images.image_url}
+ * into a compact in-memory set of image names, plus the names uploaded within the grace period
+ * (a new listing may still be on its way). The sweep phase walks the store a page at a time and
+ * collects objects older than the grace period whose name is not in the set; originals and
+ * their variants share the name, so both go together. Before each batch is deleted its names
+ * are checked against the database again, in case a listing started using one since the mark
+ * phase, in any URL form that maps to the same name.
+ *
+ * An original is only deleted after its upload record is deleted, on the condition that it was
+ * not uploaded again since the grace period started, and the record stays locked until the
+ * object is gone. An upload of the same content refreshes or recreates that record before it
+ * looks at the store (see {@link ImageService#storeFile}), so it either stops the deletion or
+ * waits for it and stores the bytes again. Store operations are throttled, and the sweep runs on
+ * its own low priority thread so the nightly trigger never holds up other scheduled jobs.
+ */
+@Service
+public class OrphanImageSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrphanImageSweeper.class);
+
+    // Content-addressed names are the hex SHA-256 of the file
+    private static final Pattern HASH_NAME = Pattern.compile("[0-9a-f]{64}");
+
+    // Every extension an original may have; variants are always .jpg
+    private static final List<String> EXTENSIONS = List.of("jpg", "jpeg", "png", "gif", "bmp");
+
+    private static final int DELETE_BATCH = 100;
+
+    @Autowired
+    private ImageStorage imageStorage;
+
+    @Autowired
+    private ImageReferenceRepository imageReferenceRepository;
+
+    @Autowired
+    private UploadedImageRepository uploadedImageRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${images.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${images.sweeper.grace-hours:24}")
+    private long graceHours;
+
+    @Value("${images.sweeper.max-operations-per-second:200}")
+    private int maxOperationsPerSecond;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ExecutorService executor;
+    private TransactionTemplate transactionTemplate;
+    private Counter deletedCounter;
+    private Counter reclaimedCounter;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "image-sweeper");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        deletedCounter = Counter.builder("rems.images.sweeper.deleted")
+                .description("Orphaned image files deleted")
+                .register(meterRegistry);
+        reclaimedCounter = Counter.builder("rems.images.sweeper.reclaimed")
+                .description("Storage reclaimed from orphaned image files")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts a sweep in the background unless one is already running.
+     */
+    @Scheduled(cron = "${images.sweeper.cron:0 30 3 * * *}")
+    public void trigger() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                sweep();
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Image sweep failed: {}", e.toString());
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    /**
+     * Runs one sweep on the calling thread.
+     */
+    public Report sweep() throws IOException {
+        return sweep(Instant.now().minus(Duration.ofHours(graceHours)));
+    }
+
+    /**
+     * Runs one sweep, keeping everything stored or uploaded at or after {@code cutoff}.
+     */
+    Report sweep(Instant cutoff) throws IOException {
+        long started = System.nanoTime();
+        Report report = new Report();
+        LocalDateTime uploadCutoff = LocalDateTime.ofInstant(cutoff, ZoneId.systemDefault());
+
+        ReferencedNames referenced = new ReferencedNames();
+        imageReferenceRepository.forEachImageUrl(url -> referenced.add(name(url)));
+        uploadedImageRepository.findFilenamesUploadedSince(uploadCutoff).forEach(file -> referenced.add(name(file)));
+        referenced.seal();
+        report.referenced = referenced.size();
+
+        Throttle throttle = new Throttle(maxOperationsPerSecond);
+        List<ImageStorage.ListedObject> candidates = new ArrayList<>();
+        try (Stream<ImageStorage.ListedObject> objects = imageStorage.list()) {
+            Iterator<ImageStorage.ListedObject> it = objects.iterator();
+            while (it.hasNext()) {
+                ImageStorage.ListedObject object = it.next();
+                report.scanned++;
+                throttle.pace();
+                if (!object.getLastModified().isBefore(cutoff)) {
+                    continue;
+                }
+                String name = name(object.getKey());
+                if (name == null || referenced.contains(name)) {
+                    continue;
+                }
+                candidates.add(object);
+                if (candidates.size() == DELETE_BATCH) {
+                    delete(candidates, uploadCutoff, throttle, report);
+                    candidates.clear();
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        delete(candidates, uploadCutoff, throttle, report);
+
+        report.durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        logger.info("Image sweep: scanned {} objects against {} referenced names, deleted {}, reclaimed {} bytes in {} ms",
+                report.scanned, report.referenced, report.deleted, report.bytesReclaimed, report.durationMs);
+        return report;
+    }
+
+    // 🔧 Internal helpers
+
+    private void delete(List<ImageStorage.ListedObject> candidates, LocalDateTime uploadCutoff,
+                        Throttle throttle, Report report) throws IOException {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Set<String> names = new HashSet<>();
+        for (ImageStorage.ListedObject candidate : candidates) {
+            names.add(name(candidate.getKey()));
+        }
+        Set<String> filenames = new HashSet<>();
+        for (String name : names) {
+            for (String extension : EXTENSIONS) {
+                filenames.add(name + "." + extension);
+            }
+        }
+        Set<String> inUse = new HashSet<>();
+        // Normalized like the mark phase, so absolute or query-suffixed URLs count as well
+        for (String url : imageReferenceRepository.findContaining(names)) {
+            String name = name(url);
+            if (names.contains(name)) {
+                inUse.add(name);
+            }
+        }
+        uploadedImageRepository.findFilenamesUploadedSince(uploadCutoff, filenames).forEach(file -> inUse.add(name(file)));
+
+        for (ImageStorage.ListedObject candidate : candidates) {
+            String key = candidate.getKey();
+            if (inUse.contains(name(key))) {
+                continue;
+            }
+            throttle.pace();
+            boolean deleted = key.indexOf('/') < 0
+                    ? deleteOriginal(key, candidate.getSize(), uploadCutoff)
+                    : imageStorage.delete(key);
+            if (!deleted) {
+                continue;
+            }
+            report.deleted++;
+            report.bytesReclaimed += candidate.getSize();
+            deletedCounter.increment();
+            reclaimedCounter.increment(candidate.getSize());
+        }
+    }
+
+    /**
+     * Deletes an original and its upload record, unless it was uploaded again since
+     * {@code uploadCutoff}. Originals stored before uploads were recorded get a record first, so
+     * their name is locked the same way.
+     */
+    private boolean deleteOriginal(String key, long size, LocalDateTime uploadCutoff) throws IOException {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (uploadedImageRepository.deleteUploadedBefore(key, uploadCutoff) == 0) {
+                    // Fails if the record exists, i.e. it was uploaded within the grace period
+                    uploadedImageRepository.insertUnrecorded(key, size, uploadCutoff.minusSeconds(1));
+                    uploadedImageRepository.deleteByFilename(key);
+                }
+                try {
+                    return imageStorage.delete(key);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * The image name in a URL or storage key: its last path segment without the extension, so
+     * that an original and its variants ({@code thumb/abcd….jpg}) map to the same name.
+     */
+    static String name(String urlOrKey) {
+        if (urlOrKey == null) {
+            return null;
+        }
+        String path = urlOrKey;
+        int end = path.length();
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            end = query;
+        }
+        int fragment = path.indexOf('#');
+        if (fragment >= 0 && fragment < end) {
+            end = fragment;
+        }
+        path = path.substring(0, end);
+        String segment = path.substring(path.lastIndexOf('/') + 1);
+        int dot = segment.lastIndexOf('.');
+        String name = dot > 0 ? segment.substring(0, dot) : segment;
+        return name.isEmpty() ? null : name;
+    }
+
+    /**
+     * Set of image names. Content hashes, nearly all of them, are kept as their first 64 bits in
+     * a sorted {@code long[]} (8 bytes per image instead of a ~150 byte string); a collision
+     * only ever keeps an orphan, never deletes a used image. Other names go in a plain set.
+     */
+    static final class ReferencedNames {
+
+        private long[] hashes = new long[1024];
+        private int hashCount;
+        private final Set<String> others = new HashSet<>();
+
+        void add(String name) {
+            if (name == null) {
+                return;
+            }
+            if (HASH_NAME.matcher(name).matches()) {
+                if (hashCount == hashes.length) {
+                    hashes = Arrays.copyOf(hashes, hashCount * 2);
+                }
+                hashes[hashCount++] = prefix(name);
+            } else {
+                others.add(name);
+            }
+        }
+
+        /**
+         * Sorts and deduplicates the hashes; call once after the last {@link #add}.
+         */
+        void seal() {
+            Arrays.sort(hashes, 0, hashCount);
+            int unique = 0;
+            for (int i = 0; i < hashCount; i++) {
+                if (unique == 0 || hashes[i] != hashes[unique - 1]) {
+                    hashes[unique++] = hashes[i];
+                }
+            }
+            hashCount = unique;
+        }
+
+        boolean contains(String name) {
+            if (HASH_NAME.matcher(name).matches()) {
+                return Arrays.binarySearch(hashes, 0, hashCount, prefix(name)) >= 0;
+            }
+            return others.contains(name);
+        }
+
+        int size() {
+            return hashCount + others.size();
+        }
+
+        private static long prefix(String hash) {
+            return Long.parseUnsignedLong(hash, 0, 16, 16);
+        }
+    }
+
+    /**
+     * Spaces operations at least {@code 1 / perSecond} apart.
+     */
+    private static final class Throttle {
+
+        private final long intervalNanos;
+        private long next = System.nanoTime();
+
+        Throttle(int perSecond) {
+            this.intervalNanos = perSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / perSecond : 0;
+        }
+
+        void pace() throws IOException {
+            if (intervalNanos == 0) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (next > now) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(next - now);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Image sweep interrupted", e);
+                }
+                now = next;
+            }
+            next = now + intervalNanos;
+        }
+    }
+
+    /**
+     * Outcome of one sweep.
+     */
+    public static final class Report {
+
+        private long scanned;
+        private int referenced;
+        private long deleted;
+        private long bytesReclaimed;
+        private long durationMs;
+
+        public long getScanned() {
+            return scanned;
+        }
+
+        public int getReferenced() {
+            return referenced;
+        }
+
+        public long getDeleted() {
+            return deleted;
+        }
+
+        public long getBytesReclaimed() {
+            return bytesReclaimed;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.realestate.rems.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination.
+ * Holds the sort it was issued for, the sort key of the last row returned and that row's id,
+ * so the next page starts with a range predicate instead of an OFFSET scan.
+ */
+public class PageCursor {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SEPARATOR = "|";
+
+    private final String sort;
+    private final String key;
+    private final Long id;
+
+    public PageCursor(String sort, String key, Long id) {
+        this.sort = sort;
+        this.key = key;
+        this.id = id;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = sort + SEPARATOR + (key != null ? key : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token previously returned as {@code nextCursor}; null or blank means "first page".
+     *
+     * @throws IllegalArgumentException if the token is malformed or was issued for another sort
+     */
+    public static PageCursor decode(String token, String expectedSort) {
+        PageCursor cursor = decode(token);
+        if (cursor != null && !cursor.getSort().equals(expectedSort)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return cursor;
+    }
+
+    /**
+     * Decode a token whatever sort it was issued for; null or blank means "first page".
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new PageCursor(parts[0], parts[1].isEmpty() ? null : parts[1], Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {
+            // Also covers bad Base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Clamp a requested page size to MAX_PAGE_SIZE; missing or non-positive sizes use the default.
+     */
+    public static int clampSize(Integer size) {
+        if (size == null || size < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,26 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.model.Property;
+
+import java.util.List;
+
+/**
+ * Published by {@link PropertyImportService} once per imported batch instead of one
+ * {@link PropertyChangedEvent} per row, so listeners can apply the whole batch in one step.
+ * Like single changes, it is handled after the transaction commits.
+ */
+public class PropertiesCreatedEvent {
+
+    private final List<Property> properties;
+
+    public PropertiesCreatedEvent(List<Property> properties) {
+        this.properties = List.copyOf(properties);
+    }
+
+    /**
+     * The saved listings, in insertion order.
+     */
+    public List<Property> getProperties() {
+        return properties;
+    }
+}
@@ -0,0 +1,51 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.model.Property;
+
+/**
+ * Published by {@link PropertyService} whenever a listing is created, updated or deleted.
+ * In-memory read structures (search index, caches) listen for it after the transaction commits.
+ */
+public class PropertyChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final Long propertyId;
+    private final Property property;
+
+    private PropertyChangedEvent(Type type, Long propertyId, Property property) {
+        this.type = type;
+        this.propertyId = propertyId;
+        this.property = property;
+    }
+
+    public static PropertyChangedEvent created(Property property) {
+        return new PropertyChangedEvent(Type.CREATED, property.getId(), property);
+    }
+
+    public static PropertyChangedEvent updated(Property property) {
+        return new PropertyChangedEvent(Type.UPDATED, property.getId(), property);
+    }
+
+    public static PropertyChangedEvent deleted(Long propertyId) {
+        return new PropertyChangedEvent(Type.DELETED, propertyId, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getPropertyId() {
+        return propertyId;
+    }
+
+    /**
+     * The saved state of the listing; null for deletions.
+     */
+    public Property getProperty() {
+        return property;
+    }
+}
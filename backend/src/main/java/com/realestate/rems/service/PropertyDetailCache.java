@@ -0,0 +1,121 @@
+package com.realestate.rems.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serialized JSON of single listings ({@code GET /api/properties/{id}}), kept in a
+ * least-recently-used map capped by the total size of the bodies rather than the number of
+ * entries, so a hit costs a map lookup and writing the bytes.
+ *
+ * Entries are dropped as soon as a listing is updated or deleted: the listener runs when the
+ * transaction commits, before the write request returns. A body read before that commit could
+ * still arrive after it, so every fill carries the generation read before it loaded the listing
+ * and is discarded if an invalidation happened in between.
+ */
+@Component
+public class PropertyDetailCache {
+
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final LinkedHashMap<Long, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public PropertyDetailCache(MeterRegistry meterRegistry,
+                               @Value("${properties.detail-cache.max-bytes:8388608}") long maxBytes,
+                               @Value("${properties.detail-cache.max-entry-bytes:262144}") int maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.hits = Counter.builder("rems.properties.detail-cache.requests").tag("result", "hit")
+                .description("Property details served from the serialized response cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("rems.properties.detail-cache.requests").tag("result", "miss")
+                .description("Property details loaded from the database")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("rems.properties.detail-cache.evictions")
+                .description("Cached property details dropped to stay within the byte cap")
+                .register(meterRegistry);
+        Gauge.builder("rems.properties.detail-cache.memory", this, PropertyDetailCache::bytes)
+                .description("Bytes of serialized property details held in the cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("rems.properties.detail-cache.entries", this, PropertyDetailCache::size)
+                .description("Property details held in the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached body of listing {@code id}, or null. The array is shared and must not be modified.
+     */
+    public synchronized byte[] get(Long id) {
+        byte[] json = entries.get(id);
+        if (json != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return json;
+    }
+
+    /**
+     * Current generation; read it before loading a listing and pass it to {@link #put}.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Caches {@code json} unless the cache was invalidated since {@code loadedAt} was read, or
+     * the body is larger than an entry may be.
+     */
+    public synchronized void put(Long id, byte[] json, long loadedAt) {
+        if (loadedAt != generation || json.length > maxEntryBytes || json.length > maxBytes) {
+            return;
+        }
+        byte[] previous = entries.put(id, json);
+        bytes += json.length - (previous != null ? previous.length : 0);
+        Iterator<Map.Entry<Long, byte[]>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Long, byte[]> entry = eldest.next();
+            bytes -= entry.getValue().length;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    public synchronized void invalidate(Long id) {
+        generation++;
+        byte[] previous = entries.remove(id);
+        if (previous != null) {
+            bytes -= previous.length;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (event.getType() != PropertyChangedEvent.Type.CREATED) {
+            invalidate(event.getPropertyId());
+        }
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
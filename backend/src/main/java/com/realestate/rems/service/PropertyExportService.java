@@ -0,0 +1,114 @@
+package com.realestate.rems.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.realestate.rems.dto.PropertyDataFormat;
+import com.realestate.rems.dto.PropertyExportRow;
+import com.realestate.rems.dto.PropertySearchCriteria;
+import com.realestate.rems.repository.PropertyRepository;
+import com.realestate.rems.repository.PropertySpecifications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Streams the listings matching a set of filters as NDJSON or CSV. Rows come from a
+ * forward-only cursor and are written to the response as they are read, so memory stays flat
+ * whatever the size of the catalog. A failed write (typically the client going away) aborts the
+ * export and closes the cursor.
+ *
+ * The read-only transaction, and with it a pooled connection, is held for the whole stream, so
+ * a slow client keeps a connection busy until the export finishes or its async timeout
+ * ({@code export.timeout-ms}) expires.
+ */
+@Service
+public class PropertyExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PropertyExportService.class);
+
+    // Rows written between explicit flushes; flushing every row would cost a socket write each
+    static final int FLUSH_EVERY = 200;
+
+    private final CsvMapper csvMapper = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    // Same columns and image separator as the import, so an export can be imported again
+    private final CsvSchema csvSchema = csvMapper.schemaFor(PropertyExportRow.class)
+            .withHeader()
+            .withArrayElementSeparator("|");
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${export.fetch-size:500}")
+    private int fetchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Writes every listing matching {@code criteria} to {@code out} in id order. The filters are
+     * those of {@link PropertyService#searchProperties}; {@code search} is a plain substring match
+     * here rather than a ranked one.
+     *
+     * @return the number of listings written
+     * @throws IOException if writing to {@code out} fails; nothing more is read from the database
+     */
+    public long export(PropertySearchCriteria criteria, PropertyDataFormat format, OutputStream out)
+            throws IOException {
+        ObjectWriter writer = format == PropertyDataFormat.CSV
+                ? csvMapper.writer(csvSchema)
+                : objectMapper.writerFor(PropertyExportRow.class).withRootValueSeparator("\n");
+        writer = writer
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        long[] written = { 0 };
+        try (SequenceWriter rows = writer.writeValues(out)) {
+            transactionTemplate.executeWithoutResult(status -> propertyRepository.scrollForExport(
+                    PropertySpecifications.matching(criteria), fetchSize, row -> {
+                        try {
+                            rows.write(row);
+                            if (++written[0] % FLUSH_EVERY == 0) {
+                                rows.flush();
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+        } catch (UncheckedIOException e) {
+            logger.debug("Export aborted after {} rows: {}", written[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        if (format == PropertyDataFormat.NDJSON && written[0] > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        return written[0];
+    }
+}
@@ -0,0 +1,612 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.dto.PropertyFilterView;
+import com.realestate.rems.dto.PropertySearchCriteria;
+import com.realestate.rems.dto.PropertySort;
+import com.realestate.rems.model.Property;
+import com.realestate.rems.repository.PropertyRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Columnar in-memory copy of the filterable columns of every property.
+ *
+ * Price (in cents) and creation time (epoch microseconds) are each kept as a primitive array
+ * sorted by (value, id), once for the whole catalog and again for every type and every agent.
+ * A filtered page walks the smallest of those column pairs its filters allow, in either sort
+ * order and straight from a keyset cursor, so a small agent costs as much as its own listings
+ * rather than the catalog. A price range is a binary-searched slice of the price column; in
+ * creation order a narrow range is read from that slice instead of walking. Only the ids of the
+ * page go to the database, in a single batch.
+ *
+ * Built in the background at startup and kept current from {@link PropertyChangedEvent}s and,
+ * for imports, {@link PropertiesCreatedEvent}s.
+ * Until the first build completes {@link #isReady()} is false and callers should use the database.
+ */
+@Component
+public class PropertyFilterIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PropertyFilterIndex.class);
+
+    private static final int REBUILD_BATCH_SIZE = 5000;
+    // Row plus its map entry and boxed key
+    private static final int ROW_BYTES = 96;
+
+    private static final Comparator<Row> NEWEST_FIRST =
+            Comparator.comparingLong((Row row) -> row.micros).thenComparingInt(row -> row.id).reversed();
+
+    private final PropertyRepository propertyRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // All fields below are guarded by lock
+    private Columns all = new Columns();
+    private final Map<String, Columns> byType = new HashMap<>();
+    private final Map<Long, Columns> byAgent = new HashMap<>();
+    private final Map<Integer, Row> rows = new HashMap<>();
+    private boolean rebuilding;
+    private final Set<Long> touchedDuringRebuild = new HashSet<>();
+
+    private volatile boolean ready;
+
+    public PropertyFilterIndex(PropertyRepository propertyRepository, MeterRegistry meterRegistry) {
+        this.propertyRepository = propertyRepository;
+        Gauge.builder("rems.filter.index.memory", this, PropertyFilterIndex::memoryFootprintBytes)
+                .description("Approximate heap used by the in-memory property filter index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("rems.filter.index.rows", this, PropertyFilterIndex::size)
+                .description("Properties held by the in-memory filter index")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap held by the columns and rows, in bytes.
+     */
+    public long memoryFootprintBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = all.bytes() + (long) rows.size() * ROW_BYTES;
+            for (Columns columns : byType.values()) {
+                bytes += columns.bytes();
+            }
+            for (Columns columns : byAgent.values()) {
+                bytes += columns.bytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread builder = new Thread(this::rebuild, "property-filter-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Rebuild the index from the database. Queries report not-ready until it completes.
+     * Changes that arrive while the rebuild runs win over the rows it reads.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            rebuilding = true;
+            touchedDuringRebuild.clear();
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            long afterId = 0L;
+            List<PropertyFilterView> batch;
+            do {
+                batch = propertyRepository.findFilterBatch(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                lock.writeLock().lock();
+                try {
+                    List<Row> rows = new ArrayList<>(batch.size());
+                    for (PropertyFilterView row : batch) {
+                        if (!touchedDuringRebuild.contains(row.getId())) {
+                            rows.add(new Row(row.getId(), row.getPrice(), row.getType(), row.getAgentId(),
+                                    row.getCreatedAt()));
+                        }
+                    }
+                    putAll(rows);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            ready = true;
+            logger.info("Property filter index built: {} rows, ~{} KB in {} ms",
+                    size(), memoryFootprintBytes() / 1024, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Property filter index build failed, filters will use the database: {}", e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                touchedDuringRebuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.getType() == PropertyChangedEvent.Type.DELETED) {
+                remove(event.getPropertyId());
+            } else {
+                putAll(List.of(Row.of(event.getProperty())));
+            }
+            if (rebuilding) {
+                touchedDuringRebuild.add(event.getPropertyId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Imports arrive as one event per batch; the batch is merged into the sorted columns in a
+     * single pass rather than shifting them once per row.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertiesCreated(PropertiesCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            List<Row> rows = new ArrayList<>(event.getProperties().size());
+            for (Property property : event.getProperties()) {
+                rows.add(Row.of(property));
+                if (rebuilding) {
+                    touchedDuringRebuild.add(property.getId());
+                }
+            }
+            putAll(rows);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of up to {@code limit} properties matching the price/type/agent filters of
+     * {@code criteria}, in {@code sort} order, starting strictly after {@code after}.
+     * The free-text part of the criteria is ignored; RELEVANCE is not supported here.
+     */
+    public List<Long> findPage(PropertySearchCriteria criteria, PropertySort sort, PageCursor after, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>(limit);
+            Filter filter = Filter.of(criteria);
+            Columns scope = scope(filter);
+            if (scope == null || filter.minCents > filter.maxCents) {
+                return ids;
+            }
+            Column byPrice = scope.byPrice;
+            int lo = byPrice.lowerBound(filter.minCents, Integer.MIN_VALUE);
+            int hi = byPrice.upperBound(filter.maxCents, Integer.MAX_VALUE);
+            if (lo >= hi) {
+                return ids;
+            }
+
+            switch (sort) {
+                case PRICE_ASC -> {
+                    int from = after == null ? lo
+                            : Math.max(lo, byPrice.upperBound(toCents(after), toInt(after.getId())));
+                    for (int i = from; i < hi && ids.size() < limit; i++) {
+                        collect(byPrice.rows[i], filter, ids);
+                    }
+                }
+                case PRICE_DESC -> {
+                    int from = after == null ? hi - 1
+                            : Math.min(hi - 1, byPrice.lowerBound(toCents(after), toInt(after.getId())) - 1);
+                    for (int i = from; i >= lo && ids.size() < limit; i--) {
+                        collect(byPrice.rows[i], filter, ids);
+                    }
+                }
+                case NEWEST -> {
+                    Column byCreated = scope.byCreated;
+                    int from = after == null ? byCreated.size - 1
+                            : byCreated.lowerBound(toMicros(after), toInt(after.getId())) - 1;
+                    // Walking past m of n rows finds about limit * n / m matches; sorting the slice costs m
+                    long slice = hi - lo;
+                    if (slice < byCreated.size && slice * slice <= (long) limit * byCreated.size) {
+                        newestInSlice(byPrice, lo, hi, filter, from < 0 ? null : byCreated.rows[from], limit, ids);
+                    } else {
+                        for (int i = from; i >= 0 && ids.size() < limit; i--) {
+                            collect(byCreated.rows[i], filter, ids);
+                        }
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unsupported sort for filter index: " + sort);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A predicate over property ids for the price/type/agent filters of {@code criteria},
+     * or null when the criteria carry no such filter. Each test looks the id up in the index as
+     * it is at that moment, so the predicate stays valid after later writes.
+     */
+    public LongPredicate matcher(PropertySearchCriteria criteria) {
+        Filter filter = Filter.of(criteria);
+        if (filter.isEmpty()) {
+            return null;
+        }
+        return id -> {
+            lock.readLock().lock();
+            try {
+                Row row = id <= Integer.MAX_VALUE ? rows.get((int) id) : null;
+                return row != null && filter.test(row);
+            } finally {
+                lock.readLock().unlock();
+            }
+        };
+    }
+
+    // 🔧 Internal helpers
+
+    /**
+     * The smallest column pair holding every match of {@code filter}, or null when a requested
+     * type or agent has no listings. Caller holds the read lock.
+     */
+    private Columns scope(Filter filter) {
+        Columns scope = all;
+        if (filter.type != null) {
+            scope = byType.get(filter.type);
+            if (scope == null) {
+                return null;
+            }
+        }
+        if (filter.agentId != null) {
+            Columns agent = byAgent.get(filter.agentId);
+            if (agent == null) {
+                return null;
+            }
+            if (agent.byPrice.size < scope.byPrice.size) {
+                scope = agent;
+            }
+        }
+        return scope;
+    }
+
+    /**
+     * NEWEST page from the price slice [lo, hi) of a column, starting at {@code first} in
+     * creation order; empty when there is no such row.
+     */
+    private static void newestInSlice(Column byPrice, int lo, int hi, Filter filter, Row first, int limit,
+                                      List<Long> ids) {
+        if (first == null) {
+            return;
+        }
+        List<Row> matches = new ArrayList<>();
+        for (int i = lo; i < hi; i++) {
+            Row row = byPrice.rows[i];
+            if (filter.test(row) && NEWEST_FIRST.compare(row, first) >= 0) {
+                matches.add(row);
+            }
+        }
+        matches.sort(NEWEST_FIRST);
+        for (int i = 0; i < matches.size() && ids.size() < limit; i++) {
+            ids.add((long) matches.get(i).id);
+        }
+    }
+
+    private static void collect(Row row, Filter filter, List<Long> ids) {
+        if (filter.test(row)) {
+            ids.add((long) row.id);
+        }
+    }
+
+    /**
+     * Adds {@code rows}, replacing earlier entries of the same ids. The rows are sorted once per
+     * column and merged in from the back, so a batch of k costs O(n + k log k), not O(n * k).
+     * Caller holds the write lock.
+     */
+    private void putAll(List<Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        // The last row of an id wins, and every id leaves the columns before any is merged back
+        Map<Integer, Row> batch = new LinkedHashMap<>();
+        for (Row row : rows) {
+            batch.put(row.id, row);
+        }
+        for (Row row : batch.values()) {
+            remove((long) row.id);
+        }
+        Map<String, List<Row>> rowsByType = new HashMap<>();
+        Map<Long, List<Row>> rowsByAgent = new HashMap<>();
+        for (Row row : batch.values()) {
+            this.rows.put(row.id, row);
+            rowsByType.computeIfAbsent(row.type, t -> new ArrayList<>()).add(row);
+            rowsByAgent.computeIfAbsent(row.agentId, a -> new ArrayList<>()).add(row);
+        }
+        all.addAll(new ArrayList<>(batch.values()));
+        rowsByType.forEach((type, typeRows) ->
+                byType.computeIfAbsent(type, t -> new Columns()).addAll(typeRows));
+        rowsByAgent.forEach((agentId, agentRows) ->
+                byAgent.computeIfAbsent(agentId, a -> new Columns()).addAll(agentRows));
+    }
+
+    /**
+     * Removes a property using its stored row, from the catalog columns and from those of its
+     * own type and agent. Caller holds the write lock.
+     */
+    private void remove(Long propertyId) {
+        Row row = rows.remove(toInt(propertyId));
+        if (row == null) {
+            return;
+        }
+        all.remove(row);
+        removeFrom(byType, row.type, row);
+        removeFrom(byAgent, row.agentId, row);
+    }
+
+    private static <K> void removeFrom(Map<K, Columns> columns, K key, Row row) {
+        Columns scope = columns.get(key);
+        scope.remove(row);
+        if (scope.byPrice.size == 0) {
+            columns.remove(key);
+        }
+    }
+
+    /**
+     * Empties the index. Caller holds the write lock.
+     */
+    private void clear() {
+        all = new Columns();
+        byType.clear();
+        byAgent.clear();
+        rows.clear();
+    }
+
+    private static long toCents(PageCursor cursor) {
+        try {
+            return new BigDecimal(cursor.getKey()).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static long toMicros(PageCursor cursor) {
+        try {
+            return toMicros(LocalDateTime.parse(cursor.getKey()));
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static long toMicros(LocalDateTime createdAt) {
+        return createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + createdAt.getNano() / 1_000;
+    }
+
+    private static int toInt(Long id) {
+        // Property ids are identity values; the columns are keyed by int
+        return Math.toIntExact(id);
+    }
+
+    /**
+     * The price/type/agent filters of a search, with the price bounds in cents.
+     */
+    private static final class Filter {
+        private final String type;
+        private final Long agentId;
+        private final long minCents;
+        private final long maxCents;
+
+        private Filter(String type, Long agentId, long minCents, long maxCents) {
+            this.type = type;
+            this.agentId = agentId;
+            this.minCents = minCents;
+            this.maxCents = maxCents;
+        }
+
+        static Filter of(PropertySearchCriteria criteria) {
+            long minCents = criteria.getMinPrice() == null ? Long.MIN_VALUE
+                    : criteria.getMinPrice().setScale(2, RoundingMode.CEILING).unscaledValue().longValue();
+            long maxCents = criteria.getMaxPrice() == null ? Long.MAX_VALUE
+                    : criteria.getMaxPrice().setScale(2, RoundingMode.FLOOR).unscaledValue().longValue();
+            return new Filter(criteria.getType(), criteria.getAgentId(), minCents, maxCents);
+        }
+
+        boolean isEmpty() {
+            return type == null && agentId == null && minCents == Long.MIN_VALUE && maxCents == Long.MAX_VALUE;
+        }
+
+        boolean test(Row row) {
+            return row.cents >= minCents && row.cents <= maxCents
+                    && (type == null || type.equals(row.type))
+                    && (agentId == null || agentId.equals(row.agentId));
+        }
+    }
+
+    /**
+     * The price and creation columns of one set of properties: the catalog, a type or an agent.
+     */
+    private static final class Columns {
+        private final Column byPrice = new Column(row -> row.cents);
+        private final Column byCreated = new Column(row -> row.micros);
+
+        void addAll(List<Row> rows) {
+            byPrice.merge(rows);
+            byCreated.merge(rows);
+        }
+
+        void remove(Row row) {
+            byPrice.delete(row);
+            byCreated.delete(row);
+        }
+
+        long bytes() {
+            return byPrice.bytes() + byCreated.bytes();
+        }
+    }
+
+    /**
+     * Rows sorted ascending by (key, id), with the keys copied into a primitive array so binary
+     * searches do not chase references.
+     */
+    private static final class Column {
+        private static final int INITIAL_CAPACITY = 8;
+
+        private final ToLongFunction<Row> key;
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private Row[] rows = new Row[INITIAL_CAPACITY];
+        private int size;
+
+        Column(ToLongFunction<Row> key) {
+            this.key = key;
+        }
+
+        /**
+         * First position whose (key, id) is greater than or equal to the given pair.
+         */
+        int lowerBound(long key, int id) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] < key || (keys[mid] == key && rows[mid].id < id)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * First position whose (key, id) is strictly greater than the given pair.
+         */
+        int upperBound(long key, int id) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] < key || (keys[mid] == key && rows[mid].id <= id)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * Merges {@code batch}, none of which is present yet, in from the back.
+         */
+        void merge(List<Row> batch) {
+            Row[] sorted = batch.toArray(new Row[0]);
+            Arrays.sort(sorted, Comparator.comparingLong(key).thenComparingInt(row -> row.id));
+            int needed = size + sorted.length;
+            if (needed > keys.length) {
+                int capacity = Math.max(needed, keys.length * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                rows = Arrays.copyOf(rows, capacity);
+            }
+            int i = size - 1;
+            int j = sorted.length - 1;
+            for (int w = needed - 1; j >= 0; w--) {
+                long next = key.applyAsLong(sorted[j]);
+                if (i >= 0 && (keys[i] > next || (keys[i] == next && rows[i].id > sorted[j].id))) {
+                    keys[w] = keys[i];
+                    rows[w] = rows[i];
+                    i--;
+                } else {
+                    keys[w] = next;
+                    rows[w] = sorted[j];
+                    j--;
+                }
+            }
+            size = needed;
+        }
+
+        void delete(Row row) {
+            int i = lowerBound(key.applyAsLong(row), row.id);
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(rows, i + 1, rows, i, size - i - 1);
+            rows[--size] = null;
+        }
+
+        long bytes() {
+            // Compressed references
+            return (long) keys.length * Long.BYTES + (long) rows.length * Integer.BYTES;
+        }
+    }
+
+    /**
+     * The indexed columns of one property.
+     */
+    private static final class Row {
+        private final int id;
+        private final long cents;
+        private final long micros;
+        private final String type;
+        private final Long agentId;
+
+        Row(Long id, BigDecimal price, String type, Long agentId, LocalDateTime createdAt) {
+            this.id = toInt(id);
+            this.cents = price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+            this.micros = toMicros(createdAt);
+            this.type = type;
+            this.agentId = agentId;
+        }
+
+        static Row of(Property property) {
+            return new Row(property.getId(), property.getPrice(), property.getType(),
+                    property.getAgent().getId(), property.getCreatedAt());
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.realestate.rems.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.realestate.rems.dto.PropertyDataFormat;
+import com.realestate.rems.dto.PropertyImportReportDTO;
+import com.realestate.rems.dto.PropertyImportRow;
+import com.realestate.rems.model.Property;
+import com.realestate.rems.model.User;
+import com.realestate.rems.repository.PropertyRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a CSV or NDJSON body of listings into the database. Rows are validated with the
+ * {@link Property} constraints as they are read and written in JDBC batches of
+ * {@value #BATCH_SIZE}, each in its own transaction, so memory stays bounded by one batch
+ * whatever the size of the upload. Rejected rows are reported with their row number.
+ */
+@Service
+public class PropertyImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PropertyImportService.class);
+
+    static final int BATCH_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public PropertyImportReportDTO importProperties(InputStream body, PropertyDataFormat format, Long agentId)
+            throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Batch batch = new Batch(agentId);
+        if (format == PropertyDataFormat.CSV) {
+            readCsv(reader, batch);
+        } else {
+            readNdjson(reader, batch);
+        }
+        batch.flush();
+        return batch.report;
+    }
+
+    /**
+     * CSV with a header row naming the columns (title, description, price, location, type, images);
+     * several images go in one column separated by {@code |}.
+     */
+    private void readCsv(Reader reader, Batch batch) throws IOException {
+        CsvSchema schema = CsvSchema.emptySchema().withHeader().withArrayElementSeparator("|");
+        ObjectReader rowReader = csvMapper.readerFor(PropertyImportRow.class)
+                .with(schema)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        try (MappingIterator<PropertyImportRow> rows = rowReader.readValues(reader)) {
+            long rowNumber = 0;
+            while (true) {
+                PropertyImportRow row;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    rowNumber++;
+                    row = rows.nextValue();
+                } catch (RuntimeJsonMappingException | JsonProcessingException e) {
+                    // The iterator skips the rest of the bad record on the next call
+                    batch.unreadable(rowNumber, e);
+                    continue;
+                }
+                batch.add(rowNumber, row);
+            }
+        }
+    }
+
+    /**
+     * One JSON object per line; blank lines are skipped but still counted.
+     */
+    private void readNdjson(Reader reader, Batch batch) throws IOException {
+        ObjectReader rowReader = objectMapper.readerFor(PropertyImportRow.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        BufferedReader lines = (BufferedReader) reader;
+        long lineNumber = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            PropertyImportRow row;
+            try {
+                row = rowReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                batch.unreadable(lineNumber, e);
+                continue;
+            }
+            batch.add(lineNumber, row);
+        }
+    }
+
+    /**
+     * Rows waiting to be written, plus the running report.
+     */
+    private class Batch {
+
+        private final User agent;
+        private final List<Property> properties = new ArrayList<>(BATCH_SIZE);
+        private final List<Long> rowNumbers = new ArrayList<>(BATCH_SIZE);
+        private final PropertyImportReportDTO report = new PropertyImportReportDTO();
+
+        Batch(Long agentId) {
+            // Only the id is needed for the agent_id column; the role was checked against the token
+            this.agent = new User();
+            this.agent.setId(agentId);
+        }
+
+        void add(long rowNumber, PropertyImportRow row) {
+            report.setRowsRead(report.getRowsRead() + 1);
+            if (row == null) {
+                reject(rowNumber, "Empty row");
+                return;
+            }
+
+            Property property = Property.builder()
+                    .title(row.getTitle())
+                    .description(row.getDescription())
+                    .price(row.getPrice())
+                    .location(row.getLocation())
+                    .type(row.getType())
+                    .images(row.getImages() == null ? new ArrayList<>() : row.getImages().stream()
+                            .filter(url -> url != null && !url.isBlank())
+                            .map(String::trim)
+                            .collect(Collectors.toCollection(ArrayList::new)))
+                    .agent(agent)
+                    .build();
+
+            Set<ConstraintViolation<Property>> violations = validator.validate(property);
+            if (!violations.isEmpty()) {
+                reject(rowNumber, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+
+            properties.add(property);
+            rowNumbers.add(rowNumber);
+            if (properties.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void unreadable(long rowNumber, Exception e) {
+            report.setRowsRead(report.getRowsRead() + 1);
+            Throwable cause = e instanceof RuntimeJsonMappingException && e.getCause() != null ? e.getCause() : e;
+            reject(rowNumber, "Unreadable row: " + (cause instanceof JsonProcessingException parseError
+                    ? parseError.getOriginalMessage()
+                    : cause.getMessage()));
+        }
+
+        void reject(long rowNumber, String message) {
+            report.setFailed(report.getFailed() + 1);
+            if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+                report.getErrors().add(new PropertyImportReportDTO.RowError(rowNumber, message));
+            } else {
+                report.setErrorsTruncated(true);
+            }
+        }
+
+        void flush() {
+            if (properties.isEmpty()) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            properties.forEach(property -> property.setCreatedAt(now));
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    propertyRepository.insertAll(properties);
+                    // Listeners (search and filter indexes) apply the whole batch at once after it commits
+                    eventPublisher.publishEvent(new PropertiesCreatedEvent(properties));
+                });
+                report.setImported(report.getImported() + properties.size());
+            } catch (DataAccessException e) {
+                logger.warn("Import batch of {} rows failed: {}", properties.size(), e.getMessage());
+                for (Long rowNumber : rowNumbers) {
+                    reject(rowNumber, "Not saved: the batch containing this row was rejected by the database");
+                }
+            }
+            properties.clear();
+            rowNumbers.clear();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.dto.PropertySearchCriteria;
+import com.realestate.rems.dto.PropertySort;
+import com.realestate.rems.model.Property;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pages of listing searches, stored as the ids of the page and its next cursor rather than as
+ * entities, keyed on the normalized query. Callers hydrate a page with one batch fetch.
+ *
+ * Any change to the catalog (create, update, delete, import) bumps a single version counter
+ * after its transaction commits; entries from an older version are treated as misses, so
+ * invalidation costs one increment whatever the number of cached queries.
+ */
+@Component
+public class PropertySearchCache {
+
+    private final int maxEntries;
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final Map<Key, Entry> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public PropertySearchCache(MeterRegistry meterRegistry,
+                               @Value("${properties.search-cache.max-entries:5000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > PropertySearchCache.this.maxEntries;
+            }
+        };
+        this.hits = Counter.builder("rems.properties.search-cache.requests").tag("result", "hit")
+                .description("Listing pages answered from the search result cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("rems.properties.search-cache.requests").tag("result", "miss")
+                .description("Listing pages queried from the indexes or the database")
+                .register(meterRegistry);
+        Gauge.builder("rems.properties.search-cache.entries", this, PropertySearchCache::size)
+                .description("Listing pages held in the search result cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Current catalog version; read it before loading a page and pass it to {@link #get} and
+     * {@link #put}.
+     */
+    long version() {
+        return catalogVersion.get();
+    }
+
+    /**
+     * The cached page for {@code key} if it was stored at {@code version}, or null.
+     */
+    Page get(Key key, long version) {
+        Entry entry = lookup(key);
+        if (entry != null && entry.version == version) {
+            hits.increment();
+            return entry.page;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores the ids and cursor of {@code page}, loaded at {@code version}; the entities are not kept.
+     */
+    void put(Key key, long version, Page page) {
+        store(key, new Entry(new Page(page.ids, page.nextCursor, null), version));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        catalogVersion.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertiesCreated(PropertiesCreatedEvent event) {
+        catalogVersion.incrementAndGet();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // 🔧 Internal helpers
+
+    private synchronized Entry lookup(Key key) {
+        return entries.get(key);
+    }
+
+    private synchronized void store(Key key, Entry entry) {
+        entries.put(key, entry);
+    }
+
+    /**
+     * One page of a listing query: the ids in display order and the cursor of the next page.
+     */
+    static final class Page {
+
+        private final long[] ids;
+        private final String nextCursor;
+        // Only on the page returned to the caller that loaded it
+        private final List<Property> items;
+
+        Page(long[] ids, String nextCursor, List<Property> items) {
+            this.ids = ids;
+            this.nextCursor = nextCursor;
+            this.items = items;
+        }
+
+        static Page of(List<Property> items, String nextCursor) {
+            return new Page(items.stream().mapToLong(Property::getId).toArray(), nextCursor, items);
+        }
+
+        List<Long> getIds() {
+            return Arrays.stream(ids).boxed().toList();
+        }
+
+        String getNextCursor() {
+            return nextCursor;
+        }
+
+        /**
+         * The loaded properties, or null when the page must be hydrated from {@link #getIds()}.
+         */
+        List<Property> getItems() {
+            return items;
+        }
+    }
+
+    /**
+     * Normalized listing query: search text trimmed and lower-cased (matching is
+     * case-insensitive), prices without trailing zeros, the effective sort and the page size.
+     */
+    public static final class Key {
+
+        private final String search;
+        private final String minPrice;
+        private final String maxPrice;
+        private final String type;
+        private final Long agentId;
+        private final PropertySort sort;
+        private final String cursor;
+        private final int size;
+
+        private Key(String search, String minPrice, String maxPrice, String type, Long agentId,
+                    PropertySort sort, String cursor, int size) {
+            this.search = search;
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+            this.type = type;
+            this.agentId = agentId;
+            this.sort = sort;
+            this.cursor = cursor;
+            this.size = size;
+        }
+
+        public static Key of(PropertySearchCriteria criteria, PropertySort sort, String cursor, int size) {
+            String search = criteria.getSearch();
+            if (search != null) {
+                search = search.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+            }
+            return new Key(search == null || search.isEmpty() ? null : search,
+                    canonical(criteria.getMinPrice()), canonical(criteria.getMaxPrice()),
+                    criteria.getType(), criteria.getAgentId(), sort,
+                    cursor == null || cursor.isBlank() ? null : cursor, size);
+        }
+
+        private static String canonical(BigDecimal price) {
+            return price == null ? null : price.stripTrailingZeros().toPlainString();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return size == other.size && sort == other.sort
+                    && Objects.equals(search, other.search)
+                    && Objects.equals(minPrice, other.minPrice)
+                    && Objects.equals(maxPrice, other.maxPrice)
+                    && Objects.equals(type, other.type)
+                    && Objects.equals(agentId, other.agentId)
+                    && Objects.equals(cursor, other.cursor);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(search, minPrice, maxPrice, type, agentId, sort, cursor, size);
+        }
+
+        @Override
+        public String toString() {
+            return "properties[search=" + search + ", price=" + minPrice + ".." + maxPrice + ", type=" + type
+                    + ", agent=" + agentId + ", sort=" + sort + ", cursor=" + cursor + ", size=" + size + "]";
+        }
+    }
+
+    private static final class Entry {
+
+        final Page page;
+        final long version;
+
+        Entry(Page page, long version) {
+            this.page = page;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.dto.PropertyTextView;
+import com.realestate.rems.model.Property;
+import com.realestate.rems.repository.PropertyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the title, description and location of every property.
+ *
+ * Terms are lower-cased alphanumeric tokens kept in a sorted dictionary, so a prefix lookup is a
+ * contiguous range. Each term maps to a postings list of (document ordinal, term frequency) in
+ * ordinal order. Queries are AND across terms, every term of two or more characters also matches
+ * as a prefix, and hits are ranked with BM25. Updated documents get a fresh ordinal and the old
+ * one is tombstoned; tombstones are compacted away once they make up a quarter of the index. Each
+ * postings list keeps its live document frequency, so scoring never counts tombstones.
+ *
+ * The index is built in the background at startup and kept current from
+ * {@link PropertyChangedEvent}s and {@link PropertiesCreatedEvent}s. Until the first build
+ * completes {@link #isReady()} is false and callers should use the database instead.
+ */
+@Component
+public class PropertySearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PropertySearchIndex.class);
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int TITLE_BOOST = 2;
+    private static final double PREFIX_WEIGHT = 0.8;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_TOMBSTONES_FOR_COMPACTION = 1024;
+
+    private final PropertyRepository propertyRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // All fields below are guarded by lock
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private long[] idByOrdinal = new long[1024];
+    private int[] lengthByOrdinal = new int[1024];
+    private Postings[][] postingsByOrdinal = new Postings[1024][];
+    private BitSet live = new BitSet();
+    private int nextOrdinal;
+    private int liveDocs;
+    private long liveLength;
+    private boolean rebuilding;
+    private final Set<Long> touchedDuringRebuild = new HashSet<>();
+
+    private volatile boolean ready;
+
+    public PropertySearchIndex(PropertyRepository propertyRepository) {
+        this.propertyRepository = propertyRepository;
+    }
+
+    /**
+     * A ranked search result.
+     */
+    public static final class SearchHit {
+
+        /** Best hit first: higher score, then higher (newer) id. */
+        public static final Comparator<SearchHit> RANKING = Comparator
+                .comparingDouble(SearchHit::getScore).reversed()
+                .thenComparing(Comparator.comparingLong(SearchHit::getId).reversed());
+
+        private final long id;
+        private final double score;
+
+        public SearchHit(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread builder = new Thread(this::rebuild, "property-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Rebuild the index from the database. Searches report not-ready until it completes.
+     * Changes that arrive while the rebuild runs win over the rows it reads.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            rebuilding = true;
+            touchedDuringRebuild.clear();
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            long afterId = 0L;
+            List<PropertyTextView> batch;
+            do {
+                batch = propertyRepository.findTextBatch(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                lock.writeLock().lock();
+                try {
+                    for (PropertyTextView row : batch) {
+                        if (!touchedDuringRebuild.contains(row.getId())) {
+                            put(row.getId(), row.getTitle(), row.getDescription(), row.getLocation());
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            ready = true;
+            logger.info("Property search index built: {} documents, {} terms in {} ms",
+                    size(), termCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Property search index build failed, searches will use the database: {}", e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                touchedDuringRebuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.getType() == PropertyChangedEvent.Type.DELETED) {
+                remove(event.getPropertyId());
+            } else {
+                Property property = event.getProperty();
+                put(property.getId(), property.getTitle(), property.getDescription(), property.getLocation());
+            }
+            if (rebuilding) {
+                touchedDuringRebuild.add(event.getPropertyId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertiesCreated(PropertiesCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Property property : event.getProperties()) {
+                put(property.getId(), property.getTitle(), property.getDescription(), property.getLocation());
+                if (rebuilding) {
+                    touchedDuringRebuild.add(property.getId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Return up to {@code limit} hits for {@code query}, best first, that rank strictly after
+     * {@code after} (null for the first page) and whose id passes {@code filter} (null for all).
+     */
+    public List<SearchHit> search(String query, SearchHit after, int limit, LongPredicate filter) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return Collections.emptyList();
+            }
+
+            // Evaluate the most selective term first so later terms only score surviving candidates
+            List<List<Map.Entry<String, Postings>>> expansions = new ArrayList<>();
+            for (String token : tokens) {
+                List<Map.Entry<String, Postings>> expansion = expand(token);
+                if (expansion.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                expansions.add(expansion);
+            }
+            Integer[] order = new Integer[tokens.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingLong(i -> postingsSize(expansions.get(i))));
+
+            double avgLength = (double) liveLength / liveDocs;
+            Map<Integer, Double> scores = null;
+            for (int i : order) {
+                Map<Integer, Double> termScores = scoreTerm(tokens.get(i), expansions.get(i), scores, avgLength);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Integer, Double> combined = new HashMap<>(termScores.size() * 2);
+                    for (Map.Entry<Integer, Double> e : termScores.entrySet()) {
+                        combined.put(e.getKey(), scores.get(e.getKey()) + e.getValue());
+                    }
+                    scores = combined;
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            // Bounded heap whose head is the worst of the current top hits
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(limit + 1, SearchHit.RANKING.reversed());
+            for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+                SearchHit hit = new SearchHit(idByOrdinal[e.getKey()], e.getValue());
+                if (after != null && SearchHit.RANKING.compare(hit, after) <= 0) {
+                    continue;
+                }
+                if (filter != null && !filter.test(hit.getId())) {
+                    continue;
+                }
+                top.add(hit);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<SearchHit> hits = new ArrayList<>(top);
+            hits.sort(SearchHit.RANKING);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-case alphanumeric tokens of {@code text}, in order, duplicates included.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // 🔧 Internal helpers
+
+    /**
+     * BM25 scores of the documents {@code expansion} matches, limited to {@code candidates}
+     * when given. Caller holds the read lock.
+     */
+    private Map<Integer, Double> scoreTerm(String token, List<Map.Entry<String, Postings>> expansion,
+                                           Map<Integer, Double> candidates, double avgLength) {
+        Map<Integer, Double> termScores = new HashMap<>();
+        for (Map.Entry<String, Postings> entry : expansion) {
+            Postings postings = entry.getValue();
+            int df = postings.liveDocs;
+            if (df == 0) {
+                continue;
+            }
+            double idf = Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+            double weight = entry.getKey().equals(token) ? 1.0 : PREFIX_WEIGHT;
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (!live.get(doc) || (candidates != null && !candidates.containsKey(doc))) {
+                    continue;
+                }
+                double tf = postings.freqs[i];
+                double norm = K1 * (1 - B + B * lengthByOrdinal[doc] / avgLength);
+                double score = weight * idf * tf * (K1 + 1) / (tf + norm);
+                // A prefix can match several terms in one document; keep the best one
+                termScores.merge(doc, score, Math::max);
+            }
+        }
+        return termScores;
+    }
+
+    /**
+     * The dictionary entries {@code token} matches: itself, or every term it is a prefix of.
+     * Caller holds the read lock.
+     */
+    private List<Map.Entry<String, Postings>> expand(String token) {
+        if (token.length() < MIN_PREFIX_LENGTH) {
+            Postings exact = terms.get(token);
+            return exact == null ? Collections.emptyList() : List.of(Map.entry(token, exact));
+        }
+        return new ArrayList<>(terms.subMap(token, true, token + Character.MAX_VALUE, false).entrySet());
+    }
+
+    private static long postingsSize(List<Map.Entry<String, Postings>> expansion) {
+        long total = 0;
+        for (Map.Entry<String, Postings> entry : expansion) {
+            total += entry.getValue().size;
+        }
+        return total;
+    }
+
+    /**
+     * Indexes a document under a fresh ordinal, tombstoning its previous one. Caller holds the
+     * write lock.
+     */
+    private void put(Long id, String title, String description, String location) {
+        remove(id);
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokenize(title)) {
+            frequencies.merge(token, TITLE_BOOST, Integer::sum);
+        }
+        for (String token : tokenize(description)) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        for (String token : tokenize(location)) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+
+        int ordinal = nextOrdinal++;
+        if (ordinal == idByOrdinal.length) {
+            idByOrdinal = Arrays.copyOf(idByOrdinal, ordinal * 2);
+            lengthByOrdinal = Arrays.copyOf(lengthByOrdinal, ordinal * 2);
+            postingsByOrdinal = Arrays.copyOf(postingsByOrdinal, ordinal * 2);
+        }
+        int length = 0;
+        Postings[] documentPostings = new Postings[frequencies.size()];
+        int t = 0;
+        for (Map.Entry<String, Integer> e : frequencies.entrySet()) {
+            Postings postings = terms.computeIfAbsent(e.getKey(), term -> new Postings());
+            postings.add(ordinal, e.getValue());
+            documentPostings[t++] = postings;
+            length += e.getValue();
+        }
+        idByOrdinal[ordinal] = id;
+        lengthByOrdinal[ordinal] = length;
+        postingsByOrdinal[ordinal] = documentPostings;
+        live.set(ordinal);
+        ordinalById.put(id, ordinal);
+        liveDocs++;
+        liveLength += length;
+    }
+
+    /**
+     * Tombstones a document, compacting once tombstones make up a quarter of the index. Caller
+     * holds the write lock.
+     */
+    private void remove(Long id) {
+        Integer ordinal = ordinalById.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        live.clear(ordinal);
+        liveDocs--;
+        liveLength -= lengthByOrdinal[ordinal];
+        for (Postings postings : postingsByOrdinal[ordinal]) {
+            postings.liveDocs--;
+        }
+        postingsByOrdinal[ordinal] = null;
+
+        int tombstones = nextOrdinal - liveDocs;
+        if (tombstones >= MIN_TOMBSTONES_FOR_COMPACTION && tombstones * 4 > nextOrdinal) {
+            compact();
+        }
+    }
+
+    /**
+     * Drop tombstoned ordinals and renumber the live ones, preserving their order. Caller holds
+     * the write lock.
+     */
+    private void compact() {
+        int[] remap = new int[nextOrdinal];
+        long[] ids = new long[Math.max(1024, liveDocs * 2)];
+        int[] lengths = new int[ids.length];
+        Postings[][] documentPostings = new Postings[ids.length][];
+        int next = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (live.get(ordinal)) {
+                remap[ordinal] = next;
+                ids[next] = idByOrdinal[ordinal];
+                lengths[next] = lengthByOrdinal[ordinal];
+                documentPostings[next] = postingsByOrdinal[ordinal];
+                ordinalById.put(ids[next], next);
+                next++;
+            } else {
+                remap[ordinal] = -1;
+            }
+        }
+        terms.values().removeIf(postings -> postings.retain(remap) == 0);
+
+        idByOrdinal = ids;
+        lengthByOrdinal = lengths;
+        postingsByOrdinal = documentPostings;
+        live = new BitSet(next);
+        live.set(0, next);
+        nextOrdinal = next;
+    }
+
+    /**
+     * Empties the index. Caller holds the write lock.
+     */
+    private void clear() {
+        terms.clear();
+        ordinalById.clear();
+        idByOrdinal = new long[1024];
+        lengthByOrdinal = new int[1024];
+        postingsByOrdinal = new Postings[1024][];
+        live = new BitSet();
+        nextOrdinal = 0;
+        liveDocs = 0;
+        liveLength = 0;
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Growable (ordinal, frequency) list kept in ascending ordinal order, with the number of its
+     * documents that are not tombstoned.
+     */
+    private static final class Postings {
+        private int[] docs = new int[2];
+        private int[] freqs = new int[2];
+        private int size;
+        private int liveDocs;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+            liveDocs++;
+        }
+
+        /**
+         * Keep only entries whose ordinal survives {@code remap}, renumbered; returns the new size.
+         */
+        int retain(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int target = remap[docs[i]];
+                if (target >= 0) {
+                    docs[kept] = target;
+                    freqs[kept] = freqs[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            liveDocs = kept;
+            return kept;
+        }
+    }
+}
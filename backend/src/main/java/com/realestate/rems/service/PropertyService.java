@@ -1,45 +1,142 @@
 package com.realestate.rems.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.rems.config.ReadYourWrites;
+import com.realestate.rems.dto.CursorPageDTO;
+import com.realestate.rems.dto.PropertySearchCriteria;
+import com.realestate.rems.dto.PropertySort;
+import com.realestate.rems.dto.PropertySummary;
 import com.realestate.rems.exception.ResourceNotFoundException;
 import com.realestate.rems.model.Property;
 import com.realestate.rems.model.User;
 import com.realestate.rems.repository.PropertyRepository;
+import com.realestate.rems.repository.PropertySpecifications;
 import com.realestate.rems.repository.UserRepository;
+import com.realestate.rems.service.PropertySearchIndex.SearchHit;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
 
 @Service
 public class PropertyService {
 
+    private static final int MAX_SEARCH_BATCH = 1000;
+
     @Autowired
     private PropertyRepository propertyRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PropertySearchIndex searchIndex;
+
+    @Autowired
+    private PropertyFilterIndex filterIndex;
+
+    @Autowired
+    private PropertyDetailCache detailCache;
+
+    @Autowired
+    private PropertySearchCache searchCache;
+
+    @Autowired
+    private DatabaseCircuitBreaker databaseBreaker;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${properties.single-flight.timeout-ms:5000}")
+    private long singleFlightTimeoutMs;
+
+    // Concurrent identical reads share one load; keyed by (query, cache version, pinned to primary)
+    private SingleFlight<List<Object>, byte[]> detailFlights;
+    private SingleFlight<List<Object>, CursorPageDTO<PropertySummary>> searchFlights;
+
+    @PostConstruct
+    void init() {
+        detailFlights = new SingleFlight<>("property-detail", singleFlightTimeoutMs, meterRegistry);
+        searchFlights = new SingleFlight<>("property-search", singleFlightTimeoutMs, meterRegistry);
+    }
+
     @Transactional
     public Property addProperty(Property property, Long agentId) {
-        User agent = userRepository.findById(agentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Agent not found with id: " + agentId));
-        
-        if (!"agent".equals(agent.getRole())) {
-            throw new IllegalArgumentException("User must be an agent to create properties");
-        }
-        
+        // The agent role was checked against the token; only the foreign key is needed here
+        User agent = userRepository.getReferenceById(agentId);
         property.setAgent(agent);
-        return propertyRepository.save(property);
+        Property saved = propertyRepository.save(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.created(saved));
+        return saved;
     }
 
-    public List<Property> getAllProperties() {
-        return propertyRepository.findAll();
+    /**
+     * One keyset page of properties matching the criteria (all properties when no filter is set).
+     * {@code sort} applies to the first page; later pages follow the sort encoded in the cursor.
+     * Free-text searches without an explicit sort are ranked by relevance from the search index,
+     * and pure price/type/agent filtering is answered by the filter index; both fall back to the
+     * database while the indexes are still being built. Pages are cached as id lists until the
+     * next catalog change and hydrated in one batch; concurrent identical requests share one load.
+     * Pages read from a replica shortly after a catalog change are not cached, as the replica may
+     * not have the change yet.
+     */
+    public CursorPageDTO<PropertySummary> searchProperties(PropertySearchCriteria criteria, PropertySort sort,
+                                                           String cursor, Integer size) {
+        int pageSize = PageCursor.clampSize(size);
+        PageCursor after = PageCursor.decode(cursor);
+        PropertySort effectiveSort = resolveSort(sort, criteria, after);
+
+        if (!(searchIndex.isReady() && filterIndex.isReady())) {
+            // Results of the database fallback are not cached; they change once the indexes are ready
+            return databaseBreaker.call(() -> toPage(findPage(criteria, effectiveSort, after, pageSize)));
+        }
+        PropertySearchCache.Key key = PropertySearchCache.Key.of(criteria, effectiveSort, cursor, pageSize);
+        long version = searchCache.version();
+        List<Object> flight = List.of(key, version, readYourWrites.isPinnedToPrimary());
+        return searchFlights.load(flight, () -> databaseBreaker.call(() -> {
+            PropertySearchCache.Page page = searchCache.get(key, version);
+            if (page == null) {
+                page = findPage(criteria, effectiveSort, after, pageSize);
+                if (!readYourWrites.mayReadBehindWrites()) {
+                    searchCache.put(key, version, page);
+                }
+            }
+            return toPage(page);
+        }));
     }
 
-    public List<Property> searchProperties(String search, BigDecimal minPrice, BigDecimal maxPrice, String type) {
-        return propertyRepository.searchProperties(search, minPrice, maxPrice, type);
+    /**
+     * The normalized identity of a {@link #searchProperties} request; requests with equal keys
+     * get the same page.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public PropertySearchCache.Key searchKey(PropertySearchCriteria criteria, PropertySort sort,
+                                             String cursor, Integer size) {
+        PropertySort effectiveSort = resolveSort(sort, criteria, PageCursor.decode(cursor));
+        return PropertySearchCache.Key.of(criteria, effectiveSort, cursor, PageCursor.clampSize(size));
     }
 
     public Property getPropertyById(Long id) {
@@ -47,8 +144,35 @@ public class PropertyService {
                 .orElseThrow(() -> new ResourceNotFoundException("Property not found with id: " + id));
     }
 
-    public List<Property> getPropertiesByAgentId(Long agentId) {
-        return propertyRepository.findByAgentId(agentId);
+    /**
+     * The JSON body of {@code GET /api/properties/{id}}, from the detail cache when possible.
+     * The returned array is shared and must not be modified.
+     */
+    public byte[] getPropertyJson(Long id) {
+        long generation = detailCache.generation();
+        byte[] cached = detailCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        // Keyed by generation too: a read after a write never joins a load that started before it
+        return detailFlights.load(List.of(id, generation, readYourWrites.isPinnedToPrimary()), () -> {
+            Property property = databaseBreaker.call(() -> propertyRepository.findWithImagesById(id))
+                    .orElseThrow(() -> new ResourceNotFoundException("Property not found with id: " + id));
+            byte[] json;
+            try {
+                json = objectMapper.writeValueAsBytes(property);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!readYourWrites.mayReadBehindWrites()) {
+                detailCache.put(id, json, generation);
+            }
+            return json;
+        });
+    }
+
+    public CursorPageDTO<PropertySummary> getPropertiesByAgentId(Long agentId, PropertySort sort, String cursor, Integer size) {
+        return searchProperties(PropertySearchCriteria.forAgent(agentId), sort, cursor, size);
     }
 
     @Transactional
@@ -80,7 +204,9 @@ public class PropertyService {
             property.setImages(propertyDetails.getImages());
         }
         
-        return propertyRepository.save(property);
+        Property saved = propertyRepository.save(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.updated(saved));
+        return saved;
     }
 
     @Transactional
@@ -93,11 +219,175 @@ public class PropertyService {
         }
         
         propertyRepository.deleteById(id);
+        eventPublisher.publishEvent(PropertyChangedEvent.deleted(id));
+    }
+
+    private PropertySearchCache.Page findPage(PropertySearchCriteria criteria, PropertySort effectiveSort,
+                                              PageCursor after, int pageSize) {
+        if (effectiveSort == PropertySort.RELEVANCE) {
+            if (searchIndex.isReady()) {
+                return searchIndexed(criteria, after, pageSize);
+            }
+            if (after != null) {
+                throw new IllegalArgumentException("Search cursor is no longer valid, please search again");
+            }
+            effectiveSort = PropertySort.NEWEST;
+        }
+
+        // Fetch one extra row to learn whether another page exists
+        List<Property> items;
+        boolean hasMore;
+        if (criteria.getSearch() == null && filterIndex.isReady()) {
+            List<Long> ids = filterIndex.findPage(criteria, effectiveSort, after, pageSize + 1);
+            hasMore = ids.size() > pageSize;
+            items = findAllInOrder(hasMore ? ids.subList(0, pageSize) : ids);
+        } else {
+            Specification<Property> spec = PropertySpecifications.matching(criteria)
+                    .and(PropertySpecifications.after(effectiveSort, after));
+            List<Property> rows = propertyRepository.findPage(
+                    spec, PropertySpecifications.orderBy(effectiveSort), pageSize + 1);
+            hasMore = rows.size() > pageSize;
+            items = hasMore ? rows.subList(0, pageSize) : rows;
+        }
+
+        if (!hasMore || items.isEmpty()) {
+            return PropertySearchCache.Page.of(items, null);
+        }
+        Property last = items.get(items.size() - 1);
+        String next = new PageCursor(effectiveSort.getParam(), sortKey(last, effectiveSort), last.getId()).encode();
+        return PropertySearchCache.Page.of(items, next);
+    }
+
+    /**
+     * Page through the ranked hits of the search index. Hits are pre-filtered with the filter
+     * index when it is ready and hydrated in one batch per round; the price/type/agent filters
+     * are checked again on the hydrated rows, so another round is only needed when the filter
+     * index is unavailable and rows get rejected.
+     */
+    private PropertySearchCache.Page searchIndexed(PropertySearchCriteria criteria, PageCursor after, int pageSize) {
+        SearchHit from = after == null ? null : new SearchHit(after.getId(), parseScore(after.getKey()));
+        List<Property> items = new ArrayList<>();
+        List<SearchHit> itemHits = new ArrayList<>();
+        int batchSize = pageSize + 1;
+        LongPredicate prefilter = filterIndex.isReady() ? filterIndex.matcher(criteria) : null;
+
+        while (items.size() <= pageSize) {
+            List<SearchHit> hits = searchIndex.search(criteria.getSearch(), from, batchSize, prefilter);
+            if (hits.isEmpty()) {
+                break;
+            }
+            Map<Long, Property> byId = findAllById(hits.stream().map(SearchHit::getId).toList());
+            for (SearchHit hit : hits) {
+                Property property = byId.get(hit.getId());
+                if (property != null && matchesFilters(property, criteria) && items.size() <= pageSize) {
+                    items.add(property);
+                    itemHits.add(hit);
+                }
+            }
+            if (hits.size() < batchSize) {
+                break;
+            }
+            from = hits.get(hits.size() - 1);
+            // Filters are rejecting hits; widen the next round
+            batchSize = Math.min(batchSize * 2, MAX_SEARCH_BATCH);
+        }
+
+        if (items.size() <= pageSize) {
+            return PropertySearchCache.Page.of(items, null);
+        }
+        SearchHit last = itemHits.get(pageSize - 1);
+        String next = new PageCursor(PropertySort.RELEVANCE.getParam(),
+                Double.toString(last.getScore()), last.getId()).encode();
+        return PropertySearchCache.Page.of(items.subList(0, pageSize), next);
+    }
+
+    /**
+     * Load the given properties in one query, keeping the order of {@code ids}.
+     * Ids that no longer exist are skipped.
+     */
+    private List<Property> findAllInOrder(List<Long> ids) {
+        Map<Long, Property> byId = findAllById(ids);
+        List<Property> properties = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Property property = byId.get(id);
+            if (property != null) {
+                properties.add(property);
+            }
+        }
+        return properties;
+    }
+
+    private Map<Long, Property> findAllById(List<Long> ids) {
+        return propertyRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Property::getId, Function.identity()));
+    }
+
+    /**
+     * Hydrate a page that was cached as ids, or use the properties it was loaded with.
+     */
+    private CursorPageDTO<PropertySummary> toPage(PropertySearchCache.Page page) {
+        List<Property> items = page.getItems() != null ? page.getItems() : findAllInOrder(page.getIds());
+        return new CursorPageDTO<>(toSummaries(items), page.getNextCursor());
+    }
+
+    /**
+     * Map a page of properties to summaries, loading their first images in a single query.
+     */
+    private List<PropertySummary> toSummaries(List<Property> properties) {
+        if (properties.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, String> firstImages = propertyRepository.findFirstImages(
+                properties.stream().map(Property::getId).toList());
+
+        List<PropertySummary> summaries = new ArrayList<>(properties.size());
+        for (Property property : properties) {
+            summaries.add(new PropertySummary(property.getId(), property.getTitle(), property.getPrice(),
+                    property.getLocation(), property.getType(), firstImages.get(property.getId())));
+        }
+        return summaries;
+    }
+
+    private static boolean matchesFilters(Property property, PropertySearchCriteria criteria) {
+        if (criteria.getMinPrice() != null && property.getPrice().compareTo(criteria.getMinPrice()) < 0) {
+            return false;
+        }
+        if (criteria.getMaxPrice() != null && property.getPrice().compareTo(criteria.getMaxPrice()) > 0) {
+            return false;
+        }
+        if (criteria.getType() != null && !criteria.getType().equals(property.getType())) {
+            return false;
+        }
+        return criteria.getAgentId() == null || criteria.getAgentId().equals(property.getAgent().getId());
+    }
+
+    private static PropertySort resolveSort(PropertySort requested, PropertySearchCriteria criteria, PageCursor after) {
+        if (after != null) {
+            PropertySort cursorSort = PropertySort.fromParam(after.getSort());
+            if (cursorSort == null) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return cursorSort;
+        }
+        boolean hasSearch = criteria.getSearch() != null;
+        if (requested == null) {
+            return hasSearch ? PropertySort.RELEVANCE : PropertySort.NEWEST;
+        }
+        return requested == PropertySort.RELEVANCE && !hasSearch ? PropertySort.NEWEST : requested;
+    }
+
+    private static double parseScore(String key) {
+        try {
+            return Double.parseDouble(key);
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
 
-    public Long getUserIdByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .map(User::getId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    private static String sortKey(Property property, PropertySort sort) {
+        return switch (sort) {
+            case PRICE_ASC, PRICE_DESC -> property.getPrice().toPlainString();
+            default -> property.getCreatedAt().toString();
+        };
     }
 }
@@ -0,0 +1,351 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.dto.ImageInfoDTO;
+import com.realestate.rems.dto.UploadSessionDTO;
+import com.realestate.rems.exception.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Resumable uploads for images too large, or connections too flaky, for a single request.
+ *
+ * A client opens a session with the total size, sends the content as chunks at byte offsets (in
+ * any order, possibly in parallel), then completes it with the SHA-256 of the whole file. Each
+ * chunk is streamed from the request straight to its position in a staging file, so nothing is
+ * buffered in memory and nothing is copied again when the upload completes. Bytes that reached
+ * the file before a connection dropped are kept; the session reports the first missing offset so
+ * the client resumes from there.
+ *
+ * Sessions live in memory on the node that created them. Sessions idle for longer than the
+ * configured time are removed together with their staging files, as are staging files left
+ * behind by a previous run.
+ */
+@Service
+public class ResumableUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumableUploadService.class);
+
+    private static final String PART_SUFFIX = ".part";
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-fA-F]{64}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private ImageService imageService;
+
+    @Value("${images.resumable.dir:${java.io.tmpdir}/rems-uploads}")
+    private String stagingDir;
+
+    @Value("${images.resumable.max-size-bytes:104857600}")
+    private long maxSize;
+
+    @Value("${images.resumable.idle-minutes:60}")
+    private long idleMinutes;
+
+    private Path staging;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() throws IOException {
+        staging = Paths.get(stagingDir).toAbsolutePath().normalize();
+        Files.createDirectories(staging);
+    }
+
+    /**
+     * Opens a session for {@code size} bytes owned by {@code ownerId}.
+     *
+     * @throws IllegalArgumentException if the size is not positive or above the limit
+     */
+    public UploadSessionDTO create(Long ownerId, long size) throws IOException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Upload size must be positive");
+        }
+        if (size > maxSize) {
+            throw new IllegalArgumentException("Upload size exceeds the limit of " + maxSize + " bytes");
+        }
+        String id = UUID.randomUUID().toString();
+        Path file = staging.resolve(id + PART_SUFFIX);
+        // Sized up front (sparsely) so chunks can be written at any offset
+        try (RandomAccessFile part = new RandomAccessFile(file.toFile(), "rw")) {
+            part.setLength(size);
+        }
+        UploadSession session = new UploadSession(id, ownerId, size, file);
+        sessions.put(id, session);
+        return toDTO(session);
+    }
+
+    public UploadSessionDTO status(String id, Long ownerId) {
+        UploadSession session = session(id, ownerId);
+        session.touch();
+        return toDTO(session);
+    }
+
+    /**
+     * Writes the bytes of {@code body} to the staging file starting at {@code offset}. Bytes
+     * already written are kept if reading the body fails part way.
+     *
+     * @throws IllegalArgumentException if the chunk falls outside the declared size or the
+     *                                  session is being completed
+     */
+    public UploadSessionDTO writeChunk(String id, Long ownerId, long offset, InputStream body) throws IOException {
+        UploadSession session = session(id, ownerId);
+        if (offset < 0 || offset >= session.size) {
+            throw new IllegalArgumentException("Offset must be between 0 and " + (session.size - 1));
+        }
+        session.beginWrite();
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(session.file, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (offset + written + read > session.size) {
+                    throw new IllegalArgumentException(
+                            "Chunk runs past the declared size of " + session.size + " bytes");
+                }
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    written += channel.write(chunk, offset + written);
+                }
+            }
+        } finally {
+            session.endWrite(offset, offset + written);
+        }
+        return toDTO(session);
+    }
+
+    /**
+     * Checks the assembled file against {@code sha256} and stores it as an uploaded image. The
+     * session ends unless storing failed with an I/O error, in which case completing can be
+     * retried.
+     *
+     * @throws IllegalArgumentException if bytes are missing, the checksum does not match or
+     *                                  the file is not a supported image
+     */
+    public ImageInfoDTO complete(String id, Long ownerId, String sha256) throws IOException {
+        if (sha256 == null || !SHA256.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("sha256 must be 64 hexadecimal characters");
+        }
+        UploadSession session = session(id, ownerId);
+        session.beginCompletion();
+
+        boolean retryable = false;
+        try {
+            String actual = sha256(session.file);
+            if (!actual.equalsIgnoreCase(sha256)) {
+                throw new IllegalArgumentException("Checksum mismatch: the upload is corrupt and was discarded");
+            }
+            return imageService.storeFile(session.file, actual, session.size);
+        } catch (IOException e) {
+            retryable = true;
+            throw e;
+        } finally {
+            if (retryable) {
+                session.cancelCompletion();
+            } else {
+                discard(session);
+            }
+        }
+    }
+
+    public void abort(String id, Long ownerId) throws IOException {
+        discard(session(id, ownerId));
+    }
+
+    /**
+     * Remove sessions that have seen no request for longer than the idle time, and staging
+     * files that no session owns.
+     */
+    @Scheduled(fixedDelayString = "${images.resumable.sweep-ms:300000}")
+    public void removeAbandoned() {
+        removeIdleSince(System.currentTimeMillis() - idleMinutes * 60_000);
+    }
+
+    int removeIdleSince(long cutoff) {
+        int removed = 0;
+        for (UploadSession session : sessions.values()) {
+            if (session.idleSince(cutoff)) {
+                try {
+                    discard(session);
+                    removed++;
+                } catch (IOException e) {
+                    logger.warn("Could not delete staging file {}: {}", session.file, e.getMessage());
+                }
+            }
+        }
+
+        // Left by sessions of a previous run, which were only held in memory
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(staging, "*" + PART_SUFFIX)) {
+            for (Path part : parts) {
+                String id = part.getFileName().toString();
+                id = id.substring(0, id.length() - PART_SUFFIX.length());
+                if (!sessions.containsKey(id) && Files.getLastModifiedTime(part).toMillis() < cutoff) {
+                    Files.deleteIfExists(part);
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not sweep staging directory {}: {}", staging, e.getMessage());
+        }
+
+        if (removed > 0) {
+            logger.info("Removed {} abandoned uploads", removed);
+        }
+        return removed;
+    }
+
+    // 🔧 Internal helpers
+
+    private UploadSession session(String id, Long ownerId) {
+        UploadSession session = id != null ? sessions.get(id) : null;
+        // Other users' sessions are reported as missing rather than forbidden
+        if (session == null || !session.ownerId.equals(ownerId)) {
+            throw new ResourceNotFoundException("Upload session not found: " + id);
+        }
+        return session;
+    }
+
+    private void discard(UploadSession session) throws IOException {
+        sessions.remove(session.id, session);
+        Files.deleteIfExists(session.file);
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private UploadSessionDTO toDTO(UploadSession session) {
+        UploadSessionDTO dto = new UploadSessionDTO();
+        dto.setId(session.id);
+        dto.setSize(session.size);
+        synchronized (session) {
+            dto.setReceived(session.received);
+            dto.setOffset(session.firstMissing());
+            dto.setComplete(session.received == session.size);
+            dto.setExpiresAt(LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(session.lastActivity + idleMinutes * 60_000), ZoneId.systemDefault()));
+        }
+        return dto;
+    }
+
+    /**
+     * One upload: its staging file and the byte ranges written so far, kept merged.
+     */
+    private static final class UploadSession {
+        final String id;
+        final Long ownerId;
+        final long size;
+        final Path file;
+        // start -> end (exclusive) of each received range; ranges never overlap or touch
+        final TreeMap<Long, Long> ranges = new TreeMap<>();
+        long received;
+        int activeWrites;
+        boolean completing;
+        long lastActivity = System.currentTimeMillis();
+
+        UploadSession(String id, Long ownerId, long size, Path file) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.size = size;
+            this.file = file;
+        }
+
+        synchronized void touch() {
+            lastActivity = System.currentTimeMillis();
+        }
+
+        synchronized void beginWrite() {
+            if (completing) {
+                throw new IllegalArgumentException("Upload is being completed");
+            }
+            activeWrites++;
+            lastActivity = System.currentTimeMillis();
+        }
+
+        synchronized void endWrite(long start, long end) {
+            activeWrites--;
+            lastActivity = System.currentTimeMillis();
+            if (end > start) {
+                add(start, end);
+            }
+        }
+
+        synchronized void beginCompletion() {
+            if (completing) {
+                throw new IllegalArgumentException("Upload is already being completed");
+            }
+            if (activeWrites > 0 || received < size) {
+                throw new IllegalArgumentException(
+                        "Upload incomplete: " + received + " of " + size + " bytes received");
+            }
+            completing = true;
+            lastActivity = System.currentTimeMillis();
+        }
+
+        synchronized void cancelCompletion() {
+            completing = false;
+        }
+
+        synchronized boolean idleSince(long cutoff) {
+            return activeWrites == 0 && !completing && lastActivity < cutoff;
+        }
+
+        long firstMissing() {
+            Map.Entry<Long, Long> first = ranges.firstEntry();
+            return first != null && first.getKey() == 0 ? first.getValue() : 0;
+        }
+
+        private void add(long start, long end) {
+            // Absorb every range that overlaps or touches [start, end)
+            Map.Entry<Long, Long> before = ranges.floorEntry(start);
+            if (before != null && before.getValue() >= start) {
+                start = before.getKey();
+                end = Math.max(end, before.getValue());
+            }
+            Map.Entry<Long, Long> next = ranges.ceilingEntry(start);
+            while (next != null && next.getKey() <= end) {
+                end = Math.max(end, next.getValue());
+                ranges.remove(next.getKey());
+                next = ranges.ceilingEntry(start);
+            }
+            ranges.put(start, end);
+            received = ranges.entrySet().stream().mapToLong(range -> range.getValue() - range.getKey()).sum();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent callers asking for the same key share one load: the first caller runs it on
+ * its own thread, the others wait for its result. A failure reaches every waiting caller as the
+ * same exception. Callers wait at most the timeout and then get a
+ * {@link ServiceUnavailableException}, rather than all piling onto a slow database.
+ *
+ * Nothing is kept once the load finishes; caching is up to the caller.
+ */
+final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final String name;
+    private final long timeoutMs;
+    private final Counter loads;
+    private final Counter shared;
+    private final Counter timeouts;
+
+    SingleFlight(String name, long timeoutMs, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.timeoutMs = timeoutMs;
+        this.loads = Counter.builder("rems.single-flight.requests").tag("name", name).tag("result", "load")
+                .description("Requests that ran their load")
+                .register(meterRegistry);
+        this.shared = Counter.builder("rems.single-flight.requests").tag("name", name).tag("result", "shared")
+                .description("Requests answered by an identical load already in flight")
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("rems.single-flight.requests").tag("name", name).tag("result", "timeout")
+                .description("Requests that gave up waiting for an identical load")
+                .register(meterRegistry);
+    }
+
+    V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return await(running);
+        }
+        loads.increment();
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // 🔧 Internal helpers
+
+    private V await(CompletableFuture<V> running) {
+        try {
+            V value = running.get(timeoutMs, TimeUnit.MILLISECONDS);
+            shared.increment();
+            return value;
+        } catch (ExecutionException e) {
+            shared.increment();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new ServiceUnavailableException("Timed out waiting for " + name + ", please retry");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for " + name, e);
+        }
+    }
+}
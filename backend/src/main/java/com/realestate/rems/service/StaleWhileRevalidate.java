@@ -0,0 +1,270 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.config.ReadYourWrites;
+import com.realestate.rems.exception.ResourceNotFoundException;
+import com.realestate.rems.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the last good result of each listing read so it can be served while the database is
+ * slow or down. A read runs on a small refresh pool and the request waits for it up to a latency
+ * budget; if the read is slower than that, or fails for a database reason, the last good result
+ * is returned marked stale and the read carries on in the background, refreshing it when it
+ * completes. Without a last good result the request waits for the read and gets its outcome as
+ * before.
+ *
+ * Only database and overload failures fall back; errors that are the answer to the request
+ * (missing listing, bad cursor) and programming errors propagate. Writes do not go through here
+ * and fail normally.
+ *
+ * Reads run with the caller's security context, and a caller pinned to the primary after a
+ * write of their own (see {@link ReadYourWrites}) never joins a read that may be served by a
+ * replica.
+ */
+@Component
+public class StaleWhileRevalidate {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaleWhileRevalidate.class);
+
+    private final long budgetMs;
+    private final int maxEntries;
+    private final ThreadPoolExecutor executor;
+    private final ReadYourWrites readYourWrites;
+    private final Map<Object, CompletableFuture<Object>> refreshing = new ConcurrentHashMap<>();
+    private final LinkedHashMap<Object, LastGood> lastGood = new LinkedHashMap<>(256, 0.75f, true);
+    private final Counter staleResponses;
+    // Bumped by every catalog change; guarded by this
+    private long generation;
+
+    public StaleWhileRevalidate(MeterRegistry meterRegistry,
+                                ReadYourWrites readYourWrites,
+                                @Value("${properties.stale.budget-ms:1000}") long budgetMs,
+                                @Value("${properties.stale.max-entries:10000}") int maxEntries,
+                                @Value("${properties.stale.refresh-threads:8}") int threads,
+                                @Value("${properties.stale.queue-capacity:100}") int queueCapacity) {
+        this.budgetMs = budgetMs;
+        this.maxEntries = maxEntries;
+        this.readYourWrites = readYourWrites;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread thread = new Thread(task, "property-read-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.staleResponses = Counter.builder("rems.properties.stale.responses")
+                .description("Listing reads answered with the last good result while the database was slow or failing")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The result of {@code read} for {@code key}, or its last good result when the read is
+     * slower than the budget or the database fails. Keys are compared with {@code equals}, so
+     * they should be normalized (see {@link PropertySearchCache.Key}).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Result<T> get(Object key, Supplier<T> read) {
+        LastGood previous = lookup(key);
+        CompletableFuture<Object> future = refresh(key, read);
+        if (future == null) {
+            if (previous != null) {
+                return stale(key, previous, "refresh pool is saturated");
+            }
+            return new Result<>(read.get(), false, 0);
+        }
+        try {
+            Object value = previous != null ? future.get(budgetMs, TimeUnit.MILLISECONDS) : future.get();
+            return new Result<>((T) value, false, 0);
+        } catch (TimeoutException e) {
+            return stale(key, previous, "read exceeded " + budgetMs + " ms");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (previous != null && isUnavailable(cause)) {
+                return stale(key, previous, cause.toString());
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while reading listings", e);
+        }
+    }
+
+    /**
+     * Reads after a change must not join a read that started before it, and a read that started
+     * before it does not become a last good result. The last good result of a deleted listing is
+     * forgotten.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        changed();
+        refreshing.clear();
+        if (event.getType() == PropertyChangedEvent.Type.DELETED) {
+            remove(detailKey(event.getPropertyId()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertiesCreated(PropertiesCreatedEvent event) {
+        changed();
+        refreshing.clear();
+    }
+
+    public static String detailKey(Long id) {
+        return "property:" + id;
+    }
+
+    // 🔧 Internal helpers
+
+    /**
+     * Starts reading {@code key} on the refresh pool, or joins a read of it already running;
+     * null when the pool is saturated.
+     */
+    private CompletableFuture<Object> refresh(Object key, Supplier<?> read) {
+        Object flight = readYourWrites.isPinnedToPrimary() ? List.of(key, "#primary") : key;
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = refreshing.putIfAbsent(flight, mine);
+        if (running != null) {
+            return running;
+        }
+        // Read before the read starts: a result that may predate a change is returned but not kept
+        long startedAt = generation();
+        // Deregistered before completing, so a later read never joins a finished one
+        Runnable task = () -> {
+            try {
+                Object value = read.get();
+                store(key, value, startedAt);
+                refreshing.remove(flight, mine);
+                mine.complete(value);
+            } catch (ResourceNotFoundException e) {
+                remove(key);
+                refreshing.remove(flight, mine);
+                mine.completeExceptionally(e);
+            } catch (RuntimeException | Error e) {
+                refreshing.remove(flight, mine);
+                mine.completeExceptionally(e);
+            }
+        };
+        try {
+            executor.execute(new DelegatingSecurityContextRunnable(task));
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(flight, mine);
+            // Callers that joined in the meantime get the stale result or this error
+            mine.completeExceptionally(new ServiceUnavailableException("Too many listing reads in progress, please retry"));
+            return null;
+        }
+        return mine;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Result<T> stale(Object key, LastGood previous, String reason) {
+        staleResponses.increment();
+        logger.debug("Serving stale {}: {}", key, reason);
+        long ageSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - previous.loadedAt);
+        return new Result<>((T) previous.value, true, ageSeconds);
+    }
+
+    private static boolean isUnavailable(Throwable e) {
+        return DatabaseCircuitBreaker.isDatabaseFailure(e) || e instanceof ServiceUnavailableException;
+    }
+
+    private synchronized LastGood lookup(Object key) {
+        return lastGood.get(key);
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    private synchronized void changed() {
+        generation++;
+    }
+
+    private synchronized void store(Object key, Object value, long startedAt) {
+        if (startedAt != generation) {
+            return;
+        }
+        lastGood.put(key, new LastGood(value, System.currentTimeMillis()));
+        if (lastGood.size() > maxEntries) {
+            lastGood.remove(lastGood.keySet().iterator().next());
+        }
+    }
+
+    private synchronized void remove(Object key) {
+        lastGood.remove(key);
+    }
+
+    private static final class LastGood {
+
+        final Object value;
+        final long loadedAt;
+
+        LastGood(Object value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * A read result; {@code stale} when it is the last good result rather than a fresh one.
+     */
+    public static final class Result<T> {
+
+        private final T value;
+        private final boolean stale;
+        private final long ageSeconds;
+
+        Result(T value, boolean stale, long ageSeconds) {
+            this.value = value;
+            this.stale = stale;
+            this.ageSeconds = ageSeconds;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public boolean isStale() {
+            return stale;
+        }
+
+        /**
+         * Seconds since a stale result was read; 0 for fresh results.
+         */
+        public long getAgeSeconds() {
+            return ageSeconds;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+-- Initial schema, matching the tables previously generated by Hibernate (ddl-auto: update).
+-- Existing databases are baselined at this version and skip this script.
+
+CREATE TABLE users (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6)  NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    enabled    BIT          NOT NULL,
+    name       VARCHAR(255),
+    password   VARCHAR(255),
+    role       VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE properties (
+    id          BIGINT         NOT NULL AUTO_INCREMENT,
+    created_at  DATETIME(6)    NOT NULL,
+    description TEXT,
+    location    VARCHAR(255)   NOT NULL,
+    price       DECIMAL(10, 2) NOT NULL,
+    title       VARCHAR(255)   NOT NULL,
+    type        VARCHAR(255)   NOT NULL,
+    agent_id    BIGINT         NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_properties_agent FOREIGN KEY (agent_id) REFERENCES users (id)
+);
+
+CREATE TABLE property_images (
+    property_id BIGINT NOT NULL,
+    image_url   VARCHAR(255),
+    CONSTRAINT fk_property_images_property FOREIGN KEY (property_id) REFERENCES properties (id)
+);
+
+CREATE TABLE favorites (
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    created_at  DATETIME(6) NOT NULL,
+    client_id   BIGINT      NOT NULL,
+    property_id BIGINT      NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_favorites_property_client UNIQUE (property_id, client_id),
+    CONSTRAINT fk_favorites_client FOREIGN KEY (client_id) REFERENCES users (id),
+    CONSTRAINT fk_favorites_property FOREIGN KEY (property_id) REFERENCES properties (id)
+);
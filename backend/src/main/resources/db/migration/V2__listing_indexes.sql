@@ -0,0 +1,19 @@
+-- Indexes for the listing endpoints. InnoDB appends the primary key to every secondary index,
+-- so each one also serves the (sort key, id) keyset used for pagination. Where an index starts
+-- with a foreign key column, MySQL drops the index it created implicitly for that foreign key.
+
+-- GET /api/properties?type=..&minPrice=..&maxPrice=..  (equality on type, range on price)
+CREATE INDEX idx_properties_type_price ON properties (type, price);
+
+-- GET /api/properties/agent/{agentId}  (newest first)
+CREATE INDEX idx_properties_agent_created ON properties (agent_id, created_at);
+
+-- Unfiltered listings, sort=newest and sort=price_asc|price_desc
+CREATE INDEX idx_properties_created ON properties (created_at);
+CREATE INDEX idx_properties_price ON properties (price);
+
+-- Image lookups when loading listings
+CREATE INDEX idx_property_images_property ON property_images (property_id);
+
+-- GET /api/favorites  (client's favorites, newest first by id)
+CREATE INDEX idx_favorites_client ON favorites (client_id);
@@ -0,0 +1,14 @@
+-- One row per uploaded original. Dimensions are read from the image header at upload time so
+-- clients can pick a derivative (thumb, detail, full) without downloading the original.
+
+CREATE TABLE uploaded_images (
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    created_at   DATETIME(6)  NOT NULL,
+    filename     VARCHAR(255) NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    width        INT          NOT NULL,
+    height       INT          NOT NULL,
+    size_bytes   BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_uploaded_images_filename UNIQUE (filename)
+);
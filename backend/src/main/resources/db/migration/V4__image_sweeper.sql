@@ -0,0 +1,8 @@
+-- Support for the orphaned image sweeper.
+
+-- Time of the latest upload of each original. An upload of content that is already stored
+-- refreshes it, so the sweeper's grace period runs from the moment a client last received the URL.
+ALTER TABLE uploaded_images ADD COLUMN last_uploaded_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+-- Candidates for deletion are checked against the listings that use them just before deleting
+CREATE INDEX idx_property_images_url ON property_images (image_url);
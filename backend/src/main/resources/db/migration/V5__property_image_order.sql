@@ -0,0 +1,5 @@
+-- Row ids for listing images, so "the first image" of a listing is well defined.
+
+-- Hibernate writes a listing's images in list order, so the lowest id is its first image.
+-- Existing rows are numbered in the order they were stored.
+ALTER TABLE property_images ADD COLUMN id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY;
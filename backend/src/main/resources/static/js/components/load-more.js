@@ -0,0 +1,56 @@
+// Load More Component
+// Pages through a cursor-paginated list endpoint.
+// fetchPage(cursor) returns { items, nextCursor }; render(items, append) draws one page,
+// replacing the list when append is false. A "Load more" button is shown below the
+// container while the server reports further pages.
+class LoadMore {
+    constructor(container, fetchPage, render) {
+        this.container = container;
+        this.fetchPage = fetchPage;
+        this.render = render;
+        this.nextCursor = null;
+        this.count = 0;
+        this.loading = false;
+
+        this.button = document.createElement('button');
+        this.button.type = 'button';
+        this.button.className = 'load-more-btn mx-auto mt-8 px-6 py-2 rounded-lg border border-slate-200 dark:border-slate-700 text-sm font-semibold text-primary hover:bg-slate-50 dark:hover:bg-slate-800 transition-colors';
+        this.button.textContent = 'Load more';
+        this.button.style.display = 'none';
+        this.button.onclick = () => this.more();
+        container.insertAdjacentElement('afterend', this.button);
+    }
+
+    // Load the first page, replacing whatever is shown
+    async load() {
+        this.nextCursor = null;
+        this.count = 0;
+        await this.fetch(null, false);
+    }
+
+    // Append the next page, if there is one
+    async more() {
+        if (!this.nextCursor || this.loading) return;
+        await this.fetch(this.nextCursor, true);
+    }
+
+    // Whether more items exist beyond the ones loaded
+    hasMore() {
+        return !!this.nextCursor;
+    }
+
+    async fetch(cursor, append) {
+        this.loading = true;
+        this.button.disabled = true;
+        try {
+            const page = await this.fetchPage(cursor);
+            this.nextCursor = page.nextCursor || null;
+            this.count = (append ? this.count : 0) + page.items.length;
+            this.render(page.items, append);
+        } finally {
+            this.loading = false;
+            this.button.disabled = false;
+            this.button.style.display = this.nextCursor ? 'block' : 'none';
+        }
+    }
+}
@@ -19,15 +19,16 @@ class PropertyCard {
             if (url.startsWith('http://') || url.startsWith('https://')) {
                 return url;
             } else if (url.startsWith('/uploads/')) {
-                return url;
+                return imageVariantUrl(url, 'thumb');
             } else {
-                return '/uploads/images/' + url;
+                return imageVariantUrl('/uploads/images/' + url, 'thumb');
             }
         };
 
-        const mainImage = this.property.images && this.property.images.length > 0
-            ? getImageUrl(this.property.images[0])
-            : PropertyCard.PLACEHOLDER_IMAGE;
+        // Listings and favorites carry summaries with imageUrl; full properties have images
+        const firstImage = this.property.imageUrl
+            || (this.property.images && this.property.images[0]);
+        const mainImage = firstImage ? getImageUrl(firstImage) : PropertyCard.PLACEHOLDER_IMAGE;
 
         const price = new Intl.NumberFormat('en-US', {
             style: 'currency',
@@ -57,6 +58,7 @@ class PropertyCard {
             const favoriteBtn = document.createElement('button');
             favoriteBtn.className = 'btn-favorite';
             favoriteBtn.innerHTML = '<i class="icon-heart"></i>';
+            favoriteBtn.dataset.propertyId = this.property.id;
             favoriteBtn.onclick = () => this.toggleFavorite();
             card.querySelector('.property-card-content').appendChild(favoriteBtn);
         }
@@ -75,10 +77,34 @@ class PropertyCard {
         return card;
     }
 
+    // Mark the favorite buttons of all cards in container with one batch status request;
+    // buttons already marked (earlier pages) are skipped
+    static async markFavorites(container) {
+        const buttons = Array.from(container.querySelectorAll('.btn-favorite:not([data-favorited])'));
+        if (buttons.length === 0) return;
+
+        try {
+            const status = await favoriteService.getFavoritedStatus(
+                buttons.map(btn => btn.dataset.propertyId));
+            buttons.forEach(btn => PropertyCard.setFavorited(btn, status[btn.dataset.propertyId] === true));
+        } catch (error) {
+            console.error('Error checking favorites:', error);
+        }
+    }
+
+    static setFavorited(btn, favorited) {
+        btn.dataset.favorited = favorited;
+        btn.classList.toggle('favorited', favorited);
+    }
+
     async toggleFavorite() {
+        const propertyId = this.property.id;
+        const btn = document.querySelector(`.btn-favorite[data-property-id="${propertyId}"]`);
         try {
-            const propertyId = this.property.id;
-            const isFavorited = await favoriteService.isFavorited(propertyId);
+            // State comes from markFavorites; ask the server only for cards it has not marked
+            const isFavorited = btn && btn.dataset.favorited !== undefined
+                ? btn.dataset.favorited === 'true'
+                : await favoriteService.isFavorited(propertyId);
 
             if (isFavorited) {
                 await favoriteService.removeFavorite(propertyId);
@@ -87,6 +113,7 @@ class PropertyCard {
                 await favoriteService.addFavorite(propertyId);
                 this.showNotification('Added to favorites', 'success');
             }
+            if (btn) PropertyCard.setFavorited(btn, !isFavorited);
         } catch (error) {
             this.showNotification(error.message, 'error');
         }
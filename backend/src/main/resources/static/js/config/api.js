@@ -15,12 +15,14 @@ const API_CONFIG = {
         },
         FAVORITES: {
             BASE: '/favorites',
+            STATUS: '/favorites/status',
             BY_PROPERTY: (propertyId) => `/favorites/${propertyId}`
         },
         USERS: {
             PROFILE: '/users/profile'
         },
-        UPLOAD: '/upload'
+        UPLOAD: '/upload',
+        UPLOAD_BATCH: '/upload/batch'
     }
 };
 
@@ -52,3 +54,12 @@ window.showNotification = function(message, type = 'success') {
     }, 3000);
 };
 
+
+// URL of a derivative ('thumb', 'detail' or 'full') of an uploaded image; other URLs are returned as-is
+function imageVariantUrl(url, variant) {
+    const prefix = '/uploads/images/';
+    if (!url || !url.startsWith(prefix) || url.indexOf('/', prefix.length) !== -1) {
+        return url;
+    }
+    return prefix + variant + '/' + url.substring(prefix.length);
+}
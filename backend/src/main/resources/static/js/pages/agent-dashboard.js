@@ -47,7 +47,7 @@ async function loadMyProperties() {
             authManager.saveUser(user);
         }
 
-        const properties = await propertyService.getPropertiesByAgentId(user.userId);
+        const properties = await propertyService.getAllPropertiesByAgentId(user.userId);
         displayProperties(properties);
     } catch (error) {
         console.error('Error loading properties:', error);
@@ -84,7 +84,7 @@ async function loadStats() {
             authManager.saveUser(user);
         }
 
-        const properties = await propertyService.getPropertiesByAgentId(user.userId);
+        const properties = await propertyService.getAllPropertiesByAgentId(user.userId);
 
         // Update stats
         const totalProperties = document.getElementById('total-properties');
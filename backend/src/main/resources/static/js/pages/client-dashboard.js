@@ -34,30 +34,42 @@ function displayUserInfo(user) {
     }
 }
 
+let currentFilters = {};
+let listings;
+
 async function loadProperties(filters = {}) {
+    const container = document.getElementById('properties-container');
+    if (!container) return;
+
+    currentFilters = filters;
+    if (!listings) {
+        listings = new LoadMore(container,
+            cursor => propertyService.getPropertiesPage({ ...currentFilters, cursor }),
+            displayProperties);
+    }
     try {
-        const properties = await propertyService.getAllProperties(filters);
-        displayProperties(properties);
+        await listings.load();
     } catch (error) {
         console.error('Error loading properties:', error);
         showError('Failed to load properties');
     }
 }
 
-function displayProperties(properties) {
+function displayProperties(properties, append = false) {
     const container = document.getElementById('properties-container');
     if (!container) return;
 
-    if (properties.length === 0) {
+    if (!append && properties.length === 0) {
         container.innerHTML = '<p class="no-properties">No properties found.</p>';
         return;
     }
 
-    container.innerHTML = '';
+    if (!append) container.innerHTML = '';
     properties.forEach(property => {
         const card = new PropertyCard(property);
         container.appendChild(card.render());
     });
+    PropertyCard.markFavorites(container);
 }
 
 function setupFilters() {
@@ -7,30 +7,38 @@ document.addEventListener('DOMContentLoaded', async () => {
     await loadFavorites();
 });
 
+let saved;
+
 async function loadFavorites() {
+    const container = document.getElementById('favorites-container');
+    if (!container) return;
+
+    if (!saved) {
+        saved = new LoadMore(container, cursor => favoriteService.getFavoritesPage({ cursor }), displayFavorites);
+    }
     try {
-        const favorites = await favoriteService.getFavorites();
-        displayFavorites(favorites);
+        await saved.load();
     } catch (error) {
         console.error('Error loading favorites:', error);
         showError('Failed to load favorites');
     }
 }
 
-function displayFavorites(favorites) {
+function displayFavorites(favorites, append = false) {
     const container = document.getElementById('favorites-container');
     if (!container) return;
 
-    if (!favorites || favorites.length === 0) {
+    if (!append && (!favorites || favorites.length === 0)) {
         container.innerHTML = '<p class="no-favorites">You haven\'t favorited any properties yet.</p>';
         return;
     }
 
-    container.innerHTML = '';
+    if (!append) container.innerHTML = '';
     favorites.forEach(favorite => {
         const card = new PropertyCard(favorite.property);
         container.appendChild(card.render());
     });
+    PropertyCard.markFavorites(container);
 }
 
 function showError(message) {
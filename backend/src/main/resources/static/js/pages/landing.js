@@ -12,29 +12,33 @@ document.addEventListener('DOMContentLoaded', async () => {
 
 async function loadFeaturedProperties() {
     try {
-        const properties = await propertyService.getAllProperties();
-        displayProperties(properties.slice(0, 6)); // Show first 6 properties
+        const properties = await propertyService.getAllProperties({ size: 6 }); // Show first 6 properties
+        displayProperties(properties);
     } catch (error) {
         console.error('Error loading properties:', error);
     }
 }
 
-function displayProperties(properties) {
+function displayProperties(properties, append = false) {
     const container = document.getElementById('properties-container');
     if (!container) return;
 
-    if (properties.length === 0) {
+    if (!append && properties.length === 0) {
         container.innerHTML = '<p class="no-properties">No properties available at the moment.</p>';
         return;
     }
 
-    container.innerHTML = '';
+    if (!append) container.innerHTML = '';
     properties.forEach(property => {
         const card = new PropertyCard(property);
         container.appendChild(card.render());
     });
+    PropertyCard.markFavorites(container);
 }
 
+let searchFilters = {};
+let results;
+
 function setupSearch() {
     const searchForm = document.getElementById('search-form');
     if (!searchForm) return;
@@ -55,8 +59,13 @@ function setupSearch() {
         };
 
         try {
-            const properties = await propertyService.getAllProperties(filters);
-            displayProperties(properties);
+            if (!results) {
+                results = new LoadMore(document.getElementById('properties-container'),
+                    cursor => propertyService.getPropertiesPage({ ...searchFilters, cursor }),
+                    displayProperties);
+            }
+            searchFilters = filters;
+            await results.load();
             
             // Scroll to properties section
             document.getElementById('properties-section').scrollIntoView({ behavior: 'smooth' });
@@ -20,7 +20,7 @@ async function loadMyProperties() {
             authManager.saveUser(user);
         }
 
-        const properties = await propertyService.getPropertiesByAgentId(user.userId);
+        const properties = await propertyService.getAllPropertiesByAgentId(user.userId);
         displayProperties(properties);
     } catch (error) {
         console.error('Error loading properties:', error);
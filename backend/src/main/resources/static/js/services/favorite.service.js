@@ -1,9 +1,20 @@
 // Favorite Service
 class FavoriteService {
-    // Get all favorites for current user
-    async getFavorites() {
+    // Get one page of favorites for current user.
+    // Returns { items, nextCursor, size, hasMore }
+    async getFavoritesPage(options = {}) {
         try {
-            const response = await fetch(buildApiUrl(API_CONFIG.ENDPOINTS.FAVORITES.BASE), {
+            let url = buildApiUrl(API_CONFIG.ENDPOINTS.FAVORITES.BASE);
+            const params = new URLSearchParams();
+
+            if (options.cursor) params.append('cursor', options.cursor);
+            if (options.size) params.append('size', options.size);
+
+            if (params.toString()) {
+                url += '?' + params.toString();
+            }
+
+            const response = await fetch(url, {
                 method: 'GET',
                 headers: {
                     'Content-Type': 'application/json',
@@ -23,6 +34,12 @@ class FavoriteService {
         }
     }
 
+    // Get the first page of favorites for current user
+    async getFavorites(options = {}) {
+        const page = await this.getFavoritesPage(options);
+        return page.items;
+    }
+
     // Add property to favorites
     async addFavorite(propertyId) {
         try {
@@ -69,11 +86,39 @@ class FavoriteService {
         }
     }
 
-    // Check if property is favorited (by checking favorites list)
+    // Get favorited flags for a batch of property ids, one request per 100 ids.
+    // Returns { [propertyId]: true|false }
+    async getFavoritedStatus(propertyIds) {
+        if (propertyIds.length > 100) {
+            const status = {};
+            for (let i = 0; i < propertyIds.length; i += 100) {
+                Object.assign(status, await this.getFavoritedStatus(propertyIds.slice(i, i + 100)));
+            }
+            return status;
+        }
+        const params = new URLSearchParams({ propertyIds: propertyIds.join(',') });
+        const response = await fetch(buildApiUrl(API_CONFIG.ENDPOINTS.FAVORITES.STATUS) + '?' + params, {
+            method: 'GET',
+            headers: {
+                'Content-Type': 'application/json',
+                ...authManager.getAuthHeader()
+            }
+        });
+
+        const data = await response.json();
+
+        if (!response.ok) {
+            throw new Error(data.message || 'Failed to fetch favorite status');
+        }
+
+        return data;
+    }
+
+    // Check if property is favorited
     async isFavorited(propertyId) {
         try {
-            const favorites = await this.getFavorites();
-            return favorites.some(fav => fav.property.id === propertyId);
+            const status = await this.getFavoritedStatus([propertyId]);
+            return status[propertyId] === true;
         } catch (error) {
             return false;
         }
@@ -1,7 +1,8 @@
 // Property Service
 class PropertyService {
-    // Get all properties with optional filters
-    async getAllProperties(filters = {}) {
+    // Get one page of properties with optional filters.
+    // Returns { items, nextCursor, size, hasMore }; pass nextCursor back as filters.cursor for the next page.
+    async getPropertiesPage(filters = {}) {
         try {
             let url = buildApiUrl(API_CONFIG.ENDPOINTS.PROPERTIES.BASE);
             const params = new URLSearchParams();
@@ -10,6 +11,9 @@ class PropertyService {
             if (filters.minPrice) params.append('minPrice', filters.minPrice);
             if (filters.maxPrice) params.append('maxPrice', filters.maxPrice);
             if (filters.type) params.append('type', filters.type);
+            if (filters.sort) params.append('sort', filters.sort);
+            if (filters.cursor) params.append('cursor', filters.cursor);
+            if (filters.size) params.append('size', filters.size);
 
             if (params.toString()) {
                 url += '?' + params.toString();
@@ -35,6 +39,12 @@ class PropertyService {
         }
     }
 
+    // Get the first page of properties with optional filters
+    async getAllProperties(filters = {}) {
+        const page = await this.getPropertiesPage(filters);
+        return page.items;
+    }
+
     // Get property by ID
     async getPropertyById(id) {
         try {
@@ -58,10 +68,21 @@ class PropertyService {
         }
     }
 
-    // Get properties by agent ID
-    async getPropertiesByAgentId(agentId) {
+    // Get one page of properties by agent ID
+    async getPropertiesPageByAgentId(agentId, options = {}) {
         try {
-            const response = await fetch(buildApiUrl(API_CONFIG.ENDPOINTS.PROPERTIES.BY_AGENT(agentId)), {
+            let url = buildApiUrl(API_CONFIG.ENDPOINTS.PROPERTIES.BY_AGENT(agentId));
+            const params = new URLSearchParams();
+
+            if (options.sort) params.append('sort', options.sort);
+            if (options.cursor) params.append('cursor', options.cursor);
+            if (options.size) params.append('size', options.size);
+
+            if (params.toString()) {
+                url += '?' + params.toString();
+            }
+
+            const response = await fetch(url, {
                 method: 'GET',
                 headers: {
                     'Content-Type': 'application/json',
@@ -81,6 +102,24 @@ class PropertyService {
         }
     }
 
+    // Get the first page of properties by agent ID
+    async getPropertiesByAgentId(agentId, options = {}) {
+        const page = await this.getPropertiesPageByAgentId(agentId, options);
+        return page.items;
+    }
+
+    // Get every property of an agent, following the cursor 100 at a time (for counts and stats)
+    async getAllPropertiesByAgentId(agentId, options = {}) {
+        const properties = [];
+        let cursor = null;
+        do {
+            const page = await this.getPropertiesPageByAgentId(agentId, { ...options, cursor, size: 100 });
+            properties.push(...page.items);
+            cursor = page.nextCursor;
+        } while (cursor);
+        return properties;
+    }
+
     // Create property (agent only)
     async createProperty(propertyData) {
         try {
@@ -27,15 +27,36 @@ class UploadService {
         }
     }
 
-    // Upload multiple images
+    // Upload several images in one request; resolves to one { filename, url, error } per file, in order
+    async uploadImageBatch(files) {
+        const formData = new FormData();
+        Array.from(files).forEach(file => formData.append('files', file));
+
+        const response = await fetch(buildApiUrl(API_CONFIG.ENDPOINTS.UPLOAD_BATCH), {
+            method: 'POST',
+            headers: {
+                ...authManager.getAuthHeader()
+            },
+            body: formData
+        });
+
+        const data = await response.json();
+
+        if (!response.ok) {
+            throw new Error(data.message || 'Failed to upload images');
+        }
+
+        return data.files;
+    }
+
+    // Upload multiple images; resolves to their URLs in order, or fails if any file was rejected
     async uploadImages(files) {
-        try {
-            const uploadPromises = Array.from(files).map(file => this.uploadImage(file));
-            const imageUrls = await Promise.all(uploadPromises);
-            return imageUrls;
-        } catch (error) {
-            throw error;
+        const results = await this.uploadImageBatch(files);
+        const failed = results.filter(result => result.error);
+        if (failed.length > 0) {
+            throw new Error(failed.map(result => `${result.filename}: ${result.error}`).join('; '));
         }
+        return results.map(result => result.url);
     }
 
     // Validate image file
@@ -2,11 +2,13 @@ package com.realestate.rems;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 /**
  * Basic application context load test.
  */
 @SpringBootTest
+@ActiveProfiles("test")
 class RealEstateApplicationTests {
 
     @Test
@@ -0,0 +1,75 @@
+package com.realestate.rems.config;
+
+import com.realestate.rems.model.User;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the token handling done by {@link JwtAuthenticationFilter} per request:
+ * <ul>
+ *     <li>{@code legacyValidateThenExtract} - the previous path: validateToken + extractEmail,
+ *     each building a new parser and verifying the signature</li>
+ *     <li>{@code sharedParserUncached} - one verification with the shared parser (cache miss)</li>
+ *     <li>{@code cachedToken} - {@link JwtUtil#extractEmail} for a token already in the cache</li>
+ * </ul>
+ * Run with {@code mvn test-compile} and then the {@link #main} method (IDE or {@code java -cp}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-32-characters-long";
+
+    private SecretKey key;
+    private JwtParser sharedParser;
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        sharedParser = Jwts.parserBuilder().setSigningKey(key).build();
+        jwtUtil = new JwtUtil(SECRET, 3600000, 10000);
+        User client = new User();
+        client.setId(1L);
+        client.setEmail("client@example.com");
+        client.setRole("client");
+        token = jwtUtil.generateToken(client);
+        jwtUtil.extractEmail(token);
+    }
+
+    @Benchmark
+    public String legacyValidateThenExtract() {
+        Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String sharedParserUncached() {
+        return sharedParser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String cachedToken() {
+        return jwtUtil.extractEmail(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package com.realestate.rems.config;
+
+import com.realestate.rems.model.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "test-secret-key-that-is-at-least-32-characters-long";
+
+    @Test
+    void repeatedTokensAreServedFromCache() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60000, 100);
+        String token = jwtUtil.generateToken(user("client@example.com"));
+
+        assertEquals("client@example.com", jwtUtil.extractEmail(token));
+        assertSame(jwtUtil.parseToken(token), jwtUtil.parseToken(token));
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenAfterOriginalWasCached() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60000, 100);
+        String token = jwtUtil.generateToken(user("client@example.com"));
+        jwtUtil.parseToken(token);
+
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.parseToken(tampered));
+        assertFalse(jwtUtil.validateToken(tampered));
+        assertTrue(jwtUtil.validateToken(token));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, -1000, 100);
+        String token = jwtUtil.generateToken(user("client@example.com"));
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.parseToken(token));
+    }
+
+    @Test
+    void principalComesFromClaims() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60000, 100);
+        String token = jwtUtil.generateToken(user("agent@example.com"));
+
+        AuthenticatedUser principal = jwtUtil.extractUser(token);
+
+        assertEquals(42L, principal.getId());
+        assertEquals("agent@example.com", principal.getName());
+        assertEquals("ROLE_client", principal.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void tokenWithoutUserClaimsIsRejected() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60000, 100);
+        String legacyToken = Jwts.builder()
+                .setSubject("client@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertThrows(JwtException.class, () -> jwtUtil.extractUser(legacyToken));
+    }
+
+    @Test
+    void cacheStaysBounded() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60000, 10);
+        for (int i = 0; i < 50; i++) {
+            String token = jwtUtil.generateToken(user("client" + i + "@example.com"));
+            assertEquals("client" + i + "@example.com", jwtUtil.extractEmail(token));
+        }
+        assertTrue(jwtUtil.cachedTokenCount() <= 10);
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setId(42L);
+        user.setEmail(email);
+        user.setRole("client");
+        return user;
+    }
+}
@@ -0,0 +1,121 @@
+package com.realestate.rems.config;
+
+import com.realestate.rems.dto.PropertySummary;
+import com.realestate.rems.model.Property;
+import com.realestate.rems.repository.PropertyRepository;
+import com.realestate.rems.service.PropertyFilterIndex;
+import com.realestate.rems.service.PropertySearchIndex;
+import com.realestate.rems.service.PropertyService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two embedded databases stand in for the primary and a lagging replica: the replica holds a
+ * listing the primary does not, and never receives the writes made through the application.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+        "database.replicas.urls=" + ReplicaRoutingTest.REPLICA_URL
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final long AGENT_ID = 1L;
+    private static final long REPLICA_ONLY_ID = 1000L;
+
+    @Autowired
+    private PropertyService propertyService;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PropertySearchIndex searchIndex;
+
+    @Autowired
+    private PropertyFilterIndex filterIndex;
+
+    @BeforeAll
+    static void createDatabases() {
+        JdbcTemplate primary = migrate(PRIMARY_URL);
+        JdbcTemplate replica = migrate(REPLICA_URL);
+        for (JdbcTemplate db : List.of(primary, replica)) {
+            db.update("INSERT INTO users (id, created_at, email, enabled, role) "
+                    + "VALUES (?, CURRENT_TIMESTAMP, 'routing@example.com', TRUE, 'agent')", AGENT_ID);
+        }
+        replica.update("INSERT INTO properties (id, created_at, location, price, title, type, agent_id) "
+                + "VALUES (?, CURRENT_TIMESTAMP, 'Delft', 200000, 'Replica-only listing', 'buy', ?)",
+                REPLICA_ONLY_ID, AGENT_ID);
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsAreServedByTheReplica() {
+        assertTrue(propertyRepository.findById(REPLICA_ONLY_ID).isPresent());
+        // Work outside a transaction uses the primary
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM properties WHERE id = ?", Integer.class, REPLICA_ONLY_ID));
+    }
+
+    @Test
+    void agentsReadTheirOwnWritesFromThePrimary() throws InterruptedException {
+        awaitIndexes();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(AGENT_ID, "routing@example.com", "agent"), null, List.of()));
+        Long id = propertyService.addProperty(Property.builder()
+                .title("Fresh listing")
+                .location("Gouda")
+                .type("rent")
+                .price(new BigDecimal("1500"))
+                .build(), AGENT_ID).getId();
+
+        List<String> titles = propertyService.getPropertiesByAgentId(AGENT_ID, null, null, 20).getItems().stream()
+                .map(PropertySummary::getTitle)
+                .toList();
+        assertTrue(titles.contains("Fresh listing"));
+        assertTrue(propertyRepository.findById(id).isPresent());
+
+        // Anyone else still reads the replica, which has not seen the write
+        SecurityContextHolder.clearContext();
+        assertFalse(propertyRepository.findById(id).isPresent());
+    }
+
+    private void awaitIndexes() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!(searchIndex.isReady() && filterIndex.isReady()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static JdbcTemplate migrate(String url) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        return new JdbcTemplate(dataSource);
+    }
+}
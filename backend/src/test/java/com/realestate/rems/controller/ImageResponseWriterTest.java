@@ -0,0 +1,197 @@
+package com.realestate.rems.controller;
+
+import com.realestate.rems.repository.ImageStorage;
+import com.realestate.rems.repository.LocalImageStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ImageResponseWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private ImageStorage storage;
+    private ImageResponseWriter writer;
+    private SimpleMeterRegistry meterRegistry;
+    private Path file;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        storage = spy(new LocalImageStorage(dir.toString()));
+        writer = new ImageResponseWriter(storage, meterRegistry, 365, 4096, 64 * 1024, 16 * 1024);
+        content = new byte[10_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        file = Files.write(dir.resolve("photo.jpg"), content);
+    }
+
+    @Test
+    void fullResponseIsImmutableWithStrongETag() throws IOException {
+        MockHttpServletResponse response = get(new MockHttpServletRequest("GET", "/img"), false);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("\"tag-1\"", response.getHeader("ETag"));
+        assertEquals("public, max-age=31536000, immutable", response.getHeader("Cache-Control"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals("image/jpeg", response.getContentType());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void matchingETagGetsNotModified() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/img");
+        request.addHeader("If-None-Match", "\"other\", \"tag-1\"");
+
+        MockHttpServletResponse response = get(request, false);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void revalidationsAndHotHitsNeverAskTheStorage() throws IOException {
+        MockHttpServletRequest revalidation = new MockHttpServletRequest("GET", "/img");
+        revalidation.addHeader("If-None-Match", "\"tag-1\"");
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+        assertTrue(writer.writeCached(revalidation, notModified, "tag-1", MediaType.IMAGE_JPEG));
+        assertEquals(304, notModified.getStatus());
+        assertEquals("\"tag-1\"", notModified.getHeader("ETag"));
+
+        // A wildcard says nothing about this tag, so it needs the object to exist
+        MockHttpServletRequest wildcard = new MockHttpServletRequest("GET", "/img");
+        wildcard.addHeader("If-None-Match", "*");
+        assertFalse(writer.writeCached(wildcard, new MockHttpServletResponse(), "tag-1", MediaType.IMAGE_JPEG));
+
+        get(new MockHttpServletRequest("GET", "/img"), true);
+        clearInvocations(storage);
+        MockHttpServletRequest range = new MockHttpServletRequest("GET", "/img");
+        range.addHeader("Range", "bytes=100-199");
+        MockHttpServletResponse partial = new MockHttpServletResponse();
+        assertTrue(writer.writeCached(range, partial, "tag-1", MediaType.IMAGE_JPEG));
+        assertEquals(206, partial.getStatus());
+        assertEquals("bytes 100-199/10000", partial.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), partial.getContentAsByteArray());
+        assertEquals(200, get(new MockHttpServletRequest("GET", "/img"), true).getStatus());
+        verify(storage, never()).stat(anyString());
+        verify(storage, never()).get(anyString());
+    }
+
+    @Test
+    void sizesAreLookedUpOncePerKey() throws IOException {
+        get(new MockHttpServletRequest("GET", "/img"), false);
+        MockHttpServletResponse response = get(new MockHttpServletRequest("GET", "/img"), false);
+
+        assertArrayEquals(content, response.getContentAsByteArray());
+        verify(storage, times(1)).stat("photo.jpg");
+    }
+
+    @Test
+    void singleRangeGetsPartialContent() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/img");
+        request.addHeader("Range", "bytes=100-199");
+        MockHttpServletResponse response = get(request, false);
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 100-199/10000", response.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), response.getContentAsByteArray());
+
+        request = new MockHttpServletRequest("GET", "/img");
+        request.addHeader("Range", "bytes=-500");
+        response = get(request, false);
+        assertEquals("bytes 9500-9999/10000", response.getHeader("Content-Range"));
+        assertEquals(500, response.getContentAsByteArray().length);
+
+        request = new MockHttpServletRequest("GET", "/img");
+        request.addHeader("Range", "bytes=20000-");
+        response = get(request, false);
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10000", response.getHeader("Content-Range"));
+
+        // A range against a different version is ignored
+        request = new MockHttpServletRequest("GET", "/img");
+        request.addHeader("Range", "bytes=0-9");
+        request.addHeader("If-Range", "\"tag-0\"");
+        response = get(request, false);
+        assertEquals(200, response.getStatus());
+        assertEquals(content.length, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void largeFilesAreHandedToSendfileWhenSupported() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/img");
+        request.setAttribute(ImageResponseWriter.SENDFILE_SUPPORT, Boolean.TRUE);
+        request.addHeader("Range", "bytes=1000-");
+
+        MockHttpServletResponse response = get(request, false);
+
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute(ImageResponseWriter.SENDFILE_FILENAME));
+        assertEquals(1000L, request.getAttribute(ImageResponseWriter.SENDFILE_START));
+        assertEquals(10_000L, request.getAttribute(ImageResponseWriter.SENDFILE_END));
+        assertEquals(9000, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void hotFilesAreServedFromMemoryAfterTheFirstRead() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/img");
+        request.setAttribute(ImageResponseWriter.SENDFILE_SUPPORT, Boolean.TRUE);
+        get(request, true);
+
+        request = new MockHttpServletRequest("GET", "/img");
+        request.setAttribute(ImageResponseWriter.SENDFILE_SUPPORT, Boolean.TRUE);
+        MockHttpServletResponse response = get(request, true);
+
+        // Small enough for the cache, so written from memory rather than handed to sendfile
+        assertNull(request.getAttribute(ImageResponseWriter.SENDFILE_FILENAME));
+        assertArrayEquals(content, response.getContentAsByteArray());
+        assertEquals(1, writer.hotCacheEntries());
+        assertEquals(1.0, meterRegistry.get("rems.images.hot-cache.requests").tag("result", "hit").counter().count());
+        assertEquals(content.length, meterRegistry.get("rems.images.hot-cache.memory").gauge().value());
+    }
+
+    @Test
+    void hotCacheEvictsLeastRecentlyUsedBeyondItsByteLimit() {
+        ImageResponseWriter.HotImageCache cache = new ImageResponseWriter.HotImageCache(30, 20);
+        cache.put("a", new byte[10]);
+        cache.put("b", new byte[10]);
+        cache.get("a");
+        cache.put("c", new byte[10]);
+        cache.put("d", new byte[10]);
+        cache.put("too-big", new byte[21]);
+
+        assertEquals(30, cache.bytes());
+        assertNull(cache.get("b"));
+        assertNull(cache.get("too-big"));
+        assertEquals(10, cache.get("a").length);
+    }
+
+    private MockHttpServletResponse get(MockHttpServletRequest request, boolean hot) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(request, response, "photo.jpg", "tag-1", MediaType.IMAGE_JPEG, hot);
+        return response;
+    }
+}
@@ -0,0 +1,101 @@
+package com.realestate.rems.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Behaviour every {@link ImageStorage} must share; each implementation runs it against its own
+ * backing store.
+ */
+abstract class ImageStorageContractTest {
+
+    private static final String HASHED = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08.jpg";
+
+    protected abstract ImageStorage storage();
+
+    @Test
+    void storedContentIsReadBackWhole() throws IOException {
+        byte[] content = content(300_000);
+        storage().put(HASHED, new ByteArrayInputStream(content), content.length);
+
+        try (InputStream in = storage().get(HASHED)) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        ImageStorage.StoredObject stat = storage().stat(HASHED).orElseThrow();
+        assertEquals(content.length, stat.getSize());
+        assertTrue(Duration.between(stat.getLastModified(), Instant.now()).abs().toMinutes() < 5);
+    }
+
+    @Test
+    void rangesAreStreamed() throws IOException {
+        byte[] content = content(10_000);
+        storage().put("thumb/" + HASHED, new ByteArrayInputStream(content), content.length);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        storage().stream("thumb/" + HASHED, 1000, 1999, out);
+
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, 2000), out.toByteArray());
+    }
+
+    @Test
+    void putReplacesAndDeleteRemoves() throws IOException {
+        storage().put("legacy.png", new ByteArrayInputStream(new byte[] { 1, 2, 3 }), 3);
+        storage().put("legacy.png", new ByteArrayInputStream(new byte[] { 4, 5 }), 2);
+        assertEquals(2, storage().stat("legacy.png").orElseThrow().getSize());
+
+        assertTrue(storage().delete("legacy.png"));
+        assertFalse(storage().delete("legacy.png"));
+        assertTrue(storage().stat("legacy.png").isEmpty());
+    }
+
+    @Test
+    void missingKeysAreReported() throws IOException {
+        assertTrue(storage().stat("missing.jpg").isEmpty());
+        assertThrows(NoSuchFileException.class, () -> storage().get("missing.jpg").close());
+        assertThrows(NoSuchFileException.class,
+                () -> storage().stream("missing.jpg", 0, 10, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void listingReturnsEveryObjectByKey() throws IOException {
+        List<String> keys = List.of(HASHED, "thumb/" + HASHED, "legacy.png", "detail/legacy.jpg", "full/" + HASHED);
+        for (int i = 0; i < keys.size(); i++) {
+            storage().put(keys.get(i), new ByteArrayInputStream(content(10 + i)), 10 + i);
+        }
+
+        Map<String, Long> listed;
+        try (Stream<ImageStorage.ListedObject> objects = storage().list()) {
+            listed = objects.collect(Collectors.toMap(ImageStorage.ListedObject::getKey, ImageStorage.ListedObject::getSize));
+        }
+        assertEquals(keys.size(), listed.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(10L + i, listed.get(keys.get(i)));
+        }
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        return content;
+    }
+}
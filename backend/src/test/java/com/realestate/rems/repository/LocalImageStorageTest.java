@@ -0,0 +1,44 @@
+package com.realestate.rems.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalImageStorageTest extends ImageStorageContractTest {
+
+    @TempDir
+    Path dir;
+
+    private LocalImageStorage storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = new LocalImageStorage(dir.toString());
+    }
+
+    @Override
+    protected ImageStorage storage() {
+        return storage;
+    }
+
+    @Test
+    void contentAddressedKeysAreSharded() throws IOException {
+        String name = "ab" + "cd" + "0".repeat(60) + ".jpg";
+        storage.put("thumb/" + name, new ByteArrayInputStream(new byte[] { 1 }), 1);
+        storage.put("legacy.jpg", new ByteArrayInputStream(new byte[] { 1 }), 1);
+
+        assertTrue(Files.isRegularFile(dir.resolve("thumb/ab/cd/" + name)));
+        assertTrue(Files.isRegularFile(dir.resolve("legacy.jpg")));
+        assertEquals(dir.resolve("thumb/ab/cd/" + name), storage.localPath("thumb/" + name).orElseThrow());
+        assertThrows(IllegalArgumentException.class, () -> storage.stat("../outside.jpg"));
+    }
+}
@@ -0,0 +1,169 @@
+package com.realestate.rems.repository;
+
+import com.realestate.rems.dto.PropertySearchCriteria;
+import com.realestate.rems.dto.PropertySort;
+import com.realestate.rems.model.Property;
+import com.realestate.rems.model.User;
+import com.realestate.rems.service.PageCursor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that property listings only emit the predicates that were supplied.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.realestate.rems.repository.PropertyRepositorySqlTest$SqlCapture")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class PropertyRepositorySqlTest {
+
+    /**
+     * Records every SQL statement Hibernate prepares.
+     */
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final List<Property> fixtures = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User agent = new User();
+        agent.setEmail("agent@example.com");
+        agent.setPassword("secret123");
+        agent.setRole("agent");
+        entityManager.persist(agent);
+
+        String[][] rows = {
+                { "Sea view flat", "rent", "1200" },
+                { "Family house", "buy", "350000" },
+                { "Studio near park", "rent", "800" },
+                { "Loft with sea view", "buy", "420000" },
+                { "Garden cottage", "rent", "1500" }
+        };
+        for (String[] row : rows) {
+            Property property = Property.builder()
+                    .title(row[0])
+                    .description("Listing " + row[0])
+                    .location("Lisbon")
+                    .type(row[1])
+                    .price(new BigDecimal(row[2]))
+                    .agent(agent)
+                    .build();
+            fixtures.add(entityManager.persist(property));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SqlCapture.statements.clear();
+    }
+
+    static Stream<Arguments> filterCombinations() {
+        List<Arguments> combinations = new ArrayList<>();
+        for (int mask = 0; mask < 16; mask++) {
+            combinations.add(Arguments.of(
+                    (mask & 1) != 0 ? "sea" : null,
+                    (mask & 2) != 0 ? new BigDecimal("1000") : null,
+                    (mask & 4) != 0 ? new BigDecimal("400000") : null,
+                    (mask & 8) != 0 ? "rent" : null));
+        }
+        return combinations.stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("filterCombinations")
+    void emitsOnlySuppliedPredicates(String search, BigDecimal minPrice, BigDecimal maxPrice, String type) {
+        PropertySearchCriteria criteria = new PropertySearchCriteria(search, minPrice, maxPrice, type);
+
+        List<Property> page = propertyRepository.findPage(PropertySpecifications.matching(criteria),
+                PropertySpecifications.orderBy(PropertySort.PRICE_ASC), 10);
+
+        String sql = lastSelect();
+        assertEquals(search != null, sql.contains("like"), sql);
+        assertEquals(minPrice != null, sql.contains(".price>=?"), sql);
+        assertEquals(maxPrice != null, sql.contains(".price<=?"), sql);
+        assertEquals(type != null, sql.contains(".type=?"), sql);
+        assertFalse(sql.contains("isnull"), sql);
+        assertFalse(sql.contains("offset"), sql);
+        assertTrue(sql.contains("orderby"), sql);
+
+        List<Long> expected = fixtures.stream()
+                .filter(p -> search == null || p.getTitle().toLowerCase().contains(search))
+                .filter(p -> minPrice == null || p.getPrice().compareTo(minPrice) >= 0)
+                .filter(p -> maxPrice == null || p.getPrice().compareTo(maxPrice) <= 0)
+                .filter(p -> type == null || p.getType().equals(type))
+                .sorted((a, b) -> a.getPrice().compareTo(b.getPrice()))
+                .map(Property::getId)
+                .toList();
+        assertEquals(expected, page.stream().map(Property::getId).toList());
+    }
+
+    @Test
+    void keysetPagingUsesRangePredicateInsteadOfOffset() {
+        List<Long> seen = new ArrayList<>();
+        PageCursor cursor = null;
+        do {
+            List<Property> page = propertyRepository.findPage(
+                    PropertySpecifications.matching(new PropertySearchCriteria())
+                            .and(PropertySpecifications.after(PropertySort.NEWEST, cursor)),
+                    PropertySpecifications.orderBy(PropertySort.NEWEST), 2);
+            if (cursor != null) {
+                String sql = lastSelect();
+                assertTrue(sql.contains(".created_at<?"), sql);
+                assertFalse(sql.contains("offset"), sql);
+            }
+            page.forEach(p -> seen.add(p.getId()));
+            Property last = page.isEmpty() ? null : page.get(page.size() - 1);
+            cursor = page.size() < 2 ? null : new PageCursor("newest", last.getCreatedAt().toString(), last.getId());
+        } while (cursor != null);
+
+        List<Long> expected = fixtures.stream()
+                .sorted((a, b) -> {
+                    int byCreated = b.getCreatedAt().compareTo(a.getCreatedAt());
+                    return byCreated != 0 ? byCreated : b.getId().compareTo(a.getId());
+                })
+                .map(Property::getId)
+                .toList();
+        assertEquals(expected, seen);
+    }
+
+    private static String lastSelect() {
+        for (int i = SqlCapture.statements.size() - 1; i >= 0; i--) {
+            String sql = SqlCapture.statements.get(i).toLowerCase().replaceAll("\\s+", "");
+            if (sql.startsWith("select") && sql.contains("fromproperties")) {
+                return sql;
+            }
+        }
+        throw new AssertionError("No property select captured: " + SqlCapture.statements);
+    }
+}
@@ -0,0 +1,68 @@
+package com.realestate.rems.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the Flyway migrations create the indexes the listing queries rely on.
+ * Hibernate runs with ddl-auto=validate, so the context only starts if the schema matches the entities.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class SchemaMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void allMigrationsApplied() {
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT \"version\" FROM \"flyway_schema_history\" "
+                        + "WHERE \"version\" IS NOT NULL AND \"success\" = TRUE ORDER BY \"installed_rank\"",
+                String.class);
+        assertEquals(List.of("1", "2", "3", "4", "5"), versions);
+    }
+
+    @Test
+    void listingIndexesExist() {
+        assertEquals(List.of("type", "price"), indexColumns("properties", "idx_properties_type_price"));
+        assertEquals(List.of("agent_id", "created_at"), indexColumns("properties", "idx_properties_agent_created"));
+        assertEquals(List.of("created_at"), indexColumns("properties", "idx_properties_created"));
+        assertEquals(List.of("price"), indexColumns("properties", "idx_properties_price"));
+        assertEquals(List.of("property_id"), indexColumns("property_images", "idx_property_images_property"));
+        assertEquals(List.of("client_id"), indexColumns("favorites", "idx_favorites_client"));
+    }
+
+    @Test
+    void filteredListingUsesTypePriceIndex() {
+        String plan = explain("SELECT id FROM properties WHERE type = 'rent' AND price >= 100 ORDER BY price, id");
+        assertTrue(plan.contains("idx_properties_type_price"), plan);
+    }
+
+    @Test
+    void agentListingUsesAgentIndex() {
+        String plan = explain("SELECT id FROM properties WHERE agent_id = 1 ORDER BY created_at DESC, id DESC");
+        assertTrue(plan.contains("idx_properties_agent_created"), plan);
+    }
+
+    private List<String> indexColumns(String table, String index) {
+        return jdbcTemplate.queryForList(
+                "SELECT column_name FROM information_schema.index_columns "
+                        + "WHERE table_name = ? AND index_name = ? ORDER BY ordinal_position",
+                String.class, table, index);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toLowerCase();
+    }
+}
@@ -0,0 +1,63 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.exception.ResourceNotFoundException;
+import com.realestate.rems.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DatabaseCircuitBreakerTest {
+
+    private static final Supplier<String> DOWN = () -> {
+        throw new DataAccessResourceFailureException("Connection is not available");
+    };
+
+    @Test
+    void opensAfterConsecutiveDatabaseFailuresAndFailsFast() {
+        DatabaseCircuitBreaker breaker = new DatabaseCircuitBreaker(new SimpleMeterRegistry(), 3, 60_000);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> breaker.call(DOWN));
+        assertThrows(DataAccessResourceFailureException.class, () -> breaker.call(DOWN));
+        assertEquals("ok", breaker.call(() -> "ok"));
+        for (int i = 0; i < 3; i++) {
+            assertThrows(DataAccessResourceFailureException.class, () -> breaker.call(DOWN));
+        }
+
+        assertEquals(DatabaseCircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(ServiceUnavailableException.class, () -> breaker.call(() -> {
+            throw new AssertionError("called while open");
+        }));
+    }
+
+    @Test
+    void answersThatAreNotDatabaseFailuresKeepItClosed() {
+        DatabaseCircuitBreaker breaker = new DatabaseCircuitBreaker(new SimpleMeterRegistry(), 2, 60_000);
+        for (int i = 0; i < 5; i++) {
+            assertThrows(ResourceNotFoundException.class, () -> breaker.call(() -> {
+                throw new ResourceNotFoundException("Property not found");
+            }));
+        }
+        assertEquals(DatabaseCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void trialCallAfterTheOpenPeriodClosesOrReopens() throws InterruptedException {
+        DatabaseCircuitBreaker breaker = new DatabaseCircuitBreaker(new SimpleMeterRegistry(), 1, 50);
+        assertThrows(DataAccessResourceFailureException.class, () -> breaker.call(DOWN));
+        assertEquals(DatabaseCircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(80);
+        assertThrows(DataAccessResourceFailureException.class, () -> breaker.call(DOWN));
+        assertEquals(DatabaseCircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(ServiceUnavailableException.class, () -> breaker.call(() -> "too early"));
+
+        Thread.sleep(80);
+        assertEquals("back", breaker.call(() -> "back"));
+        assertEquals(DatabaseCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
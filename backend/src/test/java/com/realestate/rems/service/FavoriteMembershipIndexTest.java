@@ -0,0 +1,75 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.repository.FavoriteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FavoriteMembershipIndexTest {
+
+    private final FavoriteRepository favoriteRepository = mock(FavoriteRepository.class);
+
+    @Test
+    void loadsClientOnceAndAnswersBatches() {
+        when(favoriteRepository.findPropertyIdsByClientId(7L)).thenReturn(List.of(3L, 10L));
+        FavoriteMembershipIndex index = newIndex(30, 100);
+
+        Map<Long, Boolean> flags = index.favorited(7L, List.of(10L, 4L, 3L, -1L));
+
+        assertEquals(List.of(10L, 4L, 3L, -1L), List.copyOf(flags.keySet()));
+        assertEquals(List.of(true, false, true, false), List.copyOf(flags.values()));
+        assertTrue(index.isFavorited(7L, 3L));
+        verify(favoriteRepository, times(1)).findPropertyIdsByClientId(7L);
+    }
+
+    @Test
+    void followsAddsAndRemovesOfLoadedClients() {
+        when(favoriteRepository.findPropertyIdsByClientId(7L)).thenReturn(List.of(3L));
+        FavoriteMembershipIndex index = newIndex(30, 100);
+        index.isFavorited(7L, 3L);
+
+        index.onFavoriteChanged(FavoriteChangedEvent.added(7L, 5L));
+        index.onFavoriteChanged(FavoriteChangedEvent.removed(7L, 3L));
+        // Not loaded: ignored, read from the database on first use
+        index.onFavoriteChanged(FavoriteChangedEvent.added(8L, 5L));
+
+        assertTrue(index.isFavorited(7L, 5L));
+        assertFalse(index.isFavorited(7L, 3L));
+        assertEquals(1, index.loadedClients());
+    }
+
+    @Test
+    void evictsIdleAndLeastRecentlyUsedClients() throws InterruptedException {
+        when(favoriteRepository.findPropertyIdsByClientId(anyLong()))
+                .thenReturn(List.of(1L));
+        FavoriteMembershipIndex capped = newIndex(30, 2);
+        capped.isFavorited(1L, 1L);
+        Thread.sleep(5);
+        capped.isFavorited(2L, 1L);
+        Thread.sleep(5);
+        capped.isFavorited(3L, 1L);
+        capped.evictIdle();
+        assertEquals(2, capped.loadedClients());
+
+        FavoriteMembershipIndex idle = newIndex(0, 100);
+        idle.isFavorited(1L, 1L);
+        Thread.sleep(5);
+        idle.evictIdle();
+        assertEquals(0, idle.loadedClients());
+    }
+
+    private FavoriteMembershipIndex newIndex(long idleMinutes, int maxClients) {
+        return new FavoriteMembershipIndex(favoriteRepository, new SimpleMeterRegistry(), idleMinutes, maxClients);
+    }
+}
@@ -0,0 +1,138 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.dto.ImageBatchUploadDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:image-batch;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "images.batch.max-files=6",
+        "images.batch.max-file-bytes=300000",
+        "images.batch.threads=2",
+        "images.batch.queue-capacity=1" })
+@ActiveProfiles("test")
+class ImageBatchUploadServiceTest {
+
+    private static final String BOUNDARY = "rems-test-boundary";
+
+    @Autowired
+    private ImageBatchUploadService batchUploads;
+
+    @Autowired
+    private ImageService imageService;
+
+    @Test
+    void urlsFollowPartOrderAndRejectedFilesAreReported() throws Exception {
+        // Largest first, so the files finish storing out of order
+        Multipart body = new Multipart()
+                .file("large.png", "image/png", png(300, 200, 1))
+                .field("title", "Canal house")
+                .file("renamed.dat", "application/octet-stream", png(120, 90, 2))
+                .file("fake.jpg", "image/jpeg", "<html>not an image</html>".getBytes(StandardCharsets.UTF_8))
+                .file("small.png", "image/png", png(20, 10, 3));
+
+        ImageBatchUploadDTO result = batchUploads.upload(body.contentType(), null, body.stream());
+
+        List<ImageBatchUploadDTO.Item> files = result.getFiles();
+        assertEquals(List.of("large.png", "renamed.dat", "fake.jpg", "small.png"),
+                files.stream().map(ImageBatchUploadDTO.Item::getFilename).toList());
+        assertEquals(300, files.get(0).getImage().getWidth());
+        assertEquals(120, files.get(1).getImage().getWidth());
+        assertNull(files.get(2).getUrl());
+        assertTrue(files.get(2).getError().contains("Not a JPEG"));
+        assertEquals(20, files.get(3).getImage().getWidth());
+        assertEquals(List.of(files.get(0).getUrl(), files.get(1).getUrl(), files.get(3).getUrl()), result.getUrls());
+        assertEquals(1, result.getFailed());
+
+        String stored = files.get(1).getUrl().substring(ImageService.URL_PREFIX.length());
+        assertEquals(90, imageService.getInfo(stored).getHeight());
+    }
+
+    @Test
+    void limitsAreEnforced() throws Exception {
+        Multipart oversized = new Multipart()
+                .file("noise.png", "image/png", png(400, 400, 4))
+                .file("ok.png", "image/png", png(40, 40, 5));
+        ImageBatchUploadDTO result = batchUploads.upload(oversized.contentType(), null, oversized.stream());
+        assertTrue(result.getFiles().get(0).getError().contains("exceeds"));
+        assertEquals(1, result.getUrls().size());
+
+        Multipart tooMany = new Multipart();
+        for (int i = 0; i < 7; i++) {
+            tooMany.file(i + ".png", "image/png", png(10, 10, 10 + i));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> batchUploads.upload(tooMany.contentType(), null, tooMany.stream()));
+        assertThrows(IllegalArgumentException.class,
+                () -> batchUploads.upload("application/json", null, new ByteArrayInputStream(new byte[0])));
+    }
+
+    // Noise compresses poorly, so size grows with the pixel count
+    private static byte[] png(int width, int height, long seed) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(seed);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * A {@code multipart/form-data} body as a browser would send it.
+     */
+    private static class Multipart {
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        Multipart file(String filename, String contentType, byte[] content) throws IOException {
+            header("Content-Disposition: form-data; name=\"files\"; filename=\"" + filename + "\"\r\n"
+                    + "Content-Type: " + contentType + "\r\n");
+            body.write(content);
+            body.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+            return this;
+        }
+
+        Multipart field(String name, String value) throws IOException {
+            header("Content-Disposition: form-data; name=\"" + name + "\"\r\n");
+            body.write((value + "\r\n").getBytes(StandardCharsets.UTF_8));
+            return this;
+        }
+
+        String contentType() {
+            return "multipart/form-data; boundary=" + BOUNDARY;
+        }
+
+        ByteArrayInputStream stream() {
+            byte[] content = body.toByteArray();
+            byte[] end = ("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+            byte[] all = new byte[content.length + end.length];
+            System.arraycopy(content, 0, all, 0, content.length);
+            System.arraycopy(end, 0, all, content.length, end.length);
+            return new ByteArrayInputStream(all);
+        }
+
+        private void header(String headers) throws IOException {
+            body.write(("--" + BOUNDARY + "\r\n" + headers + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
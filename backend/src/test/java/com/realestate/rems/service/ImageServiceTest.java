@@ -0,0 +1,201 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.dto.ImageInfoDTO;
+import com.realestate.rems.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:image-service;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class ImageServiceTest {
+
+    // images.upload-dir of the test profile
+    private static final Path ROOT = Paths.get("target/test-uploads/images").toAbsolutePath();
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void uploadRecordsDimensionsAndProducesEveryVariant() throws Exception {
+        ImageInfoDTO info = imageService.store(png("listing.png", 3000, 2000));
+
+        String filename = info.getUrl().substring(ImageService.URL_PREFIX.length());
+        assertTrue(filename.matches("[0-9a-f]{64}\\.png"));
+        assertEquals(3000, info.getWidth());
+        assertEquals(2000, info.getHeight());
+        assertEquals(ImageService.URL_PREFIX + "thumb/" + filename, info.getVariants().get("thumb").getUrl());
+        assertEquals(480, info.getVariants().get("thumb").getWidth());
+        assertEquals(320, info.getVariants().get("thumb").getHeight());
+        assertEquals(1280, info.getVariants().get("detail").getWidth());
+        assertEquals(2560, info.getVariants().get("full").getWidth());
+        assertEquals(3000, imageService.getInfo(filename).getWidth());
+
+        // Written in the background, largest first
+        Path thumb = variantFile(ImageVariant.THUMB, filename);
+        for (int i = 0; i < 200 && !Files.exists(thumb); i++) {
+            Thread.sleep(50);
+        }
+        for (ImageVariant variant : ImageVariant.values()) {
+            Path file = variantFile(variant, filename);
+            ImageInfoDTO.Variant expected = info.getVariants().get(variant.getName());
+            assertEquals("jpeg", format(file));
+            BufferedImage image = ImageIO.read(file.toFile());
+            assertEquals(expected.getWidth(), image.getWidth());
+            assertEquals(expected.getHeight(), image.getHeight());
+        }
+    }
+
+    @Test
+    void identicalUploadsAreStoredOnce() throws Exception {
+        MockMultipartFile first = png("kitchen.png", 640, 480);
+        MockMultipartFile second = new MockMultipartFile("file", "kitchen-copy.png", "image/png", first.getBytes());
+
+        ImageInfoDTO stored = imageService.store(first);
+        ImageInfoDTO again = imageService.store(second);
+
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(first.getBytes()));
+        assertEquals(ImageService.URL_PREFIX + hash + ".png", stored.getUrl());
+        assertEquals(stored.getUrl(), again.getUrl());
+        Path original = ROOT.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash + ".png");
+        assertArrayEquals(first.getBytes(), Files.readAllBytes(original));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM uploaded_images WHERE filename = ?", Integer.class, hash + ".png"));
+        try (Stream<Path> files = Files.list(ROOT)) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void missingVariantIsProducedOnRequestWithoutMetadata() throws Exception {
+        // An original from before the pipeline: on disk, but with no derivatives yet
+        String filename = "legacy-" + System.nanoTime() + ".jpg";
+        Files.createDirectories(ROOT);
+        Files.write(ROOT.resolve(filename), jpegWithComment(800, 600));
+
+        String key = imageService.variantKey(filename, ImageVariant.DETAIL).orElseThrow();
+        Path detail = ROOT.resolve(key);
+
+        BufferedImage image = ImageIO.read(detail.toFile());
+        assertEquals(800, image.getWidth());
+        assertEquals(600, image.getHeight());
+        assertFalse(new String(Files.readAllBytes(detail), StandardCharsets.ISO_8859_1).contains("Camera serial"));
+        assertEquals(key, imageService.variantKey(filename, ImageVariant.DETAIL).orElseThrow());
+    }
+
+    @Test
+    void oversizedLegacyOriginalIsNotDecoded() throws Exception {
+        // Stored before uploads were probed; the header claims 50 megapixels
+        String filename = "legacy-" + System.nanoTime() + ".png";
+        Files.createDirectories(ROOT);
+        Files.write(ROOT.resolve(filename), pngHeader(10_000, 5_000));
+
+        assertTrue(imageService.variantKey(filename, ImageVariant.THUMB).isEmpty());
+        assertFalse(Files.exists(ROOT.resolve(ImageVariant.THUMB.getName()).resolve(
+                filename.substring(0, filename.length() - 4) + ".jpg")));
+    }
+
+    @Test
+    void rejectsFilesThatAreNotImages() {
+        MockMultipartFile text = new MockMultipartFile("file", "photo.jpg", "image/jpeg",
+                "not really a photo".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> imageService.store(text));
+        assertThrows(ResourceNotFoundException.class,
+                () -> imageService.variantKey("../application.yml", ImageVariant.THUMB));
+        assertThrows(ResourceNotFoundException.class,
+                () -> imageService.variantKey("missing.jpg", ImageVariant.THUMB));
+    }
+
+    private static Path variantFile(ImageVariant variant, String filename) {
+        String hash = filename.substring(0, 64);
+        return ROOT.resolve(variant.getName()).resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4))
+                .resolve(hash + ".jpg");
+    }
+
+    private static MockMultipartFile png(String name, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, width / 2, height);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return new MockMultipartFile("file", name, "image/png", out.toByteArray());
+    }
+
+    // A JPEG with a COM segment standing in for camera metadata
+    private static byte[] jpegWithComment(int width, int height) throws IOException {
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpeg", jpeg);
+        byte[] plain = jpeg.toByteArray();
+        byte[] comment = "Camera serial 12345".getBytes(StandardCharsets.ISO_8859_1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(plain, 0, 2);
+        out.write(0xFF);
+        out.write(0xFE);
+        out.write((comment.length + 2) >> 8);
+        out.write((comment.length + 2) & 0xFF);
+        out.write(comment);
+        out.write(plain, 2, plain.length - 2);
+        return out.toByteArray();
+    }
+
+    // Signature, IHDR and IEND of a 1-bit greyscale PNG, without any pixel data
+    private static byte[] pngHeader(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' });
+        ByteBuffer ihdr = ByteBuffer.allocate(13).putInt(width).putInt(height).put(new byte[] { 1, 0, 0, 0, 0 });
+        chunk(out, "IHDR", ihdr.array());
+        chunk(out, "IEND", new byte[0]);
+        return out.toByteArray();
+    }
+
+    private static void chunk(ByteArrayOutputStream out, String type, byte[] data) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        out.write(ByteBuffer.allocate(4).putInt(data.length).array());
+        out.write(typeBytes);
+        out.write(data);
+        out.write(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+
+    private static String format(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = ImageIO.getImageReaders(in).next();
+            return reader.getFormatName().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.dto.ImageInfoDTO;
+import com.realestate.rems.repository.ImageReferenceRepository;
+import com.realestate.rems.repository.ImageStorage;
+import com.realestate.rems.repository.UploadedImageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:image-sweeper;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "images.upload-dir=target/test-uploads/sweeper",
+        "images.sweeper.max-operations-per-second=0"
+})
+@ActiveProfiles("test")
+class OrphanImageSweeperTest {
+
+    @Autowired
+    private OrphanImageSweeper sweeper;
+
+    @Autowired
+    private ImageStorage imageStorage;
+
+    @Autowired
+    private UploadedImageRepository uploadedImageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @SpyBean
+    private ImageReferenceRepository imageReferenceRepository;
+
+    @Test
+    void deletesOldUnreferencedImagesWithTheirVariants() throws IOException {
+        String used = sha256("used");
+        String orphan = sha256("orphan");
+        String recent = sha256("recent");
+        String reuploaded = sha256("reuploaded");
+        long orphanBytes = store(orphan + ".png", 3) + store("thumb/" + orphan + ".jpg", 3);
+        store(used + ".jpg", 3);
+        store("detail/" + used + ".jpg", 3);
+        store(recent + ".jpg", 0);
+        store(reuploaded + ".gif", 3);
+        store("thumb/" + reuploaded + ".jpg", 3);
+        // Stored before uploads were recorded
+        String unrecorded = sha256("unrecorded");
+        orphanBytes += store(unrecorded + ".jpg", 3);
+
+        jdbcTemplate.update("INSERT INTO users (created_at, email, enabled, name, role) "
+                + "VALUES (CURRENT_TIMESTAMP, 'sweeper@example.com', TRUE, 'Agent', 'AGENT')");
+        jdbcTemplate.update("INSERT INTO properties (created_at, location, price, title, type, agent_id) "
+                + "SELECT CURRENT_TIMESTAMP, 'Utrecht', 1000, 'Flat', 'rent', id FROM users WHERE email = 'sweeper@example.com'");
+        jdbcTemplate.update("INSERT INTO property_images (property_id, image_url) SELECT id, ? FROM properties",
+                "https://cdn.example.com" + ImageService.URL_PREFIX + used + ".jpg?v=1");
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(3);
+        record(orphan + ".png", longAgo);
+        record(reuploaded + ".gif", LocalDateTime.now());
+
+        OrphanImageSweeper.Report report = sweeper.sweep();
+
+        assertEquals(8, report.getScanned());
+        assertEquals(3, report.getDeleted());
+        assertEquals(orphanBytes, report.getBytesReclaimed());
+        assertTrue(imageStorage.stat(orphan + ".png").isEmpty());
+        assertTrue(imageStorage.stat("thumb/" + orphan + ".jpg").isEmpty());
+        assertTrue(uploadedImageRepository.findByFilename(orphan + ".png").isEmpty());
+        assertTrue(imageStorage.stat(unrecorded + ".jpg").isEmpty());
+        assertTrue(uploadedImageRepository.findByFilename(unrecorded + ".jpg").isEmpty());
+        assertTrue(imageStorage.stat(used + ".jpg").isPresent());
+        assertTrue(imageStorage.stat("detail/" + used + ".jpg").isPresent());
+        assertTrue(imageStorage.stat(recent + ".jpg").isPresent());
+        assertTrue(imageStorage.stat("thumb/" + reuploaded + ".jpg").isPresent());
+    }
+
+    @Test
+    void imageReferencedAfterTheMarkPhaseIsKept() throws IOException {
+        String late = sha256("late");
+        store(late + ".jpg", 3);
+        store("thumb/" + late + ".jpg", 3);
+        jdbcTemplate.update("INSERT INTO users (created_at, email, enabled, name, role) "
+                + "VALUES (CURRENT_TIMESTAMP, 'late@example.com', TRUE, 'Agent', 'AGENT')");
+        jdbcTemplate.update("INSERT INTO properties (created_at, location, price, title, type, agent_id) "
+                + "SELECT CURRENT_TIMESTAMP, 'Delft', 900, 'Late flat', 'rent', id FROM users WHERE email = 'late@example.com'");
+        // Saved once the mark phase has read the listings, as an absolute URL with a query
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            jdbcTemplate.update("INSERT INTO property_images (property_id, image_url) "
+                            + "SELECT id, ? FROM properties WHERE title = 'Late flat'",
+                    "https://cdn.example.com" + ImageService.URL_PREFIX + late + ".jpg?w=800");
+            return null;
+        }).when(imageReferenceRepository).forEachImageUrl(any());
+
+        sweeper.sweep();
+
+        assertTrue(imageStorage.stat(late + ".jpg").isPresent());
+        assertTrue(imageStorage.stat("thumb/" + late + ".jpg").isPresent());
+        imageStorage.delete(late + ".jpg");
+        imageStorage.delete("thumb/" + late + ".jpg");
+    }
+
+    @Test
+    void uploadOfAnOriginalBeingDeletedWaitsAndStoresItAgain() throws Exception {
+        BufferedImage image = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        MockMultipartFile upload = new MockMultipartFile("file", "race.png", "image/png", png.toByteArray());
+        String filename = imageService.store(upload).getUrl().substring(ImageService.URL_PREFIX.length());
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(3);
+        jdbcTemplate.update("UPDATE uploaded_images SET last_uploaded_at = ? WHERE filename = ?", longAgo, filename);
+
+        // The sweeper's claim: record deleted, object deleted, then commit
+        CompletableFuture<ImageInfoDTO> reupload = new CompletableFuture<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertEquals(1, uploadedImageRepository.deleteUploadedBefore(filename, LocalDateTime.now().minusDays(1)));
+            new Thread(() -> {
+                try {
+                    reupload.complete(imageService.store(upload));
+                } catch (IOException | RuntimeException e) {
+                    reupload.completeExceptionally(e);
+                }
+            }).start();
+            try {
+                Thread.sleep(300);
+                assertFalse(reupload.isDone());
+                assertTrue(imageStorage.delete(filename));
+            } catch (InterruptedException | IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals(ImageService.URL_PREFIX + filename, reupload.get(10, TimeUnit.SECONDS).getUrl());
+        assertTrue(imageStorage.stat(filename).isPresent());
+        assertTrue(uploadedImageRepository.findByFilename(filename).isPresent());
+
+        // Leave the store as the other sweep found it; thumbnails are written last
+        String thumb = "thumb/" + filename.substring(0, 64) + ".jpg";
+        for (int i = 0; i < 200 && imageStorage.stat(thumb).isEmpty(); i++) {
+            Thread.sleep(50);
+        }
+        for (String key : new String[] { filename, thumb, "detail/" + thumb.substring(6), "full/" + thumb.substring(6) }) {
+            imageStorage.delete(key);
+        }
+    }
+
+    @Test
+    void referencedNamesMatchOriginalsAndVariantsOfAUrl() {
+        String hash = sha256("house");
+        OrphanImageSweeper.ReferencedNames names = new OrphanImageSweeper.ReferencedNames();
+        names.add(OrphanImageSweeper.name("/uploads/images/" + hash + ".jpeg#top"));
+        names.add(OrphanImageSweeper.name("/uploads/images/legacy_photo.png"));
+        names.add(OrphanImageSweeper.name("/uploads/images/"));
+        names.seal();
+
+        assertEquals(2, names.size());
+        assertTrue(names.contains(OrphanImageSweeper.name("full/" + hash + ".jpg")));
+        assertTrue(names.contains(OrphanImageSweeper.name("legacy_photo.png")));
+        assertFalse(names.contains(OrphanImageSweeper.name(sha256("other") + ".jpg")));
+        assertNull(OrphanImageSweeper.name("/uploads/images/"));
+    }
+
+    private long store(String key, int daysOld) throws IOException {
+        byte[] content = ("image " + key).getBytes(StandardCharsets.UTF_8);
+        imageStorage.put(key, new ByteArrayInputStream(content), content.length);
+        Files.setLastModifiedTime(imageStorage.localPath(key).orElseThrow(),
+                FileTime.from(Instant.now().minus(daysOld, ChronoUnit.DAYS)));
+        return content.length;
+    }
+
+    private void record(String filename, LocalDateTime uploadedAt) {
+        jdbcTemplate.update("INSERT INTO uploaded_images "
+                        + "(created_at, filename, content_type, width, height, size_bytes, last_uploaded_at) "
+                        + "VALUES (?, ?, 'image/png', 1, 1, 1, ?)", uploadedAt, filename, uploadedAt);
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
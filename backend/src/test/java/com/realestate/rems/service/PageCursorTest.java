@@ -0,0 +1,56 @@
+package com.realestate.rems.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    @Test
+    void tokensRoundTrip() {
+        PageCursor cursor = PageCursor.decode(new PageCursor("price_asc", "250.50", 42L).encode(), "price_asc");
+        assertEquals("price_asc", cursor.getSort());
+        assertEquals("250.50", cursor.getKey());
+        assertEquals(42L, cursor.getId());
+
+        // Timestamps contain ':' and '.', and favorites pages carry no key at all
+        PageCursor newest = PageCursor.decode(new PageCursor("newest", "2024-03-01T10:15:30.123456", 7L).encode());
+        assertEquals("2024-03-01T10:15:30.123456", newest.getKey());
+        PageCursor keyless = PageCursor.decode(new PageCursor("favorites", null, 9L).encode());
+        assertNull(keyless.getKey());
+        assertEquals(9L, keyless.getId());
+    }
+
+    @Test
+    void missingTokenMeansFirstPage() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode("  ", "newest"));
+    }
+
+    @Test
+    void rejectsMalformedOrForeignTokens() {
+        String priceToken = new PageCursor("price_asc", "100.00", 1L).encode();
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(priceToken, "newest"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encode("newest|2024-01-01T00:00")));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encode("newest|2024-01-01T00:00|x")));
+    }
+
+    @Test
+    void pageSizesAreClamped() {
+        assertEquals(PageCursor.DEFAULT_PAGE_SIZE, PageCursor.clampSize(null));
+        assertEquals(PageCursor.DEFAULT_PAGE_SIZE, PageCursor.clampSize(0));
+        assertEquals(PageCursor.DEFAULT_PAGE_SIZE, PageCursor.clampSize(-5));
+        assertEquals(1, PageCursor.clampSize(1));
+        assertEquals(PageCursor.MAX_PAGE_SIZE, PageCursor.clampSize(PageCursor.MAX_PAGE_SIZE + 1));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,102 @@
+package com.realestate.rems.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.rems.exception.ResourceNotFoundException;
+import com.realestate.rems.model.Property;
+import com.realestate.rems.model.User;
+import com.realestate.rems.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:property-detail-cache;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class PropertyDetailCacheTest {
+
+    @Autowired
+    private PropertyService propertyService;
+
+    @Autowired
+    private PropertyDetailCache detailCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void updatesAndDeletesAreVisibleOnTheNextRead() throws IOException {
+        User agent = new User();
+        agent.setEmail("cached@example.com");
+        agent.setPassword("secret123");
+        agent.setRole("agent");
+        Long agentId = userRepository.save(agent).getId();
+        Long id = propertyService.addProperty(Property.builder()
+                .title("Canal house")
+                .location("Leiden")
+                .type("buy")
+                .price(new BigDecimal("350000"))
+                .images(List.of("/uploads/images/a.jpg"))
+                .build(), agentId).getId();
+
+        byte[] first = propertyService.getPropertyJson(id);
+        assertSame(first, propertyService.getPropertyJson(id));
+        JsonNode body = objectMapper.readTree(first);
+        assertEquals("Canal house", body.get("title").asText());
+        assertEquals("/uploads/images/a.jpg", body.get("images").get(0).asText());
+
+        Property changes = new Property();
+        changes.setTitle("Canal house with garden");
+        propertyService.updateProperty(id, changes, agentId);
+        assertNull(detailCache.get(id));
+        assertEquals("Canal house with garden",
+                objectMapper.readTree(propertyService.getPropertyJson(id)).get("title").asText());
+
+        propertyService.deleteProperty(id, agentId);
+        assertThrows(ResourceNotFoundException.class, () -> propertyService.getPropertyJson(id));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBodiesBeyondTheByteCap() {
+        PropertyDetailCache cache = new PropertyDetailCache(new SimpleMeterRegistry(), 100, 60);
+        long generation = cache.generation();
+        cache.put(1L, new byte[40], generation);
+        cache.put(2L, new byte[40], generation);
+        assertNotNull(cache.get(1L));
+        cache.put(3L, new byte[40], generation);
+
+        assertEquals(80, cache.bytes());
+        assertNull(cache.get(2L));
+        assertNotNull(cache.get(1L));
+        cache.put(4L, new byte[61], generation);
+        assertNull(cache.get(4L));
+    }
+
+    @Test
+    void bodyLoadedBeforeAnInvalidationIsNotCached() {
+        PropertyDetailCache cache = new PropertyDetailCache(new SimpleMeterRegistry(), 1000, 1000);
+        long loadedAt = cache.generation();
+        cache.invalidate(7L);
+        cache.put(7L, new byte[] { 1 }, loadedAt);
+        assertNull(cache.get(7L));
+
+        cache.put(7L, new byte[] { 2 }, cache.generation());
+        assertArrayEquals(new byte[] { 2 }, cache.get(7L));
+    }
+}
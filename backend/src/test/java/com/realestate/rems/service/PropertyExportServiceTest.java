@@ -0,0 +1,175 @@
+package com.realestate.rems.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.rems.dto.PropertyDataFormat;
+import com.realestate.rems.dto.PropertyImportReportDTO;
+import com.realestate.rems.dto.PropertySearchCriteria;
+import com.realestate.rems.model.User;
+import com.realestate.rems.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:property-export;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "export.fetch-size=50" })
+@ActiveProfiles("test")
+class PropertyExportServiceTest {
+
+    @Autowired
+    private PropertyExportService exportService;
+
+    @Autowired
+    private PropertyImportService importService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void ndjsonExportAppliesTheSearchFilters() throws IOException {
+        Long agentId = newAgent();
+        importCsv(agentId, """
+                title,description,price,location,type,images
+                Canal house,Garden,450000,Amsterdam,buy,/uploads/images/a.jpg|/uploads/images/b.jpg
+                Harbour loft,,2500,Rotterdam,rent,
+                Dune cottage,Near the beach,1800,Haarlem,rent,/uploads/images/c.jpg
+                """);
+
+        PropertySearchCriteria criteria = new PropertySearchCriteria(null, null, new BigDecimal("2000"), "rent");
+        criteria.setAgentId(agentId);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = exportService.export(criteria, PropertyDataFormat.NDJSON, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(1, written);
+        assertEquals(1, lines.size());
+        JsonNode row = objectMapper.readTree(lines.get(0));
+        assertEquals("Dune cottage", row.get("title").asText());
+        assertEquals(agentId.longValue(), row.get("agentId").asLong());
+        assertEquals("/uploads/images/c.jpg", row.get("images").get(0).asText());
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+    }
+
+    @Test
+    void csvExportCanBeImportedAgain() throws IOException {
+        Long sourceAgent = newAgent();
+        String rows = IntStream.rangeClosed(1, 120)
+                .mapToObj(i -> "Listing " + i + ",\"Room " + i + ", quiet\"," + (1000 + i) + ",Utrecht,rent,"
+                        + (i % 3 == 0 ? "" : "/uploads/images/" + i + "a.jpg|/uploads/images/" + i + "b.jpg"))
+                .collect(Collectors.joining("\n"));
+        importCsv(sourceAgent, "title,description,price,location,type,images\n" + rows + "\n");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = exportService.export(PropertySearchCriteria.forAgent(sourceAgent), PropertyDataFormat.CSV, out);
+        assertEquals(120, written);
+        assertTrue(out.toString(StandardCharsets.UTF_8).startsWith(
+                "id,title,description,price,location,type,images,agentId,createdAt\n"));
+
+        Long copyAgent = newAgent();
+        PropertyImportReportDTO report = importService.importProperties(
+                new ByteArrayInputStream(out.toByteArray()), PropertyDataFormat.CSV, copyAgent);
+        assertEquals(120, report.getImported());
+
+        ByteArrayOutputStream original = new ByteArrayOutputStream();
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        exportService.export(PropertySearchCriteria.forAgent(sourceAgent), PropertyDataFormat.NDJSON, original);
+        exportService.export(PropertySearchCriteria.forAgent(copyAgent), PropertyDataFormat.NDJSON, copy);
+        assertEquals(content(original), content(copy));
+    }
+
+    @Test
+    void failedWriteStopsTheExport() throws IOException {
+        Long agentId = newAgent();
+        String rows = IntStream.rangeClosed(1, 1000)
+                .mapToObj(i -> "Listing " + i + ",,1000,Delft,rent,")
+                .collect(Collectors.joining("\n"));
+        importCsv(agentId, "title,description,price,location,type,images\n" + rows + "\n");
+
+        DisconnectingStream client = new DisconnectingStream(4096);
+        assertThrows(IOException.class, () ->
+                exportService.export(PropertySearchCriteria.forAgent(agentId), PropertyDataFormat.NDJSON, client));
+        // The failed flush and the writer's closing flush; reading on would have failed every 200 rows
+        assertTrue(client.failedWrites <= 2);
+
+        // The cursor and its connection were released: the next export runs to the end
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(1000, exportService.export(PropertySearchCriteria.forAgent(agentId), PropertyDataFormat.NDJSON, out));
+    }
+
+    private Long newAgent() {
+        User agent = new User();
+        agent.setEmail("exporter-" + UUID.randomUUID() + "@example.com");
+        agent.setPassword("secret123");
+        agent.setRole("agent");
+        return userRepository.save(agent).getId();
+    }
+
+    private void importCsv(Long agentId, String csv) throws IOException {
+        PropertyImportReportDTO report = importService.importProperties(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), PropertyDataFormat.CSV, agentId);
+        assertEquals(0, report.getFailed());
+    }
+
+    /**
+     * Listing fields of an NDJSON export, without the columns that differ between copies.
+     */
+    private List<String> content(ByteArrayOutputStream ndjson) throws IOException {
+        List<String> rows = new ArrayList<>();
+        for (String line : ndjson.toString(StandardCharsets.UTF_8).lines().toList()) {
+            JsonNode row = objectMapper.readTree(line);
+            rows.add(row.get("title").asText() + "|" + row.get("description").asText() + "|"
+                    + row.get("price").decimalValue().stripTrailingZeros().toPlainString() + "|"
+                    + row.get("location").asText() + "|" + row.get("type").asText() + "|" + row.get("images"));
+        }
+        return rows;
+    }
+
+    /**
+     * Accepts a number of bytes, then fails every write the way a closed client connection does.
+     */
+    private static class DisconnectingStream extends OutputStream {
+
+        private int remaining;
+        private int failedWrites;
+
+        DisconnectingStream(int capacity) {
+            this.remaining = capacity;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > remaining) {
+                failedWrites++;
+                remaining = 0;
+                throw new IOException("Broken pipe");
+            }
+            remaining -= len;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.dto.CursorPageDTO;
+import com.realestate.rems.dto.PropertySearchCriteria;
+import com.realestate.rems.dto.PropertySort;
+import com.realestate.rems.dto.PropertySummary;
+import com.realestate.rems.model.Property;
+import com.realestate.rems.repository.PropertyRepository;
+import com.realestate.rems.repository.PropertySpecifications;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pages through a fixture with ties on price and creation time and checks that the filter index,
+ * the database keyset path and the service agree with a plain sort, for every sort order.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:property-filter-index;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class PropertyFilterIndexTest {
+
+    private static final List<PropertySort> SORTS = List.of(PropertySort.PRICE_ASC, PropertySort.PRICE_DESC,
+            PropertySort.NEWEST);
+    private static final int[] PAGE_SIZES = { 1, 2, 3, 5, 50 };
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    // Ids deliberately out of price and time order, so ties are broken by id and nothing else
+    private static final List<Row> FIXTURE = List.of(
+            new Row(7, "100.00", "buy", 1, T0),
+            new Row(3, "100.00", "rent", 2, T0),
+            new Row(12, "100.00", "buy", 2, T0.plusSeconds(5)),
+            new Row(1, "250.50", "rent", 1, T0.plusSeconds(5)),
+            new Row(9, "250.50", "buy", 2, T0.plusSeconds(5)),
+            new Row(4, "250.50", "rent", 2, T0.plusNanos(1_000)),
+            new Row(11, "80.00", "rent", 1, T0.minusDays(1)),
+            new Row(2, "999.99", "buy", 1, T0.plusDays(1)),
+            new Row(10, "100.01", "buy", 2, T0.minusDays(1)),
+            new Row(5, "1500.00", "rent", 2, T0.plusDays(1)),
+            new Row(8, "250.49", "buy", 1, T0.plusNanos(1_000)),
+            new Row(6, "250.50", "buy", 1, T0));
+
+    @Autowired
+    private PropertyFilterIndex filterIndex;
+
+    @Autowired
+    private PropertySearchIndex searchIndex;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private PropertyService propertyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void loadFixture() throws InterruptedException {
+        awaitIndexes();
+        jdbcTemplate.update("DELETE FROM properties");
+        jdbcTemplate.update("DELETE FROM users");
+        for (long agentId = 1; agentId <= 2; agentId++) {
+            jdbcTemplate.update("INSERT INTO users (id, created_at, email, enabled, role) VALUES (?, ?, ?, TRUE, 'agent')",
+                    agentId, T0, "filter-index-" + agentId + "@example.com");
+        }
+        for (Row row : FIXTURE) {
+            insert(row);
+        }
+        filterIndex.rebuild();
+    }
+
+    @Test
+    void indexAndDatabasePageIdenticallyThroughTies() {
+        for (PropertySearchCriteria criteria : criteria()) {
+            for (PropertySort sort : SORTS) {
+                List<Long> expected = expected(FIXTURE, criteria, sort);
+                for (int pageSize : PAGE_SIZES) {
+                    String label = describe(criteria) + " " + sort + " by " + pageSize;
+                    assertEquals(expected, pageThroughIndex(criteria, sort, pageSize), "index, " + label);
+                    assertEquals(expected, pageThroughDatabase(criteria, sort, pageSize), "database, " + label);
+                }
+            }
+        }
+    }
+
+    @Test
+    void serviceFollowsNextCursorAcrossPages() {
+        for (PropertySort sort : SORTS) {
+            PropertySearchCriteria criteria = new PropertySearchCriteria(null, new BigDecimal("100"), null, null);
+            List<Long> expected = expected(FIXTURE, criteria, sort);
+
+            List<Long> ids = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                CursorPageDTO<PropertySummary> page = propertyService.searchProperties(criteria, sort, cursor, 4);
+                page.getItems().forEach(item -> ids.add(item.getId()));
+                cursor = page.getNextCursor();
+                pages++;
+            } while (cursor != null);
+
+            assertEquals(expected, ids, sort.toString());
+            assertEquals(3, pages, sort.toString());
+        }
+    }
+
+    @Test
+    void followsWritesAfterTheBuild() {
+        // Move an item across a tie, add one into the middle of another and delete a third
+        jdbcTemplate.update("UPDATE properties SET price = ?, created_at = ? WHERE id = 9",
+                new BigDecimal("100.00"), T0);
+        filterIndex.onPropertyChanged(PropertyChangedEvent.updated(propertyRepository.findById(9L).orElseThrow()));
+        Row added = new Row(13, "250.50", "rent", 1, T0.plusSeconds(5));
+        insert(added);
+        filterIndex.onPropertyChanged(PropertyChangedEvent.created(propertyRepository.findById(13L).orElseThrow()));
+        jdbcTemplate.update("DELETE FROM properties WHERE id = 7");
+        filterIndex.onPropertyChanged(PropertyChangedEvent.deleted(7L));
+
+        List<Row> rows = new ArrayList<>();
+        for (Row row : FIXTURE) {
+            if (row.id == 9) {
+                rows.add(new Row(9, "100.00", row.type, row.agentId, T0));
+            } else if (row.id != 7) {
+                rows.add(row);
+            }
+        }
+        rows.add(added);
+
+        assertEquals(rows.size(), filterIndex.size());
+        for (PropertySearchCriteria criteria : criteria()) {
+            for (PropertySort sort : SORTS) {
+                List<Long> expected = expected(rows, criteria, sort);
+                assertEquals(expected, pageThroughIndex(criteria, sort, 2), describe(criteria) + " " + sort);
+                assertEquals(expected, pageThroughDatabase(criteria, sort, 2), describe(criteria) + " " + sort);
+            }
+        }
+    }
+
+    @Test
+    void importedBatchesAreMergedIntoTheColumns() {
+        // Ties with existing rows and within the batch, before, between and after them
+        List<Row> batch = List.of(
+                new Row(20, "100.00", "buy", 1, T0),
+                new Row(14, "100.00", "rent", 2, T0.plusSeconds(5)),
+                new Row(17, "5.00", "buy", 2, T0.minusDays(2)),
+                new Row(15, "5000.00", "rent", 1, T0.plusDays(2)),
+                new Row(13, "250.50", "buy", 1, T0.plusNanos(1_000)),
+                new Row(16, "250.50", "buy", 1, T0.plusNanos(1_000)));
+        batch.forEach(this::insert);
+        filterIndex.onPropertiesCreated(new PropertiesCreatedEvent(
+                propertyRepository.findAllById(batch.stream().map(row -> row.id).collect(Collectors.toList()))));
+
+        List<Row> rows = new ArrayList<>(FIXTURE);
+        rows.addAll(batch);
+        assertEquals(rows.size(), filterIndex.size());
+        for (PropertySearchCriteria criteria : criteria()) {
+            for (PropertySort sort : SORTS) {
+                List<Long> expected = expected(rows, criteria, sort);
+                assertEquals(expected, pageThroughIndex(criteria, sort, 3), describe(criteria) + " " + sort);
+                assertEquals(expected, pageThroughDatabase(criteria, sort, 3), describe(criteria) + " " + sort);
+            }
+        }
+    }
+
+    private List<Long> pageThroughIndex(PropertySearchCriteria criteria, PropertySort sort, int pageSize) {
+        return pageThrough(sort, pageSize, after -> filterIndex.findPage(criteria, sort, after, pageSize));
+    }
+
+    private List<Long> pageThroughDatabase(PropertySearchCriteria criteria, PropertySort sort, int pageSize) {
+        return pageThrough(sort, pageSize, after -> propertyRepository.findPage(
+                        PropertySpecifications.matching(criteria).and(PropertySpecifications.after(sort, after)),
+                        PropertySpecifications.orderBy(sort), pageSize)
+                .stream().map(Property::getId).collect(Collectors.toList()));
+    }
+
+    /**
+     * Walk every page, building each cursor the way PropertyService does from the last row.
+     */
+    private List<Long> pageThrough(PropertySort sort, int pageSize, Function<PageCursor, List<Long>> fetch) {
+        Map<Long, Property> byId = propertyRepository.findAll().stream()
+                .collect(Collectors.toMap(Property::getId, Function.identity()));
+        List<Long> ids = new ArrayList<>();
+        PageCursor after = null;
+        while (true) {
+            List<Long> page = fetch.apply(after);
+            assertTrue(page.size() <= pageSize);
+            ids.addAll(page);
+            // A cursor that does not advance would page forever
+            assertTrue(ids.size() <= byId.size(), "paging repeats rows: " + ids);
+            if (page.size() < pageSize) {
+                return ids;
+            }
+            Property last = byId.get(page.get(page.size() - 1));
+            String key = sort == PropertySort.NEWEST ? last.getCreatedAt().toString() : last.getPrice().toPlainString();
+            // Round-trip the token as a client would
+            after = PageCursor.decode(new PageCursor(sort.getParam(), key, last.getId()).encode(), sort.getParam());
+        }
+    }
+
+    private static List<PropertySearchCriteria> criteria() {
+        List<PropertySearchCriteria> all = new ArrayList<>();
+        all.add(new PropertySearchCriteria());
+        all.add(new PropertySearchCriteria(null, null, null, "rent"));
+        // Bounds that sit exactly on tied prices
+        all.add(new PropertySearchCriteria(null, new BigDecimal("100.00"), new BigDecimal("250.50"), null));
+        all.add(new PropertySearchCriteria(null, new BigDecimal("100.001"), new BigDecimal("250.499"), null));
+        all.add(new PropertySearchCriteria(null, null, new BigDecimal("99"), "rent"));
+        all.add(new PropertySearchCriteria(null, new BigDecimal("500"), new BigDecimal("400"), null));
+        all.add(new PropertySearchCriteria(null, null, null, "sold"));
+        PropertySearchCriteria agent = PropertySearchCriteria.forAgent(2L);
+        agent.setMinPrice(new BigDecimal("100"));
+        all.add(agent);
+        PropertySearchCriteria agentAndType = PropertySearchCriteria.forAgent(1L);
+        agentAndType.setType("buy");
+        all.add(agentAndType);
+        return all;
+    }
+
+    private static List<Long> expected(List<Row> rows, PropertySearchCriteria criteria, PropertySort sort) {
+        Comparator<Row> order = switch (sort) {
+            case PRICE_ASC -> Comparator.comparing((Row r) -> r.price).thenComparingLong(r -> r.id);
+            case PRICE_DESC -> Comparator.comparing((Row r) -> r.price).thenComparingLong(r -> r.id).reversed();
+            case NEWEST -> Comparator.comparing((Row r) -> r.createdAt).thenComparingLong(r -> r.id).reversed();
+            default -> throw new IllegalArgumentException(sort.toString());
+        };
+        return rows.stream()
+                .filter(r -> criteria.getMinPrice() == null || r.price.compareTo(criteria.getMinPrice()) >= 0)
+                .filter(r -> criteria.getMaxPrice() == null || r.price.compareTo(criteria.getMaxPrice()) <= 0)
+                .filter(r -> criteria.getType() == null || r.type.equals(criteria.getType()))
+                .filter(r -> criteria.getAgentId() == null || r.agentId == criteria.getAgentId())
+                .sorted(order)
+                .map(r -> r.id)
+                .collect(Collectors.toList());
+    }
+
+    private void insert(Row row) {
+        jdbcTemplate.update("INSERT INTO properties (id, created_at, location, price, title, type, agent_id) "
+                        + "VALUES (?, ?, 'Delft', ?, ?, ?, ?)",
+                row.id, row.createdAt, row.price, "Listing " + row.id, row.type, row.agentId);
+    }
+
+    private static String describe(PropertySearchCriteria c) {
+        return "[min=" + c.getMinPrice() + " max=" + c.getMaxPrice() + " type=" + c.getType()
+                + " agent=" + c.getAgentId() + "]";
+    }
+
+    private void awaitIndexes() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!(searchIndex.isReady() && filterIndex.isReady()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static final class Row {
+        private final long id;
+        private final BigDecimal price;
+        private final String type;
+        private final long agentId;
+        private final LocalDateTime createdAt;
+
+        Row(long id, String price, String type, long agentId, LocalDateTime createdAt) {
+            this.id = id;
+            this.price = new BigDecimal(price);
+            this.type = type;
+            this.agentId = agentId;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.dto.CursorPageDTO;
+import com.realestate.rems.dto.PropertyDataFormat;
+import com.realestate.rems.dto.PropertyImportReportDTO;
+import com.realestate.rems.dto.PropertySearchCriteria;
+import com.realestate.rems.dto.PropertySort;
+import com.realestate.rems.dto.PropertySummary;
+import com.realestate.rems.model.User;
+import com.realestate.rems.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:property-import;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class PropertyImportServiceTest {
+
+    @Autowired
+    private PropertyImportService importService;
+
+    @Autowired
+    private PropertyService propertyService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long agentId;
+
+    @BeforeEach
+    void setUp() {
+        // A fresh agent per test keeps the assertions independent of earlier imports
+        User agent = new User();
+        agent.setEmail("importer-" + UUID.randomUUID() + "@example.com");
+        agent.setPassword("secret123");
+        agent.setRole("agent");
+        agentId = userRepository.save(agent).getId();
+    }
+
+    @Test
+    void csvImportReportsInvalidRowsAndSavesTheRest() throws IOException {
+        String csv = """
+                title,description,price,location,type,images
+                Canal house,"Three floors, garden",450000,Amsterdam,buy,/uploads/images/a.jpg|/uploads/images/b.jpg
+                ,No title,1200,Utrecht,rent,
+                Attic room,"Quiet
+                top floor",-5,Leiden,rent,
+                Studio,Compact,not-a-number,Delft,rent,
+                Harbour loft,,2500.50,Rotterdam,rent,
+                """;
+
+        PropertyImportReportDTO report = importService.importProperties(stream(csv), PropertyDataFormat.CSV, agentId);
+
+        assertEquals(5, report.getRowsRead());
+        assertEquals(2, report.getImported());
+        assertEquals(3, report.getFailed());
+        assertEquals(List.of(2L, 3L, 4L), report.getErrors().stream().map(PropertyImportReportDTO.RowError::getRow).toList());
+        assertEquals("Title is required", report.getErrors().get(0).getMessage());
+        assertEquals("Price must be positive", report.getErrors().get(1).getMessage());
+        assertTrue(report.getErrors().get(2).getMessage().startsWith("Unreadable row"));
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM property_images i JOIN properties p ON p.id = i.property_id "
+                        + "WHERE p.title = 'Canal house'", Integer.class));
+        assertEquals("Three floors, garden", jdbcTemplate.queryForObject(
+                "SELECT description FROM properties WHERE title = 'Canal house'", String.class));
+    }
+
+    @Test
+    void ndjsonImportSkipsBlankAndBrokenLines() throws IOException {
+        String ndjson = """
+                {"title":"Dune villa","price":890000,"location":"Bergen","type":"buy","images":["/uploads/images/v.jpg"]}
+
+                {"title":"Broken",
+                {"title":"Dock flat","price":1400,"location":"Den Helder","type":"rent","extra":"ignored"}
+                """;
+
+        PropertyImportReportDTO report = importService.importProperties(stream(ndjson), PropertyDataFormat.NDJSON, agentId);
+
+        assertEquals(3, report.getRowsRead());
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(3L, report.getErrors().get(0).getRow());
+    }
+
+    @Test
+    void largeImportIsWrittenInBatchesAndIndexed() throws IOException {
+        int rows = PropertyImportService.BATCH_SIZE * 2 + 17;
+        InputStream header = stream("title,price,location,type\n");
+        List<InputStream> lines = IntStream.range(0, rows)
+                .mapToObj(i -> stream("Polder farm " + i + "," + (100000 + i) + ",Zeeland,buy\n"))
+                .toList();
+        InputStream csv = new SequenceInputStream(header,
+                new SequenceInputStream(Collections.enumeration(lines)));
+
+        PropertyImportReportDTO report = importService.importProperties(csv, PropertyDataFormat.CSV, agentId);
+
+        assertEquals(rows, report.getImported());
+        assertEquals(0, report.getFailed());
+        assertFalse(report.isErrorsTruncated());
+        assertEquals(rows, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM properties WHERE agent_id = ?", Integer.class, agentId));
+
+        CursorPageDTO<PropertySummary> page = propertyService.getPropertiesByAgentId(agentId, PropertySort.PRICE_DESC, null, 1);
+        assertEquals("Polder farm " + (rows - 1), page.getItems().get(0).getTitle());
+        CursorPageDTO<PropertySummary> search = propertyService.searchProperties(
+                new PropertySearchCriteria("polder farm", null, null, null), null, null, 5);
+        assertEquals(5, search.getSize());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,258 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.dto.CursorPageDTO;
+import com.realestate.rems.dto.FavoriteBatchOutcome;
+import com.realestate.rems.dto.FavoriteSummary;
+import com.realestate.rems.dto.PropertySearchCriteria;
+import com.realestate.rems.dto.PropertySort;
+import com.realestate.rems.dto.PropertySummary;
+import com.realestate.rems.model.Property;
+import com.realestate.rems.model.User;
+import com.realestate.rems.repository.FavoriteRepository;
+import com.realestate.rems.repository.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that list endpoints load a page of summaries with a fixed number of statements,
+ * whatever the page size (no per-property image queries).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:listing-sql;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.realestate.rems.service.PropertyListingSqlTest$SqlCapture"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PropertyListingSqlTest {
+
+    private static final int LISTINGS = 40;
+
+    /**
+     * Records the SQL statements prepared on the test thread.
+     */
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+        static volatile Thread recording;
+
+        @Override
+        public String inspect(String sql) {
+            if (Thread.currentThread() == recording) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+
+    @Autowired
+    private PropertyService propertyService;
+
+    @Autowired
+    private FavoriteService favoriteService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private PropertySearchIndex searchIndex;
+
+    @Autowired
+    private PropertyFilterIndex filterIndex;
+
+    private Long agentId;
+    private Long clientId;
+    private final List<Long> propertyIds = new ArrayList<>();
+
+    @BeforeAll
+    void setUp() throws InterruptedException {
+        User agent = new User();
+        agent.setEmail("lister@example.com");
+        agent.setPassword("secret123");
+        agent.setRole("agent");
+        agentId = userRepository.save(agent).getId();
+
+        User client = new User();
+        client.setEmail("saver@example.com");
+        client.setPassword("secret123");
+        client.setRole("client");
+        clientId = userRepository.save(client).getId();
+
+        for (int i = 0; i < LISTINGS; i++) {
+            Property property = Property.builder()
+                    .title("Harbour flat " + i)
+                    .description("Bright flat near the harbour")
+                    .location("Porto")
+                    .type(i % 2 == 0 ? "rent" : "buy")
+                    .price(new BigDecimal(1000 + i))
+                    // The second image sorts first by name, so only the saved order makes "-a" the first
+                    .images(List.of("/uploads/images/" + i + "-a.jpg", "/uploads/images/" + i + "-0.jpg"))
+                    .build();
+            Long propertyId = propertyService.addProperty(property, agentId).getId();
+            favoriteService.addFavorite(propertyId, clientId);
+            propertyIds.add(propertyId);
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!(searchIndex.isReady() && filterIndex.isReady()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void listingUsesSameStatementCountForAnyPageSize() {
+        PropertySearchCriteria all = new PropertySearchCriteria(null, null, null, null);
+
+        int small = countStatements(() -> propertyService.searchProperties(all, PropertySort.NEWEST, null, 5));
+        int large = countStatements(() -> propertyService.searchProperties(all, PropertySort.NEWEST, null, 40));
+
+        assertEquals(small, large);
+        assertEquals(2, large, "expected one page query and one images query");
+    }
+
+    @Test
+    void filteredAndAgentListingsUseSameStatementCount() {
+        PropertySearchCriteria rentals = new PropertySearchCriteria(null, null, null, "rent");
+
+        int small = countStatements(() -> propertyService.searchProperties(rentals, PropertySort.PRICE_ASC, null, 3));
+        int large = countStatements(() -> propertyService.searchProperties(rentals, PropertySort.PRICE_ASC, null, 20));
+        int agent = countStatements(() -> propertyService.getPropertiesByAgentId(agentId, null, null, 30));
+
+        assertEquals(small, large);
+        assertEquals(small, agent);
+    }
+
+    @Test
+    void searchUsesSameStatementCountForAnyPageSize() {
+        PropertySearchCriteria search = new PropertySearchCriteria("harbour", null, null, null);
+
+        int small = countStatements(() -> propertyService.searchProperties(search, null, null, 5));
+        int large = countStatements(() -> propertyService.searchProperties(search, null, null, 40));
+
+        assertEquals(small, large);
+    }
+
+    @Test
+    void favoritesUseSameStatementCountAndNeverLoadClient() {
+        int small = countStatements(() -> favoriteService.getClientFavorites(clientId, null, 5));
+        List<String> smallStatements = List.copyOf(SqlCapture.statements);
+        int large = countStatements(() -> favoriteService.getClientFavorites(clientId, null, 40));
+
+        assertEquals(2, small, "expected one favorites query and one images query");
+        assertEquals(small, large);
+        assertTrue(smallStatements.stream().noneMatch(sql -> sql.contains(" users ")), smallStatements::toString);
+    }
+
+    @Test
+    void favoritesPageCarriesPropertySummaries() {
+        CursorPageDTO<FavoriteSummary> first = favoriteService.getClientFavorites(clientId, null, 2);
+        CursorPageDTO<FavoriteSummary> second = favoriteService.getClientFavorites(clientId, first.getNextCursor(), 2);
+
+        assertEquals("Harbour flat 39", first.getItems().get(0).getProperty().getTitle());
+        assertEquals("/uploads/images/39-a.jpg", first.getItems().get(0).getProperty().getImageUrl());
+        assertEquals("Harbour flat 37", second.getItems().get(0).getProperty().getTitle());
+    }
+
+    @Test
+    void bulkFavoritesAreIdempotentAndReportPerIdOutcomes() {
+        Long syncingClient = newClient("syncer@example.com");
+        Long p0 = propertyIds.get(0);
+        Long p1 = propertyIds.get(1);
+        Long p2 = propertyIds.get(2);
+
+        Map<Long, FavoriteBatchOutcome> added = favoriteService.addFavorites(syncingClient, List.of(p0, p1, p0, 999_999L));
+        assertEquals(Map.of(p0, FavoriteBatchOutcome.ADDED, p1, FavoriteBatchOutcome.ADDED,
+                999_999L, FavoriteBatchOutcome.PROPERTY_NOT_FOUND), added);
+        assertEquals(List.of(p0, p1, 999_999L), List.copyOf(added.keySet()));
+
+        Map<Long, FavoriteBatchOutcome> again = favoriteService.addFavorites(syncingClient, List.of(p1, p2));
+        assertEquals(Map.of(p1, FavoriteBatchOutcome.ALREADY_FAVORITED, p2, FavoriteBatchOutcome.ADDED), again);
+        assertEquals(Map.of(p0, true, p1, true, p2, true),
+                favoriteService.getFavoritedStatus(syncingClient, List.of(p0, p1, p2)));
+
+        Map<Long, FavoriteBatchOutcome> removed = favoriteService.removeFavorites(syncingClient, List.of(p0, p0, propertyIds.get(3)));
+        assertEquals(Map.of(p0, FavoriteBatchOutcome.REMOVED, propertyIds.get(3), FavoriteBatchOutcome.NOT_FAVORITED), removed);
+        assertEquals(Map.of(p0, false, p1, true),
+                favoriteService.getFavoritedStatus(syncingClient, List.of(p0, p1)));
+    }
+
+    @Test
+    void bulkInsertReportsOnlyTheRowsItInserted() {
+        Long racingClient = newClient("racer@example.com");
+        Long p0 = propertyIds.get(0);
+        Long p1 = propertyIds.get(1);
+        Long p2 = propertyIds.get(2);
+
+        assertEquals(Set.of(p0, p1), favoriteRepository.insertIgnoringDuplicates(racingClient, List.of(p0, p1)));
+        // As when another request saved p1 after the existence check
+        assertEquals(Set.of(p2), favoriteRepository.insertIgnoringDuplicates(racingClient, List.of(p1, p2)));
+    }
+
+    @Test
+    void bulkFavoritesUseSameStatementCountForAnyBatchSize() {
+        Long small = newClient("small-batch@example.com");
+        Long large = newClient("large-batch@example.com");
+
+        int smallAdd = countStatements(() -> favoriteService.addFavorites(small, propertyIds.subList(0, 3)));
+        int largeAdd = countStatements(() -> favoriteService.addFavorites(large, propertyIds));
+        int smallRemove = countStatements(() -> favoriteService.removeFavorites(small, propertyIds.subList(0, 3)));
+        int largeRemove = countStatements(() -> favoriteService.removeFavorites(large, propertyIds));
+
+        assertEquals(smallAdd, largeAdd);
+        assertEquals(smallRemove, largeRemove);
+    }
+
+    @Test
+    void summariesCarryFirstImage() {
+        CursorPageDTO<PropertySummary> page = propertyService.searchProperties(
+                new PropertySearchCriteria(null, null, null, null), PropertySort.PRICE_ASC, null, 1);
+
+        PropertySummary first = page.getItems().get(0);
+        assertEquals("Harbour flat 0", first.getTitle());
+        assertEquals("/uploads/images/0-a.jpg", first.getImageUrl());
+    }
+
+    private Long newClient(String email) {
+        User client = new User();
+        client.setEmail(email);
+        client.setPassword("secret123");
+        client.setRole("client");
+        return userRepository.save(client).getId();
+    }
+
+    /**
+     * Statements prepared through Hibernate on this thread; the JDBC insert batch runs beside
+     * Hibernate and is not counted, but is a single batch by construction.
+     */
+    private static int countStatements(Supplier<?> call) {
+        SqlCapture.statements.clear();
+        SqlCapture.recording = Thread.currentThread();
+        try {
+            Object result = call.get();
+            if (result instanceof CursorPageDTO<?> page) {
+                assertTrue(page.getSize() > 0);
+            }
+        } finally {
+            SqlCapture.recording = null;
+        }
+        return SqlCapture.statements.size();
+    }
+}
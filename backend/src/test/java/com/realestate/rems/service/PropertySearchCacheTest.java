@@ -0,0 +1,116 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.dto.CursorPageDTO;
+import com.realestate.rems.dto.PropertySearchCriteria;
+import com.realestate.rems.dto.PropertySort;
+import com.realestate.rems.dto.PropertySummary;
+import com.realestate.rems.model.Property;
+import com.realestate.rems.model.User;
+import com.realestate.rems.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:property-search-cache;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class PropertySearchCacheTest {
+
+    @Autowired
+    private PropertyService propertyService;
+
+    @Autowired
+    private PropertySearchCache searchCache;
+
+    @Autowired
+    private PropertySearchIndex searchIndex;
+
+    @Autowired
+    private PropertyFilterIndex filterIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void equivalentQueriesShareAnEntryUntilTheCatalogChanges() throws InterruptedException {
+        User agent = new User();
+        agent.setEmail("search-cache@example.com");
+        agent.setPassword("secret123");
+        agent.setRole("agent");
+        Long agentId = userRepository.save(agent).getId();
+        propertyService.addProperty(listing("Windmill cottage", "250000"), agentId);
+        awaitIndexes();
+
+        PropertySearchCriteria criteria = new PropertySearchCriteria("Windmill", new BigDecimal("1000.00"), null, "buy");
+        CursorPageDTO<PropertySummary> first = propertyService.searchProperties(criteria, null, null, 10);
+        int entries = searchCache.size();
+        PropertySearchCriteria respelled = new PropertySearchCriteria("  WINDMILL ", new BigDecimal("1000"), null, "buy");
+        CursorPageDTO<PropertySummary> second = propertyService.searchProperties(respelled, null, null, 10);
+
+        assertEquals(entries, searchCache.size());
+        assertEquals(1, second.getItems().size());
+        assertEquals(first.getItems().get(0).getId(), second.getItems().get(0).getId());
+
+        propertyService.addProperty(listing("Windmill farm", "300000"), agentId);
+        assertEquals(2, propertyService.searchProperties(criteria, null, null, 10).getItems().size());
+    }
+
+    @Test
+    void pagesFromAnOlderCatalogVersionAreMisses() {
+        PropertySearchCache cache = new PropertySearchCache(new SimpleMeterRegistry(), 100);
+        PropertySearchCache.Key key = PropertySearchCache.Key.of(
+                new PropertySearchCriteria(null, null, null, "rent"), PropertySort.NEWEST, null, 20);
+        long version = cache.version();
+        cache.put(key, version, new PropertySearchCache.Page(new long[] { 3, 1, 2 }, "next", List.of()));
+
+        PropertySearchCache.Page page = cache.get(key, version);
+        assertEquals(List.of(3L, 1L, 2L), page.getIds());
+        assertEquals("next", page.getNextCursor());
+        assertNull(page.getItems());
+
+        cache.onPropertyChanged(PropertyChangedEvent.deleted(1L));
+        assertNull(cache.get(key, cache.version()));
+    }
+
+    @Test
+    void searchKeysIdentifyEquivalentRequests() {
+        PropertySearchCriteria plain = new PropertySearchCriteria("loft", new BigDecimal("100"), null, "rent");
+        PropertySearchCriteria respelled = new PropertySearchCriteria(" LOFT ", new BigDecimal("100.00"), null, "rent");
+        assertEquals(propertyService.searchKey(plain, null, null, null),
+                propertyService.searchKey(respelled, PropertySort.RELEVANCE, "", 20));
+
+        // Search text containing a separator does not pose as another filter combination
+        PropertySearchCriteria piped = new PropertySearchCriteria("a|100", null, null, null);
+        PropertySearchCriteria priced = new PropertySearchCriteria("a", new BigDecimal("100"), null, null);
+        assertNotEquals(propertyService.searchKey(piped, null, null, null),
+                propertyService.searchKey(priced, null, null, null));
+        assertNotEquals(propertyService.searchKey(PropertySearchCriteria.forAgent(1L), null, null, null),
+                propertyService.searchKey(PropertySearchCriteria.forAgent(1L), PropertySort.PRICE_ASC, null, null));
+    }
+
+    private void awaitIndexes() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!(searchIndex.isReady() && filterIndex.isReady()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static Property listing(String title, String price) {
+        return Property.builder()
+                .title(title)
+                .description("Out in the polder")
+                .location("Kinderdijk")
+                .type("buy")
+                .price(new BigDecimal(price))
+                .build();
+    }
+}
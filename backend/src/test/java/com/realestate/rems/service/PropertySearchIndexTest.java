@@ -0,0 +1,178 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.dto.PropertyTextView;
+import com.realestate.rems.model.Property;
+import com.realestate.rems.repository.PropertyRepository;
+import com.realestate.rems.service.PropertySearchIndex.SearchHit;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PropertySearchIndexTest {
+
+    private final PropertyRepository propertyRepository = mock(PropertyRepository.class);
+    private final PropertySearchIndex index = new PropertySearchIndex(propertyRepository);
+
+    @Test
+    void ranksTitleMatchesAndShortDocumentsFirst() {
+        index(1L, "Quiet house", "By the canal, close to the station and the old market", "Utrecht");
+        index(2L, "Canal house", "Quiet street", "Utrecht");
+        index(3L, "Farm", "Fields and a canal", "Utrecht");
+        index(4L, "Studio", "Near the station", "Utrecht");
+
+        // Title terms count double, and 3 is shorter than 1
+        assertEquals(List.of(2L, 3L, 1L), ids(index.search("canal", null, 10, null)));
+        // Every term has to match
+        assertEquals(List.of(1L), ids(index.search("canal station", null, 10, null)));
+        assertEquals(List.of(), ids(index.search("canal castle", null, 10, null)));
+    }
+
+    @Test
+    void prefixesMatchAtReducedWeight() {
+        index(1L, "Loft", null, null);
+        index(2L, "Lofts", null, null);
+        index(3L, "Apartment", null, null);
+
+        List<SearchHit> hits = index.search("LOFT", null, 10, null);
+        assertEquals(List.of(1L, 2L), ids(hits));
+        // Same length and document frequency, so only the prefix weight tells them apart
+        assertEquals(0.8, hits.get(1).getScore() / hits.get(0).getScore(), 1e-9);
+        // Both are prefix matches here, so they tie and the newer id comes first
+        assertEquals(List.of(2L, 1L), ids(index.search("lo", null, 10, null)));
+        // Single characters only match whole terms
+        assertEquals(List.of(), ids(index.search("a", null, 10, null)));
+    }
+
+    @Test
+    void pagesStrictlyAfterTheCursorAndAppliesTheFilter() {
+        for (long id = 1; id <= 9; id++) {
+            // 1-3 are shorter and score equally, so they lead and are ranked by id
+            index(id, id <= 3 ? "House" : "House with garden", "Number " + id, null);
+        }
+        List<Long> all = ids(index.search("house", null, 100, null));
+        assertEquals(9, all.size());
+        assertEquals(List.of(3L, 2L, 1L), all.subList(0, 3));
+
+        List<Long> paged = new ArrayList<>();
+        SearchHit after = null;
+        List<SearchHit> page;
+        while (!(page = index.search("house", after, 2, null)).isEmpty()) {
+            assertTrue(page.size() <= 2);
+            paged.addAll(ids(page));
+            after = page.get(page.size() - 1);
+        }
+        assertEquals(all, paged);
+
+        List<Long> even = all.stream().filter(id -> id % 2 == 0).collect(Collectors.toList());
+        assertEquals(even, ids(index.search("house", null, 100, id -> id % 2 == 0)));
+    }
+
+    @Test
+    void updatesAndDeletesSurviveCompaction() {
+        int count = 1500;
+        for (long id = 1; id <= count; id++) {
+            index(id, "Listing " + id, "Street", null);
+        }
+        // Rewriting every document leaves 1500 tombstones, enough to compact midway
+        for (long id = 1; id <= count; id++) {
+            index(id, "Renovated " + id, "Street", null);
+        }
+        for (long id = 2; id <= count; id += 2) {
+            index.onPropertyChanged(PropertyChangedEvent.deleted(id));
+        }
+
+        assertEquals(count / 2, index.size());
+        assertEquals(List.of(), ids(index.search("listing", null, 10, null)));
+        assertEquals(count / 2, index.search("renovated street", null, count, null).size());
+        assertEquals(List.of(751L), ids(index.search("751", null, 10, null)));
+        assertEquals(List.of(), ids(index.search("750", null, 10, null)));
+        // 75 itself, then 751 to 759 in steps of two as prefix matches
+        assertEquals(List.of(75L, 759L, 757L, 755L, 753L, 751L), ids(index.search("75", null, 10, null)));
+    }
+
+    @Test
+    void deletedDocumentsNoLongerCountTowardsDocumentFrequency() {
+        index(1L, "Canal house", null, null);
+        index(2L, "Canal view", null, null);
+        index(3L, "Garden", null, null);
+        index.onPropertyChanged(PropertyChangedEvent.deleted(2L));
+
+        PropertySearchIndex fresh = new PropertySearchIndex(propertyRepository);
+        index(fresh, 1L, "Canal house", null, null);
+        index(fresh, 3L, "Garden", null, null);
+
+        assertEquals(fresh.search("canal", null, 10, null).get(0).getScore(),
+                index.search("canal", null, 10, null).get(0).getScore(), 1e-9);
+    }
+
+    @Test
+    void writesDuringARebuildWinOverTheRowsItReads() {
+        index(9L, "Stale entry", null, null);
+        when(propertyRepository.findTextBatch(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            assertFalse(index.isReady());
+            // Committed after the batch query read its snapshot
+            index(2L, "Penthouse", "Top floor", "Rotterdam");
+            index.onPropertyChanged(PropertyChangedEvent.deleted(3L));
+            return List.of(row(1L, "Cottage"), row(2L, "Old barn"), row(3L, "Houseboat"));
+        });
+
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        assertEquals(2, index.size());
+        assertEquals(List.of(1L), ids(index.search("cottage", null, 10, null)));
+        assertEquals(List.of(2L), ids(index.search("penthouse", null, 10, null)));
+        assertEquals(List.of(), ids(index.search("barn", null, 10, null)));
+        assertEquals(List.of(), ids(index.search("houseboat", null, 10, null)));
+        assertEquals(List.of(), ids(index.search("stale", null, 10, null)));
+    }
+
+    private void index(Long id, String title, String description, String location) {
+        index(index, id, title, description, location);
+    }
+
+    private static void index(PropertySearchIndex target, Long id, String title, String description, String location) {
+        Property property = Property.builder()
+                .id(id)
+                .title(title)
+                .description(description)
+                .location(location)
+                .build();
+        target.onPropertyChanged(PropertyChangedEvent.updated(property));
+    }
+
+    private static List<Long> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::getId).collect(Collectors.toList());
+    }
+
+    private static PropertyTextView row(Long id, String title) {
+        return new PropertyTextView() {
+            public Long getId() {
+                return id;
+            }
+
+            public String getTitle() {
+                return title;
+            }
+
+            public String getDescription() {
+                return null;
+            }
+
+            public String getLocation() {
+                return null;
+            }
+        };
+    }
+}
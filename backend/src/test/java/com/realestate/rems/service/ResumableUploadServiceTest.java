@@ -0,0 +1,170 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.dto.ImageInfoDTO;
+import com.realestate.rems.dto.UploadSessionDTO;
+import com.realestate.rems.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:resumable-upload;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class ResumableUploadServiceTest {
+
+    // images.resumable.dir of the test profile
+    private static final Path STAGING = Paths.get("target/test-uploads/staging").toAbsolutePath();
+
+    private static final long OWNER = 7L;
+
+    @Autowired
+    private ResumableUploadService uploads;
+
+    @Test
+    void chunksSentOutOfOrderAreAssembledAndStored() throws Exception {
+        byte[] content = noisyPng(400, 300);
+        UploadSessionDTO session = uploads.create(OWNER, content.length);
+        int third = content.length / 3;
+
+        UploadSessionDTO status = uploads.writeChunk(session.getId(), OWNER, third, chunk(content, third, 2 * third));
+        assertEquals(0, status.getOffset());
+        assertEquals(third, status.getReceived());
+        uploads.writeChunk(session.getId(), OWNER, 2 * third, chunk(content, 2 * third, content.length));
+        status = uploads.writeChunk(session.getId(), OWNER, 0, chunk(content, 0, third));
+        assertEquals(content.length, status.getOffset());
+        assertTrue(status.isComplete());
+
+        ImageInfoDTO info = uploads.complete(session.getId(), OWNER, sha256(content));
+        assertEquals(ImageService.URL_PREFIX + sha256(content) + ".png", info.getUrl());
+        assertEquals(400, info.getWidth());
+        assertFalse(Files.exists(STAGING.resolve(session.getId() + ".part")));
+        assertThrows(ResourceNotFoundException.class, () -> uploads.status(session.getId(), OWNER));
+    }
+
+    @Test
+    void interruptedChunkResumesFromTheLastByteWritten() throws Exception {
+        byte[] content = noisyPng(300, 200);
+        UploadSessionDTO session = uploads.create(OWNER, content.length);
+
+        InputStream dropped = new DroppingStream(chunk(content, 0, content.length), 1000);
+        assertThrows(IOException.class, () -> uploads.writeChunk(session.getId(), OWNER, 0, dropped));
+        long offset = uploads.status(session.getId(), OWNER).getOffset();
+        assertEquals(1000, offset);
+
+        uploads.writeChunk(session.getId(), OWNER, offset, chunk(content, (int) offset, content.length));
+        assertEquals(300, uploads.complete(session.getId(), OWNER, sha256(content)).getWidth());
+    }
+
+    @Test
+    void incompleteOrCorruptUploadsAreRejected() throws Exception {
+        byte[] content = noisyPng(200, 200);
+        UploadSessionDTO session = uploads.create(OWNER, content.length);
+        uploads.writeChunk(session.getId(), OWNER, 0, chunk(content, 0, 100));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> uploads.writeChunk(session.getId(), OWNER, 100, chunk(content, 0, content.length)));
+        assertThrows(IllegalArgumentException.class, () -> uploads.complete(session.getId(), OWNER, sha256(content)));
+        assertThrows(ResourceNotFoundException.class, () -> uploads.status(session.getId(), OWNER + 1));
+
+        byte[] corrupted = content.clone();
+        corrupted[150] ^= 1;
+        uploads.writeChunk(session.getId(), OWNER, 100, chunk(corrupted, 100, corrupted.length));
+        assertThrows(IllegalArgumentException.class, () -> uploads.complete(session.getId(), OWNER, sha256(content)));
+        // A corrupt upload cannot be repaired, so the session is gone
+        assertThrows(ResourceNotFoundException.class, () -> uploads.status(session.getId(), OWNER));
+    }
+
+    @Test
+    void abandonedUploadsAreRemoved() throws Exception {
+        UploadSessionDTO session = uploads.create(OWNER, 4096);
+        Path part = STAGING.resolve(session.getId() + ".part");
+        Path leftover = STAGING.resolve("from-a-previous-run.part");
+        Files.write(leftover, new byte[16]);
+        Files.setLastModifiedTime(leftover, FileTime.from(Instant.now().minus(2, ChronoUnit.HOURS)));
+        assertTrue(Files.exists(part));
+
+        // With an hour of idle time only the leftover, untouched for two hours, goes
+        uploads.removeIdleSince(System.currentTimeMillis() - 3_600_000);
+        assertTrue(Files.exists(part));
+        assertFalse(Files.exists(leftover));
+
+        uploads.removeIdleSince(System.currentTimeMillis() + 1);
+        assertFalse(Files.exists(part));
+        assertThrows(ResourceNotFoundException.class, () -> uploads.status(session.getId(), OWNER));
+    }
+
+    private static InputStream chunk(byte[] content, int from, int to) {
+        return new ByteArrayInputStream(Arrays.copyOfRange(content, from, to));
+    }
+
+    // Noise compresses poorly, so the file spans several read buffers
+    private static byte[] noisyPng(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(width * 31L + height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    /**
+     * Delivers a number of bytes, then fails the way a dropped client connection does.
+     */
+    private static class DroppingStream extends InputStream {
+
+        private final InputStream in;
+        private int remaining;
+
+        DroppingStream(InputStream in, int deliver) {
+            this.in = in;
+            this.remaining = deliver;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining == 0) {
+                throw new IOException("Connection reset");
+            }
+            int read = in.read(b, off, Math.min(len, remaining));
+            remaining -= read;
+            return read;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>("test", 5000, new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> flights.load("rent", () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "page";
+            })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+        for (Future<String> result : results) {
+            assertEquals("page", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+
+        // Nothing is kept after the load
+        assertEquals("again", flights.load("rent", () -> "again"));
+    }
+
+    @Test
+    void waitingCallersGetTheLoadersFailure() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>("test", 5000, new SimpleMeterRegistry());
+        IllegalArgumentException failure = new IllegalArgumentException("Invalid cursor");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> led = callers.submit(() -> flights.load("loft", () -> {
+            loading.countDown();
+            await(release);
+            throw failure;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Future<String> followed = callers.submit(() -> flights.load("loft", () -> {
+            throw new AssertionError("load ran twice");
+        }));
+        Thread.sleep(200);
+        release.countDown();
+
+        assertSame(failure, assertThrows(ExecutionException.class, () -> led.get(5, TimeUnit.SECONDS)).getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, () -> followed.get(5, TimeUnit.SECONDS)).getCause());
+    }
+
+    @Test
+    void waitingCallersGiveUpAfterTheTimeout() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>("test", 100, new SimpleMeterRegistry());
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> led = callers.submit(() -> flights.load("slow", () -> {
+            loading.countDown();
+            await(release);
+            return "late";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        ExecutionException timedOut = assertThrows(ExecutionException.class,
+                () -> callers.submit(() -> flights.load("slow", () -> "own")).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceUnavailableException.class, timedOut.getCause());
+
+        release.countDown();
+        assertEquals("late", led.get(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
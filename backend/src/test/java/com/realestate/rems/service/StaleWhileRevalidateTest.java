@@ -0,0 +1,133 @@
+package com.realestate.rems.service;
+
+import com.realestate.rems.config.ReadYourWrites;
+import com.realestate.rems.exception.ResourceNotFoundException;
+import com.realestate.rems.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StaleWhileRevalidateTest {
+
+    private final StaleWhileRevalidate reads = new StaleWhileRevalidate(
+            new SimpleMeterRegistry(), new ReadYourWrites(5000), 100, 100, 2, 10);
+
+    @AfterEach
+    void shutdown() {
+        reads.shutdown();
+    }
+
+    @Test
+    void failedReadIsAnsweredWithTheLastGoodResult() {
+        StaleWhileRevalidate.Result<String> fresh = reads.get("page", () -> "v1");
+        assertEquals("v1", fresh.getValue());
+        assertFalse(fresh.isStale());
+
+        StaleWhileRevalidate.Result<String> stale = reads.get("page", () -> {
+            throw new ServiceUnavailableException("Database is unavailable");
+        });
+        assertEquals("v1", stale.getValue());
+        assertTrue(stale.isStale());
+    }
+
+    @Test
+    void slowReadIsAnsweredStaleAndRefreshesInTheBackground() throws InterruptedException {
+        reads.get("page", () -> "v1");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        StaleWhileRevalidate.Result<String> stale = reads.get("page", () -> {
+            await(release);
+            done.countDown();
+            return "v2";
+        });
+        assertEquals("v1", stale.getValue());
+        assertTrue(stale.isStale());
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        StaleWhileRevalidate.Result<String> later = reads.get("page", () -> {
+            throw new ServiceUnavailableException("Database is unavailable");
+        });
+        assertEquals("v2", later.getValue());
+    }
+
+    @Test
+    void errorsThatAnswerTheRequestAreNeverMaskedByStaleResults() {
+        assertThrows(ServiceUnavailableException.class, () -> reads.get("new", () -> {
+            throw new ServiceUnavailableException("Database is unavailable");
+        }));
+
+        reads.get("property:1", () -> "listing");
+        assertThrows(ResourceNotFoundException.class, () -> reads.get("property:1", () -> {
+            throw new ResourceNotFoundException("Property not found with id: 1");
+        }));
+        assertThrows(ServiceUnavailableException.class, () -> reads.get("property:1", () -> {
+            throw new ServiceUnavailableException("Database is unavailable");
+        }));
+
+        reads.get("cursor", () -> "page");
+        assertThrows(IllegalArgumentException.class, () -> reads.get("cursor", () -> {
+            throw new IllegalArgumentException("Invalid cursor");
+        }));
+
+        // Bugs are not database failures and must not hide behind a stale 200
+        assertThrows(NullPointerException.class, () -> reads.get("cursor", () -> {
+            throw new NullPointerException();
+        }));
+        StaleWhileRevalidate.Result<String> stale = reads.get("cursor", () -> {
+            throw new QueryTimeoutException("Statement cancelled");
+        });
+        assertTrue(stale.isStale());
+    }
+
+    @Test
+    void deletedListingIsNotServedStale() {
+        reads.get(StaleWhileRevalidate.detailKey(5L), () -> "listing");
+        reads.onPropertyChanged(PropertyChangedEvent.deleted(5L));
+
+        assertThrows(ServiceUnavailableException.class, () -> reads.get(StaleWhileRevalidate.detailKey(5L), () -> {
+            throw new ServiceUnavailableException("Database is unavailable");
+        }));
+    }
+
+    @Test
+    void readsThatOverlapADeleteAreNotKept() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<StaleWhileRevalidate.Result<String>> overlapping = CompletableFuture.supplyAsync(
+                () -> reads.get(StaleWhileRevalidate.detailKey(5L), () -> {
+                    started.countDown();
+                    await(release);
+                    return "listing";
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        reads.onPropertyChanged(PropertyChangedEvent.deleted(5L));
+        release.countDown();
+        // The caller still gets its answer, but it does not become the last good result
+        assertEquals("listing", overlapping.get(5, TimeUnit.SECONDS).getValue());
+
+        assertThrows(ServiceUnavailableException.class, () -> reads.get(StaleWhileRevalidate.detailKey(5L), () -> {
+            throw new ServiceUnavailableException("Database is unavailable");
+        }));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}